@@ -2,6 +2,7 @@ package io.banking.whatsapp.accounts;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Main application class for the Banking Accounts Service. This service
@@ -13,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2024-03-19
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class BankingAccountsServiceApplication {
 
 	public static void main(String[] args) {
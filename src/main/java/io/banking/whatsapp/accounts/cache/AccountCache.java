@@ -0,0 +1,104 @@
+package io.banking.whatsapp.accounts.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of account views, bounded in size and time. Accounts are
+ * cached by ID; lookups by account number go through an index of numbers to
+ * IDs, so evicting an account by ID also stops it being served by number.
+ * Concurrent misses for the same ID share a single load, and a load still in
+ * flight when the account is evicted is not cached. Hit, miss and eviction
+ * counts are published as {@code cache.*} meters.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountCache {
+
+	private final AsyncCache<String, AccountResponseDTO> accounts;
+	private final Cache<String, String> accountNumbers;
+
+	public AccountCache(AccountsProperties properties, MeterRegistry meterRegistry) {
+		AccountsProperties.Cache cache = properties.getCache();
+		this.accounts = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+				.expireAfterWrite(cache.getTtl()).maximumSize(cache.getMaximumSize()).recordStats().buildAsync(),
+				"accounts");
+		this.accountNumbers = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+				.expireAfterWrite(cache.getTtl()).maximumSize(cache.getMaximumSize()).recordStats().build(),
+				"account-numbers");
+	}
+
+	/**
+	 * Returns the account cached for the ID, loading it with the supplied Mono on
+	 * a miss. Empty or failed loads are not cached.
+	 *
+	 * @param id     the ID of the account
+	 * @param loader reads the account on a cache miss
+	 * @return a Mono containing the cached or loaded account
+	 */
+	public Mono<AccountResponseDTO> getById(String id, Supplier<Mono<AccountResponseDTO>> loader) {
+		// A cancelled caller must not cancel the load other callers may be waiting on
+		return Mono.defer(() -> Mono.fromFuture(accounts.get(id, (key, executor) -> loader.get().toFuture()), true));
+	}
+
+	/**
+	 * Returns the account cached for the account number, loading it with the
+	 * supplied Mono on a miss. The loaded account is cached by ID as well.
+	 *
+	 * @param accountNumber the account number
+	 * @param loader        reads the account on a cache miss
+	 * @return a Mono containing the cached or loaded account
+	 */
+	public Mono<AccountResponseDTO> getByNumber(String accountNumber, Supplier<Mono<AccountResponseDTO>> loader) {
+		return Mono.defer(() -> {
+			Mono<AccountResponseDTO> load = Mono.defer(loader).doOnNext(account -> {
+				accountNumbers.put(accountNumber, account.getId());
+				accounts.asMap().putIfAbsent(account.getId(), CompletableFuture.completedFuture(account));
+			});
+
+			String id = accountNumbers.getIfPresent(accountNumber);
+			CompletableFuture<AccountResponseDTO> cached = id == null ? null : accounts.getIfPresent(id);
+			if (cached == null) {
+				return load;
+			}
+			// The number may have been reassigned since it was indexed
+			return Mono.fromFuture(cached, true).filter(account -> accountNumber.equals(account.getAccountNumber()))
+					.switchIfEmpty(load);
+		});
+	}
+
+	/**
+	 * Evicts an account after it was changed or deleted.
+	 *
+	 * @param id the ID of the account
+	 */
+	public void evict(String id) {
+		if (id != null) {
+			accounts.synchronous().invalidate(id);
+		}
+	}
+
+	/**
+	 * Evicts every account, typically when changes may have been missed.
+	 */
+	public void evictAll() {
+		accounts.synchronous().invalidateAll();
+		accountNumbers.invalidateAll();
+	}
+}
@@ -0,0 +1,181 @@
+package io.banking.whatsapp.accounts.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Keeps the local account caches consistent with writes made through other
+ * instances by following the change stream of the {@code accounts} collection.
+ * Every change evicts the account; deletes also evict it from the existence
+ * cache. Transactions are not watched: every transaction write also updates its
+ * account document, which already produces an event here.
+ *
+ * <p>
+ * The position in the stream is kept in memory to reconnect after a failure,
+ * and persisted periodically so a restarted listener resumes where it stopped.
+ * When the position is too old to resume from, or events may have been missed
+ * while disconnected, the caches are cleared instead.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountChangeStreamListener {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountChangeStreamListener.class);
+
+	static final String TOKENS_COLLECTION = "change_stream_tokens";
+	static final String LISTENER_ID = "accounts-cache";
+
+	// ChangeStreamHistoryLost and ChangeStreamFatalError: the token cannot be resumed from
+	private static final int HISTORY_LOST = 286;
+	private static final int FATAL_ERROR = 280;
+
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final AccountCache accountCache;
+	private final AccountExistenceCache accountExistenceCache;
+	private final AccountsProperties.ChangeStreams properties;
+
+	private volatile BsonValue resumeToken;
+	private Disposable subscription;
+
+	public AccountChangeStreamListener(ReactiveMongoTemplate mongoTemplate, AccountCache accountCache,
+			AccountExistenceCache accountExistenceCache, AccountsProperties properties) {
+		this.mongoTemplate = mongoTemplate;
+		this.accountCache = accountCache;
+		this.accountExistenceCache = accountExistenceCache;
+		this.properties = properties.getChangeStreams();
+	}
+
+	/**
+	 * Starts following the change stream once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+
+		subscription = loadToken().doOnNext(token -> resumeToken = token).then()
+				.thenMany(Flux.defer(this::watch).doOnNext(this::apply).doOnError(this::handleError)
+						.retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getReconnectBackoff())
+								.maxBackoff(Duration.ofMinutes(1))))
+				.sample(properties.getTokenSaveInterval()).concatMap(event -> saveToken(event.getResumeToken()))
+				.subscribe(null, error -> log.error("Account change stream stopped", error));
+		log.info("Following account changes to keep the caches consistent");
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (subscription != null) {
+			subscription.dispose();
+		}
+	}
+
+	private Flux<ChangeStreamEvent<Document>> watch() {
+		BsonValue token = resumeToken;
+		ChangeStreamWithFilterAndProjection<Document> stream = mongoTemplate.changeStream(Document.class)
+				.watchCollection(Account.class);
+		return token == null ? stream.listen() : stream.resumeAfter(token).listen();
+	}
+
+	/**
+	 * Evicts the account a change refers to and remembers the change as the
+	 * position to resume from.
+	 */
+	void apply(ChangeStreamEvent<Document> event) {
+		OperationType operation = event.getOperationType();
+		BsonDocument key = event.getRaw() == null ? null : event.getRaw().getDocumentKey();
+
+		if (key == null || operation == OperationType.DROP || operation == OperationType.INVALIDATE) {
+			accountCache.evictAll();
+			accountExistenceCache.evictAll();
+		} else {
+			String id = id(key.get("_id"));
+			accountCache.evict(id);
+			if (operation == OperationType.DELETE) {
+				accountExistenceCache.evict(id);
+			}
+		}
+		resumeToken = event.getResumeToken();
+	}
+
+	/**
+	 * Changes made while the stream is down are not seen, so everything cached
+	 * may be stale. A position that can no longer be resumed from is dropped.
+	 */
+	private void handleError(Throwable error) {
+		log.warn("Account change stream failed, clearing caches and reconnecting: {}", error.getMessage());
+		accountCache.evictAll();
+		accountExistenceCache.evictAll();
+		if (isHistoryLost(error)) {
+			resumeToken = null;
+		}
+	}
+
+	private Mono<BsonValue> loadToken() {
+		return mongoTemplate.findById(LISTENER_ID, Document.class, TOKENS_COLLECTION)
+				.<BsonValue>map(document -> new BsonDocument("_data", new BsonString(document.getString("token"))))
+				.onErrorResume(error -> {
+					log.warn("Could not load the account change stream position: {}", error.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	private Mono<Void> saveToken(BsonValue token) {
+		if (token == null || !token.isDocument() || !token.asDocument().containsKey("_data")) {
+			return Mono.empty();
+		}
+		Update update = Update.update("token", token.asDocument().getString("_data").getValue()).set("updatedAt",
+				LocalDateTime.now());
+
+		return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(LISTENER_ID)), update, TOKENS_COLLECTION)
+				.then().onErrorResume(error -> {
+					log.warn("Could not save the account change stream position: {}", error.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	static String id(BsonValue id) {
+		return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+	}
+
+	private static boolean isHistoryLost(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof MongoException mongoException
+					&& (mongoException.getCode() == HISTORY_LOST || mongoException.getCode() == FATAL_ERROR)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
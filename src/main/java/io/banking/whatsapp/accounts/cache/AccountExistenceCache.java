@@ -0,0 +1,101 @@
+package io.banking.whatsapp.accounts.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded cache of account IDs known to exist, so reads that only need to tell
+ * a missing account apart from an empty one do not query the account document.
+ * Only positive answers are cached: an account created after a miss is found on
+ * the next check, and deleted accounts are evicted by this instance and expire
+ * on the others.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountExistenceCache {
+
+	private final Cache<String, Boolean> cache;
+
+	public AccountExistenceCache(AccountsProperties properties) {
+		AccountsProperties.Existence existence = properties.getExistence();
+		this.cache = Caffeine.newBuilder().expireAfterWrite(existence.getTtl())
+				.maximumSize(existence.getMaximumSize()).build();
+	}
+
+	/**
+	 * Tells whether the account exists, answering from memory when it is known to
+	 * and checking with the supplied Mono otherwise.
+	 *
+	 * @param accountId the ID of the account
+	 * @param loader    checks the database on a cache miss
+	 * @return a Mono emitting true if the account exists
+	 */
+	public Mono<Boolean> exists(String accountId, Supplier<Mono<Boolean>> loader) {
+		return Mono.defer(() -> {
+			if (cache.getIfPresent(accountId) != null) {
+				return Mono.just(true);
+			}
+			return loader.get().doOnNext(exists -> {
+				if (exists) {
+					cache.put(accountId, true);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Runs a read of an account's data concurrently with the check that the
+	 * account exists, so an empty result is told apart from a missing account
+	 * in a single round-trip, or none for the check when the account is known to
+	 * exist.
+	 *
+	 * @param <T>       the type of the result
+	 * @param accountId the ID of the account
+	 * @param loader    checks the database on a cache miss
+	 * @param read      the read to run
+	 * @return a Mono containing the result of the read
+	 * @throws AccountNotFoundException if the account does not exist
+	 */
+	public <T> Mono<T> requireExisting(String accountId, Supplier<Mono<Boolean>> loader, Mono<T> read) {
+		return Mono.zip(exists(accountId, loader), read).flatMap(result -> result.getT1()
+				? Mono.just(result.getT2())
+				: Mono.error(AccountNotFoundException.withId(accountId)));
+	}
+
+	/**
+	 * Records that an account exists, typically right after creating it.
+	 *
+	 * @param accountId the ID of the account
+	 */
+	public void markExists(String accountId) {
+		cache.put(accountId, true);
+	}
+
+	/**
+	 * Forgets an account, typically right after deleting it.
+	 *
+	 * @param accountId the ID of the account
+	 */
+	public void evict(String accountId) {
+		cache.invalidate(accountId);
+	}
+
+	/**
+	 * Forgets every account, typically when deletes may have been missed.
+	 */
+	public void evictAll() {
+		cache.invalidateAll();
+	}
+}
@@ -0,0 +1,140 @@
+package io.banking.whatsapp.accounts.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bloom filter of the account numbers in use. A negative answer is definitive,
+ * so account creation can insert straight away and leave the unique index to
+ * catch the rare number taken on another instance; only positive answers, which
+ * may be false, are confirmed against the database. The filter is loaded at
+ * startup from the {@code accountNumber} index and answers "maybe" for every
+ * number until the load completes. Deleted numbers cannot be removed and keep
+ * answering "maybe", which only costs a confirming read.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountNumberFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountNumberFilter.class);
+
+	private final AccountRepository accountRepository;
+	private final AtomicLongArray bits;
+	private final long size;
+	private final int hashes;
+	private volatile boolean loaded;
+
+	public AccountNumberFilter(AccountRepository accountRepository, AccountsProperties properties) {
+		AccountsProperties.NumberFilter filter = properties.getNumberFilter();
+		double expected = Math.max(1, filter.getExpectedAccounts());
+		long optimalSize = (long) Math
+				.ceil(-expected * Math.log(filter.getFalsePositiveRate()) / (Math.log(2) * Math.log(2)));
+
+		this.accountRepository = accountRepository;
+		this.bits = new AtomicLongArray((int) Math.max(1, (optimalSize + 63) / 64));
+		this.size = bits.length() * 64L;
+		this.hashes = (int) Math.max(1, Math.round(size / expected * Math.log(2)));
+	}
+
+	/**
+	 * Loads the account numbers in the background once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		load(accountRepository.findAllAccountNumbers()).subscribe(
+				count -> log.info("Loaded {} account numbers into the duplicate filter", count),
+				error -> log.warn("Could not load the account number filter, duplicates are checked in the database: {}",
+						error.getMessage()));
+	}
+
+	/**
+	 * Adds every number of the stream to the filter, and starts answering
+	 * definitively once the stream completes.
+	 *
+	 * @param accountNumbers the account numbers in use
+	 * @return a Mono containing the number of account numbers loaded
+	 */
+	public Mono<Long> load(Flux<String> accountNumbers) {
+		return accountNumbers.doOnNext(this::put).count().doOnNext(count -> loaded = true);
+	}
+
+	/**
+	 * Tells whether an account number may be in use.
+	 *
+	 * @param accountNumber the account number
+	 * @return false if the number is certainly not in use
+	 */
+	public boolean mightContain(String accountNumber) {
+		if (!loaded) {
+			return true;
+		}
+
+		long hash = hash(accountNumber);
+		for (int i = 0; i < hashes; i++) {
+			long bit = index(hash, i);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Records that an account number is in use, typically right after creating
+	 * the account.
+	 *
+	 * @param accountNumber the account number
+	 */
+	public void put(String accountNumber) {
+		long hash = hash(accountNumber);
+		for (int i = 0; i < hashes; i++) {
+			long bit = index(hash, i);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+				// Retry until the bit is set
+			}
+		}
+	}
+
+	/**
+	 * Derives the i-th bit position from the two halves of the hash.
+	 */
+	private long index(long hash, int i) {
+		int first = (int) hash;
+		int second = (int) (hash >>> 32);
+		return Math.floorMod(first + (long) i * second, size);
+	}
+
+	/**
+	 * FNV-1a over the characters, followed by a 64-bit finalizer so both halves
+	 * are well mixed.
+	 */
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+}
@@ -0,0 +1,51 @@
+package io.banking.whatsapp.accounts.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time-bounded dedupe cache for transactions keyed by account ID and client
+ * reference. Retries of a transaction that was created recently are answered
+ * from memory, and concurrent retries of a transaction still being created
+ * share the same in-flight result instead of racing to the database.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class TransactionIdempotencyCache {
+
+	private final AsyncCache<String, TransactionResponseDTO> cache;
+
+	public TransactionIdempotencyCache(AccountsProperties properties) {
+		AccountsProperties.Idempotency idempotency = properties.getIdempotency();
+		this.cache = Caffeine.newBuilder().expireAfterWrite(idempotency.getTtl())
+				.maximumSize(idempotency.getMaximumSize()).buildAsync();
+	}
+
+	/**
+	 * Returns the transaction cached for the given key, loading it with the
+	 * supplied Mono on a miss. Failed or empty loads are not cached.
+	 *
+	 * @param accountId the ID of the account
+	 * @param reference the client-supplied transaction reference
+	 * @param loader    looks up or creates the transaction on a cache miss
+	 * @return a Mono containing the cached or loaded transaction
+	 */
+	public Mono<TransactionResponseDTO> get(String accountId, String reference,
+			Supplier<Mono<TransactionResponseDTO>> loader) {
+		// A cancelled caller must not cancel the load other callers may be waiting on
+		return Mono.defer(() -> Mono.fromFuture(
+				cache.get(accountId + ":" + reference, (key, executor) -> loader.get().toFuture()), true));
+	}
+}
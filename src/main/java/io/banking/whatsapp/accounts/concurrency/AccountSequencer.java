@@ -0,0 +1,154 @@
+package io.banking.whatsapp.accounts.concurrency;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.exception.AccountBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Serializes mutations per account without locks. Accounts are hashed onto a
+ * fixed number of lanes; operations on the same lane run one after another in
+ * arrival order, while operations on different lanes run fully in parallel.
+ * Each lane is a chain of completion signals swapped in with a single atomic
+ * exchange, so enqueueing never blocks a thread.
+ *
+ * <p>
+ * Once subscribed, an operation runs to completion even if the caller cancels,
+ * so the lane never advances while a write is still in flight. Each account may
+ * have a bounded number of queued operations, and new ones are rejected with
+ * {@link AccountBusyException} when it is saturated. The bound is per account
+ * rather than per lane, so a hot account cannot get the accounts that share its
+ * lane rejected.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountSequencer {
+
+	private final Lane[] lanes;
+	private final int maxQueueDepth;
+	private final Counter rejected;
+	private final ConcurrentHashMap<String, Integer> pending = new ConcurrentHashMap<>();
+
+	public AccountSequencer(AccountsProperties properties, MeterRegistry meterRegistry) {
+		AccountsProperties.Sequencer sequencer = properties.getSequencer();
+		int laneCount = sequencer.getLanes() <= 1 ? 1 : Integer.highestOneBit(sequencer.getLanes() - 1) << 1;
+		this.lanes = new Lane[laneCount];
+		for (int i = 0; i < laneCount; i++) {
+			lanes[i] = new Lane();
+		}
+		this.maxQueueDepth = sequencer.getMaxQueueDepth();
+		this.rejected = Counter.builder("accounts.sequencer.rejected").register(meterRegistry);
+	}
+
+	/**
+	 * Runs an operation on the lane that owns the given account. The operation
+	 * starts once every operation queued before it on the same lane has
+	 * terminated.
+	 *
+	 * @param accountId the ID of the account being mutated
+	 * @param operation supplies the operation to run
+	 * @return a Mono with the result of the operation
+	 * @throws AccountBusyException if the account already has the maximum number
+	 *                              of queued operations
+	 */
+	public <T> Mono<T> sequence(String accountId, Supplier<Mono<T>> operation) {
+		return Mono.defer(() -> lanes[laneIndex(accountId)].enqueue(accountId, operation));
+	}
+
+	/**
+	 * Runs an operation that mutates two accounts once it holds the lanes of
+	 * both. Lanes are always acquired in ascending index order, so operations on
+	 * the same pair of accounts in opposite directions cannot wait on each other.
+	 * When both accounts share a lane it is acquired once.
+	 *
+	 * @param firstAccountId  the ID of one of the accounts being mutated
+	 * @param secondAccountId the ID of the other account being mutated
+	 * @param operation       supplies the operation to run
+	 * @return a Mono with the result of the operation
+	 * @throws AccountBusyException if either account already has the maximum
+	 *                              number of queued operations
+	 */
+	public <T> Mono<T> sequence(String firstAccountId, String secondAccountId, Supplier<Mono<T>> operation) {
+		return Mono.defer(() -> {
+			int first = laneIndex(firstAccountId);
+			int second = laneIndex(secondAccountId);
+			if (first == second) {
+				return lanes[first].enqueue(firstAccountId, operation);
+			}
+
+			String lowAccountId = first < second ? firstAccountId : secondAccountId;
+			String highAccountId = first < second ? secondAccountId : firstAccountId;
+			return lanes[Math.min(first, second)].enqueue(lowAccountId,
+					() -> lanes[Math.max(first, second)].enqueue(highAccountId, operation));
+		});
+	}
+
+	/**
+	 * Returns the index of the lane that owns the given account.
+	 *
+	 * @param accountId the ID of the account
+	 * @return the lane index
+	 */
+	int laneIndex(String accountId) {
+		int hash = accountId.hashCode();
+		return (hash ^ (hash >>> 16)) & (lanes.length - 1);
+	}
+
+	/**
+	 * Counts a new queued operation for the account, unless it already has the
+	 * maximum number of them.
+	 *
+	 * @return true if the operation may be queued
+	 */
+	private boolean tryAcquire(String accountId) {
+		boolean[] acquired = new boolean[1];
+		pending.compute(accountId, (id, depth) -> {
+			int current = depth != null ? depth : 0;
+			if (current >= maxQueueDepth) {
+				return depth;
+			}
+			acquired[0] = true;
+			return current + 1;
+		});
+		return acquired[0];
+	}
+
+	private void release(String accountId) {
+		pending.computeIfPresent(accountId, (id, depth) -> depth > 1 ? depth - 1 : null);
+	}
+
+	private final class Lane {
+
+		private final AtomicReference<Mono<Void>> tail = new AtomicReference<>(Mono.empty());
+
+		<T> Mono<T> enqueue(String accountId, Supplier<Mono<T>> operation) {
+			if (!tryAcquire(accountId)) {
+				rejected.increment();
+				return Mono.error(AccountBusyException.withId(accountId));
+			}
+
+			Sinks.Empty<Void> done = Sinks.empty();
+			Sinks.One<T> result = Sinks.one();
+			Mono<Void> previous = tail.getAndSet(done.asMono());
+
+			previous.then(Mono.defer(operation)).doFinally(signal -> {
+				release(accountId);
+				done.tryEmitEmpty();
+			}).subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+
+			return result.asMono();
+		}
+	}
+}
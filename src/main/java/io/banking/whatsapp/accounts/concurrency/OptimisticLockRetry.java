@@ -0,0 +1,65 @@
+package io.banking.whatsapp.accounts.concurrency;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+/**
+ * Retries account writes that fail their optimistic locking check. Each retry
+ * re-runs the whole read-modify-write, waiting an exponential, jittered backoff
+ * so competing writers spread out instead of colliding again. Conflicts and
+ * retries are counted across all accounts; the account involved in a conflict
+ * is logged, so meter cardinality does not grow with the number of accounts.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class OptimisticLockRetry {
+
+	private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+	private final Counter conflicts;
+	private final Counter retries;
+	private final RetryBackoffSpec retrySpec;
+
+	public OptimisticLockRetry(MeterRegistry meterRegistry, AccountsProperties properties) {
+		AccountsProperties.Retry retry = properties.getRetry();
+		this.conflicts = Counter.builder("accounts.write.conflicts").register(meterRegistry);
+		this.retries = Counter.builder("accounts.write.retries").register(meterRegistry);
+		this.retrySpec = Retry.backoff(retry.getMaxAttempts(), retry.getMinBackoff()).maxBackoff(retry.getMaxBackoff())
+				.jitter(retry.getJitter()).filter(OptimisticLockingFailureException.class::isInstance)
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+	}
+
+	/**
+	 * Executes a write against an account, retrying it on optimistic locking
+	 * conflicts. The supplier is invoked again for every attempt so each retry
+	 * starts from a fresh read.
+	 *
+	 * @param accountId the ID of the account being written
+	 * @param attempt   supplies the write to execute
+	 * @return a Mono with the result of the first successful attempt
+	 */
+	public <T> Mono<T> execute(String accountId, Supplier<Mono<T>> attempt) {
+		return Mono.defer(attempt).doOnError(OptimisticLockingFailureException.class, ex -> {
+			conflicts.increment();
+			log.info("Optimistic lock conflict on account {}", accountId);
+		}).retryWhen(retrySpec.doBeforeRetry(signal -> {
+			retries.increment();
+			log.debug("Retrying write to account {}, retry #{}", accountId, signal.totalRetries() + 1);
+		}));
+	}
+}
@@ -0,0 +1,79 @@
+package io.banking.whatsapp.accounts.concurrency;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces identical concurrent reads. The first caller for a key runs the
+ * read; callers arriving while it is in flight share its result instead of
+ * issuing the same query again. The key is released as soon as the read
+ * terminates, so results are never served after the fact and a failed read is
+ * retried by the next caller. Executed and collapsed calls are counted per
+ * operation.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class SingleFlight {
+
+	private final ConcurrentMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+	private final boolean enabled;
+
+	public SingleFlight(MeterRegistry meterRegistry, AccountsProperties properties) {
+		this.meterRegistry = meterRegistry;
+		this.enabled = properties.getSingleFlight().isEnabled();
+	}
+
+	/**
+	 * Runs a read, or joins the identical read already in flight.
+	 *
+	 * @param operation the name of the read, used as metric tag
+	 * @param key       the arguments that identify identical reads
+	 * @param read      supplies the read to execute
+	 * @return a Mono with the result of the shared read
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Mono<T> execute(String operation, Object key, Supplier<Mono<T>> read) {
+		if (!enabled) {
+			return Mono.defer(read);
+		}
+
+		return Mono.defer(() -> {
+			String flightKey = operation + ":" + key;
+			AtomicReference<Mono<T>> started = new AtomicReference<>();
+			Mono<T> flight = (Mono<T>) inFlight.computeIfAbsent(flightKey, k -> {
+				Mono<T> shared = Mono.defer(read).doFinally(signal -> inFlight.remove(k, started.get())).cache();
+				started.set(shared);
+				return shared;
+			});
+
+			counter(operation, flight == started.get() ? "executed" : "collapsed").increment();
+			return flight;
+		});
+	}
+
+	/**
+	 * Number of reads currently in flight.
+	 */
+	int inFlight() {
+		return inFlight.size();
+	}
+
+	private Counter counter(String operation, String outcome) {
+		return Counter.builder("accounts.reads.single-flight").tag("operation", operation).tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,461 @@
+package io.banking.whatsapp.accounts.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the Banking Accounts Service. Bound from the
+ * {@code banking.accounts} prefix in application.yml.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.accounts")
+public class AccountsProperties {
+
+	/**
+	 * Retry policy for writes rejected by an optimistic locking conflict.
+	 */
+	private Retry retry = new Retry();
+
+	/**
+	 * Per-account sequencing of mutations.
+	 */
+	private Sequencer sequencer = new Sequencer();
+
+	/**
+	 * Coalescing of concurrent deposits to the same account.
+	 */
+	private GroupCommit groupCommit = new GroupCommit();
+
+	/**
+	 * Bulk transaction ingestion.
+	 */
+	private Batch batch = new Batch();
+
+	/**
+	 * Idempotent transaction creation.
+	 */
+	private Idempotency idempotency = new Idempotency();
+
+	/**
+	 * Transfers between accounts.
+	 */
+	private Transfer transfer = new Transfer();
+
+	/**
+	 * Index coverage check of repository queries.
+	 */
+	private QueryShapes queryShapes = new QueryShapes();
+
+	/**
+	 * Account existence checks on transaction reads.
+	 */
+	private Existence existence = new Existence();
+
+	/**
+	 * Read-through cache of account views.
+	 */
+	private Cache cache = new Cache();
+
+	/**
+	 * Cache invalidation from MongoDB change streams.
+	 */
+	private ChangeStreams changeStreams = new ChangeStreams();
+
+	/**
+	 * Per-phone summary read model.
+	 */
+	private ReadModel readModel = new ReadModel();
+
+	/**
+	 * Paginated and streamed listing of all accounts.
+	 */
+	private Listing listing = new Listing();
+
+	/**
+	 * Coalescing of identical concurrent reads.
+	 */
+	private SingleFlight singleFlight = new SingleFlight();
+
+	/**
+	 * Bloom filter of account numbers in use.
+	 */
+	private NumberFilter numberFilter = new NumberFilter();
+
+	/**
+	 * Server-side account number allocation.
+	 */
+	private Numbers numbers = new Numbers();
+
+	/**
+	 * Streamed account statement export.
+	 */
+	private Statement statement = new Statement();
+
+	/**
+	 * Daily and monthly per-account rollups.
+	 */
+	private Rollups rollups = new Rollups();
+
+	/**
+	 * Retry policy settings for optimistic locking conflicts.
+	 */
+	@Data
+	public static class Retry {
+
+		/**
+		 * Maximum number of retries after the first attempt.
+		 */
+		private int maxAttempts = 5;
+
+		/**
+		 * Initial backoff between retries.
+		 */
+		private Duration minBackoff = Duration.ofMillis(10);
+
+		/**
+		 * Upper bound for the exponential backoff.
+		 */
+		private Duration maxBackoff = Duration.ofMillis(500);
+
+		/**
+		 * Jitter factor applied to each backoff, between 0 and 1.
+		 */
+		private double jitter = 0.5;
+	}
+
+	/**
+	 * Settings for the per-account mutation sequencer.
+	 */
+	@Data
+	public static class Sequencer {
+
+		/**
+		 * Number of lanes accounts are striped across. Rounded up to a power of two.
+		 */
+		private int lanes = 256;
+
+		/**
+		 * Maximum number of operations queued for a single account before new ones
+		 * for that account are rejected.
+		 */
+		private int maxQueueDepth = 512;
+	}
+
+	/**
+	 * Settings for deposit group commit.
+	 */
+	@Data
+	public static class GroupCommit {
+
+		/**
+		 * Whether deposits are coalesced per account before being written.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * How long a batch collects deposits before it is committed. Only deposits
+		 * to an account that already has a commit in flight wait for it.
+		 */
+		private Duration window = Duration.ofMillis(5);
+
+		/**
+		 * Number of deposits that closes a batch before its window elapses.
+		 */
+		private int maxBatchSize = 64;
+	}
+
+	/**
+	 * Settings for bulk ingestion and multi-get requests.
+	 */
+	@Data
+	public static class Batch {
+
+		/**
+		 * Maximum number of items accepted in a single batch request, and of keys in
+		 * a single account lookup.
+		 */
+		private int maxItems = 10000;
+
+		/**
+		 * Maximum number of streamed transactions processed concurrently, which is
+		 * also how many requests are pulled ahead from the upload.
+		 */
+		private int streamConcurrency = 16;
+	}
+
+	/**
+	 * Settings for the transaction dedupe cache.
+	 */
+	@Data
+	public static class Idempotency {
+
+		/**
+		 * How long a transaction stays in the dedupe cache after it was created.
+		 */
+		private Duration ttl = Duration.ofMinutes(10);
+
+		/**
+		 * Maximum number of transactions kept in the dedupe cache.
+		 */
+		private long maximumSize = 100_000;
+	}
+
+	/**
+	 * Settings for transfers between accounts.
+	 */
+	@Data
+	public static class Transfer {
+
+		/**
+		 * Whether unfinished transfers are resumed on startup.
+		 */
+		private boolean recoveryEnabled = true;
+
+		/**
+		 * Minimum age of an unfinished transfer before it is recovered, so transfers
+		 * still in flight on other instances are left alone.
+		 */
+		private Duration recoveryGrace = Duration.ofMinutes(1);
+	}
+
+	/**
+	 * Settings for the startup index coverage check.
+	 */
+	@Data
+	public static class QueryShapes {
+
+		/**
+		 * Whether repository query shapes are checked against the existing indexes
+		 * on startup.
+		 */
+		private boolean verifyOnStartup = true;
+
+		/**
+		 * Delay before the check runs, so automatic index creation can finish.
+		 */
+		private Duration startupDelay = Duration.ofSeconds(5);
+	}
+
+	/**
+	 * Settings for the cache of accounts known to exist.
+	 */
+	@Data
+	public static class Existence {
+
+		/**
+		 * How long an account is trusted to exist without checking the database.
+		 * Bounds how long an account deleted through another instance keeps
+		 * answering reads with an empty history instead of a 404.
+		 */
+		private Duration ttl = Duration.ofMinutes(10);
+
+		/**
+		 * Maximum number of account IDs kept in the cache.
+		 */
+		private long maximumSize = 100_000;
+	}
+
+	/**
+	 * Settings for the read-through account cache.
+	 */
+	@Data
+	public static class Cache {
+
+		/**
+		 * How long an account view is served from memory after it was loaded.
+		 * Writes through this instance evict it immediately; the TTL bounds how
+		 * long writes made through other instances go unnoticed.
+		 */
+		private Duration ttl = Duration.ofSeconds(30);
+
+		/**
+		 * Maximum number of accounts kept in the cache.
+		 */
+		private long maximumSize = 10_000;
+	}
+
+	/**
+	 * Settings for cache invalidation driven by MongoDB change streams. Change
+	 * streams require a replica set or sharded cluster.
+	 */
+	@Data
+	public static class ChangeStreams {
+
+		/**
+		 * Whether account changes made through any instance evict the local caches.
+		 * When disabled, conditional account reads check the stored version with
+		 * an extra projected read, since a cached copy may be stale.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How often the position in the change stream is persisted, so a restarted
+		 * listener resumes where it stopped.
+		 */
+		private Duration tokenSaveInterval = Duration.ofSeconds(1);
+
+		/**
+		 * Initial delay before reconnecting after the change stream fails; doubles
+		 * on consecutive failures up to one minute.
+		 */
+		private Duration reconnectBackoff = Duration.ofSeconds(1);
+	}
+
+	/**
+	 * Settings for the per-phone summary read model.
+	 */
+	@Data
+	public static class ReadModel {
+
+		/**
+		 * Whether the complete view by phone number is served from the read model.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Number of transactions kept per account. Requests for more transactions
+		 * are computed from the source collections.
+		 */
+		private int transactionLimit = 10;
+
+		/**
+		 * Delay before a summary is refreshed after a write, so bursts of writes
+		 * for the same user are folded into a single refresh.
+		 */
+		private Duration refreshDelay = Duration.ofMillis(50);
+
+		/**
+		 * Number of times a failed refresh is retried, backing off from the refresh
+		 * delay. Summaries still stale afterwards are detected and rebuilt when read.
+		 */
+		private int refreshRetries = 3;
+
+		/**
+		 * Maximum number of summaries rebuilt at once.
+		 */
+		private int rebuildConcurrency = 8;
+	}
+
+	/**
+	 * Settings for listing all accounts and the transactions of an account.
+	 */
+	@Data
+	public static class Listing {
+
+		/**
+		 * Maximum number of accounts, or transactions of an account, returned in a
+		 * single page.
+		 */
+		private int maxPageSize = 1000;
+
+		/**
+		 * Number of accounts read per query when streaming all accounts. Each batch
+		 * is only read once the client has consumed the previous one.
+		 */
+		private int streamBatchSize = 500;
+	}
+
+	/**
+	 * Settings for read coalescing.
+	 */
+	@Data
+	public static class SingleFlight {
+
+		/**
+		 * Whether identical reads in flight at the same time share a single query.
+		 */
+		private boolean enabled = true;
+	}
+
+	/**
+	 * Settings for the account number duplicate filter.
+	 */
+	@Data
+	public static class NumberFilter {
+
+		/**
+		 * Number of accounts the filter is sized for. Beyond it the false positive
+		 * rate grows, which only costs more confirming reads.
+		 */
+		private long expectedAccounts = 1_000_000;
+
+		/**
+		 * Target rate of new account numbers reported as possibly in use.
+		 */
+		private double falsePositiveRate = 0.01;
+	}
+
+	/**
+	 * Settings for the account number allocator.
+	 */
+	@Data
+	public static class Numbers {
+
+		/**
+		 * Number of serials each instance reserves at a time. Larger blocks mean
+		 * fewer round-trips and more serials skipped when an instance stops.
+		 */
+		private int blockSize = 1000;
+
+		/**
+		 * Digits placed before the serial in every allocated number.
+		 */
+		private String prefix = "";
+
+		/**
+		 * Number of digits of the serial, zero-padded. A Luhn check digit follows.
+		 */
+		private int digits = 9;
+
+		/**
+		 * First serial allocated. Raise it above any serial already used by
+		 * client-supplied numbers.
+		 */
+		private long firstSerial = 1;
+	}
+
+	/**
+	 * Settings for the account statement export.
+	 */
+	@Data
+	public static class Statement {
+
+		/**
+		 * Number of transactions fetched per cursor batch while exporting a
+		 * statement. Bounds the memory held per export regardless of its length.
+		 */
+		private int cursorBatchSize = 500;
+	}
+
+	/**
+	 * Settings for the per-account rollups.
+	 */
+	@Data
+	public static class Rollups {
+
+		/**
+		 * Whether committed transactions are added to the rollups. When disabled,
+		 * rollups go stale until the next backfill.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Whether the rollups of every account are rebuilt from the transactions
+		 * once the application is ready.
+		 */
+		private boolean backfillOnStartup = false;
+
+		/**
+		 * Maximum number of accounts rebuilt concurrently by a backfill.
+		 */
+		private int backfillConcurrency = 4;
+	}
+}
@@ -0,0 +1,188 @@
+package io.banking.whatsapp.accounts.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.repository.QueryShape;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Checks at startup that every query issued through the repositories can be
+ * served by an index. Shapes are taken from derived query method names and
+ * from {@link QueryShape} declarations on custom repository methods, and are
+ * compared against the indexes that actually exist in the database. Uncovered
+ * shapes are reported as warnings; the application starts regardless.
+ *
+ * <p>
+ * A shape is covered by an index whose leading keys are filtered on by the
+ * query, followed by the query's sort keys, if any.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class QueryShapeVerifier {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryShapeVerifier.class);
+
+	private final ApplicationContext applicationContext;
+	private final ReactiveMongoTemplate mongoTemplate;
+	private final MongoMappingContext mappingContext;
+	private final AccountsProperties.QueryShapes properties;
+
+	public QueryShapeVerifier(ApplicationContext applicationContext, ReactiveMongoTemplate mongoTemplate,
+			MongoMappingContext mappingContext, AccountsProperties properties) {
+		this.applicationContext = applicationContext;
+		this.mongoTemplate = mongoTemplate;
+		this.mappingContext = mappingContext;
+		this.properties = properties.getQueryShapes();
+	}
+
+	/**
+	 * Runs the check in the background once the application is ready, after a
+	 * short delay that lets automatic index creation finish.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void verify() {
+		if (!properties.isVerifyOnStartup()) {
+			return;
+		}
+
+		Repositories repositories = new Repositories(applicationContext);
+		Flux.fromIterable(repositories).flatMap(domainType -> repositories.getRepositoryInformationFor(domainType)
+				.map(information -> verify(information)).orElse(Mono.just(0))).reduce(0, Integer::sum)
+				.delaySubscription(properties.getStartupDelay()).subscribe(uncovered -> {
+					if (uncovered == 0) {
+						log.info("All repository query shapes are covered by an index");
+					}
+				}, error -> log.warn("Could not verify index coverage of repository queries: {}", error.getMessage()));
+	}
+
+	private Mono<Integer> verify(RepositoryInformation information) {
+		Class<?> domainType = information.getDomainType();
+		List<Shape> shapes = shapes(information.getRepositoryInterface(), domainType, mappingContext);
+
+		return mongoTemplate.indexOps(domainType).getIndexInfo().map(QueryShapeVerifier::keys).collectList()
+				.map(indexes -> {
+					int uncovered = 0;
+					for (Shape shape : shapes) {
+						if (indexes.stream().noneMatch(keys -> covers(keys, shape))) {
+							uncovered++;
+							log.warn("Query {} on collection '{}' (filter: {}, sort: {}) is not covered by any index",
+									shape.source(), mongoTemplate.getCollectionName(domainType), shape.filter(),
+									shape.sort());
+						}
+					}
+					return uncovered;
+				});
+	}
+
+	/**
+	 * Collects the query shapes of a repository: derived query methods declared on
+	 * the repository itself, plus {@link QueryShape} declarations on any of its
+	 * methods, including custom fragments.
+	 *
+	 * @param repositoryInterface the repository interface
+	 * @param domainType          the entity managed by the repository
+	 * @param mappingContext      resolves property names to field names
+	 * @return the query shapes, with field names as stored in the database
+	 */
+	static List<Shape> shapes(Class<?> repositoryInterface, Class<?> domainType, MongoMappingContext mappingContext) {
+		MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(domainType);
+		List<Shape> shapes = new ArrayList<>();
+
+		for (Method method : repositoryInterface.getMethods()) {
+			String source = repositoryInterface.getSimpleName() + "." + method.getName();
+			QueryShape[] declared = method.getAnnotationsByType(QueryShape.class);
+			if (declared.length > 0) {
+				for (QueryShape shape : declared) {
+					shapes.add(new Shape(source, fieldNames(entity, Arrays.asList(shape.filter())),
+							fieldNames(entity, Arrays.asList(shape.sort()))));
+				}
+			} else if (method.getDeclaringClass() == repositoryInterface && !method.isDefault()) {
+				try {
+					PartTree tree = new PartTree(method.getName(), domainType);
+					List<String> filter = tree.getParts().stream().map(part -> part.getProperty().toDotPath())
+							.distinct().toList();
+					List<String> sort = tree.getSort().stream().map(Sort.Order::getProperty).toList();
+					shapes.add(new Shape(source, fieldNames(entity, filter), fieldNames(entity, sort)));
+				} catch (PropertyReferenceException | IllegalArgumentException e) {
+					log.debug("Skipping {}, not a derived query: {}", source, e.getMessage());
+				}
+			}
+		}
+		return shapes;
+	}
+
+	/**
+	 * Indicates whether an index with the given keys can serve the query shape.
+	 *
+	 * @param keys  the index keys, in order
+	 * @param shape the query shape
+	 * @return true if the index covers the shape
+	 */
+	static boolean covers(List<String> keys, Shape shape) {
+		if (keys.isEmpty()) {
+			return false;
+		}
+
+		// Filter-only keys first, then the sort keys in order
+		int position = 0;
+		while (position < keys.size() && shape.filter().contains(keys.get(position))
+				&& !shape.sort().contains(keys.get(position))) {
+			position++;
+		}
+		for (String sortKey : shape.sort()) {
+			if (position >= keys.size() || !keys.get(position).equals(sortKey)) {
+				return false;
+			}
+			position++;
+		}
+		return position > 0 && (shape.filter().isEmpty() || shape.filter().contains(keys.get(0)));
+	}
+
+	private static List<String> keys(IndexInfo index) {
+		return index.getIndexFields().stream().map(IndexField::getKey).toList();
+	}
+
+	private static List<String> fieldNames(MongoPersistentEntity<?> entity, List<String> properties) {
+		return properties.stream().map(property -> {
+			MongoPersistentProperty persistentProperty = entity.getPersistentProperty(property);
+			return persistentProperty == null ? property : persistentProperty.getFieldName();
+		}).collect(Collectors.toList());
+	}
+
+	/**
+	 * The fields a query filters and sorts on.
+	 *
+	 * @param source the repository method issuing the query
+	 * @param filter the fields the query filters on
+	 * @param sort   the fields the query sorts on, in order
+	 */
+	record Shape(String source, List<String> filter, List<String> sort) {
+	}
+}
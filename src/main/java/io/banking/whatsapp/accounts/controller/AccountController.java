@@ -1,23 +1,44 @@
 package io.banking.whatsapp.accounts.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountRollupSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.ErrorResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.ReadModelRebuildDTO;
+import io.banking.whatsapp.accounts.domain.dto.RollupRebuildDTO;
 import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
 import io.banking.whatsapp.accounts.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -36,6 +57,9 @@ import reactor.core.publisher.Mono;
 @Tag(name = "Accounts", description = "API for managing bank accounts")
 public class AccountController {
 
+	static final String FULL = "full";
+	static final String SUMMARY = "summary";
+
 	private final AccountService accountService;
 
 	/**
@@ -56,93 +80,184 @@ public class AccountController {
 	}
 
 	/**
-	 * Retrieves an account by its ID.
+	 * Creates a batch of accounts with a single bulk insert.
 	 *
-	 * @param id The ID of the account to retrieve
+	 * @param requests The accounts to create
+	 * @return The outcome of every submitted account, in request order
+	 */
+	@Operation(summary = "Create a batch of accounts", description = "Creates many accounts in one request with a single unordered bulk insert. Accounts without a number get one allocated; each item succeeds or fails independently")
+	@ApiResponses({ @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+			@ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@PostMapping("/batch")
+	public Mono<BatchResultDTO<AccountResponseDTO>> createAccounts(@RequestBody List<AccountRequestDTO> requests) {
+		return accountService.createAccounts(requests);
+	}
+
+	/**
+	 * Retrieves many accounts at once by ID and by account number.
+	 *
+	 * @param request The IDs and account numbers to fetch
+	 * @return The accounts found and the keys that matched no account
+	 */
+	@Operation(summary = "Look up accounts", description = "Retrieves many accounts in one request, by ID and by account number, with one query per kind of key")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Accounts found, with the keys that matched none", content = @Content(schema = @Schema(implementation = AccountLookupDTO.class))),
+			@ApiResponse(responseCode = "400", description = "No keys, or too many", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@PostMapping("/lookup")
+	public Mono<AccountLookupDTO> lookupAccounts(@RequestBody AccountLookupRequestDTO request) {
+		return accountService.lookupAccounts(request);
+	}
+
+	/**
+	 * Retrieves an account by its ID. The response carries an ETag derived from
+	 * the account version; requests with a matching {@code If-None-Match} get a
+	 * 304 without a body. Conditional requests are answered from the stored
+	 * version, since without change streams the account cache of this instance
+	 * may hold an older copy.
+	 *
+	 * @param id          The ID of the account to retrieve
+	 * @param ifNoneMatch The ETag of the copy the client holds (optional)
 	 * @return The account with the specified ID
 	 */
 	@Operation(summary = "Get account by ID", description = "Retrieves a bank account by its unique identifier")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "Account found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}"))),
+			@ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
 			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\":\"Account not found\",\"details\":[\"No account found with ID: 60f1a5b3e8c7f12345678901\"]}"))) })
 	@GetMapping("/{id}")
-	public Mono<AccountResponseDTO> getAccountById(
-			@Parameter(description = "ID of the account to retrieve", example = "60f1a5b3e8c7f12345678901", required = true) @PathVariable String id) {
-		return accountService.getAccountById(id);
+	public Mono<ResponseEntity<AccountResponseDTO>> getAccountById(
+			@Parameter(description = "ID of the account to retrieve", example = "60f1a5b3e8c7f12345678901", required = true) @PathVariable String id,
+			@Parameter(description = "ETag of the copy the client holds") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		Mono<AccountResponseDTO> account = ifNoneMatch != null ? accountService.getCurrentAccountById(id)
+				: accountService.getAccountById(id);
+		return account.map(found -> ResponseEntity.ok().eTag(ETags.of(found)).body(found));
 	}
 
 	/**
-	 * Retrieves an account by its account number.
+	 * Retrieves an account by its account number. The response carries an ETag
+	 * derived from the account version; conditional requests are answered from
+	 * the stored version, like {@link #getAccountById(String, String)}.
 	 *
 	 * @param accountNumber The account number to search for
+	 * @param ifNoneMatch   The ETag of the copy the client holds (optional)
 	 * @return The account with the specified account number
 	 */
 	@Operation(summary = "Get account by account number", description = "Retrieves a bank account by its unique account number")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "Account found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}"))),
+			@ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
 			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\":\"Account not found\",\"details\":[\"No account found with account number: 1234567890\"]}"))) })
 	@GetMapping("/number/{accountNumber}")
-	public Mono<AccountResponseDTO> getAccountByNumber(
-			@Parameter(description = "Account number to search for", example = "1234567890", required = true) @PathVariable String accountNumber) {
-		return accountService.getAccountByNumber(accountNumber);
+	public Mono<ResponseEntity<AccountResponseDTO>> getAccountByNumber(
+			@Parameter(description = "Account number to search for", example = "1234567890", required = true) @PathVariable String accountNumber,
+			@Parameter(description = "ETag of the copy the client holds") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		Mono<AccountResponseDTO> account = ifNoneMatch != null ? accountService.getCurrentAccountByNumber(accountNumber)
+				: accountService.getAccountByNumber(accountNumber);
+		return account.map(found -> ResponseEntity.ok().eTag(ETags.of(found)).body(found));
 	}
 
 	/**
 	 * Retrieves all accounts belonging to a specific user.
 	 *
 	 * @param userId The ID of the user to find accounts for
+	 * @param fields The fields to return, 'full' (default) or 'summary'
 	 * @return A flux of all accounts belonging to the user
 	 */
 	@Operation(summary = "Get accounts by user ID", description = "Retrieves all bank accounts belonging to a specific user")
 	@ApiResponses({
-			@ApiResponse(responseCode = "200", description = "List of accounts found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"))) })
+			@ApiResponse(responseCode = "200", description = "Complete accounts, or account summaries when fields is 'summary'", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(oneOf = { AccountResponseDTO.class, AccountSummaryDTO.class })), examples = {
+					@ExampleObject(name = "full", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"),
+					@ExampleObject(name = "summary", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"currency\":\"USD\",\"balance\":1000.00}]") })) })
 	@GetMapping("/user/{userId}")
-	public Flux<AccountResponseDTO> getAccountsByUserId(
-			@Parameter(description = "User ID to find accounts for", example = "user123", required = true) @PathVariable String userId) {
-		return accountService.getAccountsByUserId(userId);
+	public Flux<?> getAccountsByUserId(
+			@Parameter(description = "User ID to find accounts for", example = "user123", required = true) @PathVariable String userId,
+			@Parameter(description = "Fields to return: 'full' for complete accounts or 'summary' for number, type, currency and balance", example = "summary") @RequestParam(defaultValue = FULL) String fields) {
+		return summary(fields) ? accountService.getAccountSummariesByUserId(userId)
+				: accountService.getAccountsByUserId(userId);
 	}
 
 	/**
 	 * Retrieves all accounts belonging to a user with the specified DNI.
 	 *
-	 * @param dni The DNI (National ID) of the user to find accounts for
+	 * @param dni    The DNI (National ID) of the user to find accounts for
+	 * @param fields The fields to return, 'full' (default) or 'summary'
 	 * @return A flux of all accounts belonging to the user with the given DNI
 	 */
 	@Operation(summary = "Get accounts by user DNI", description = "Retrieves all bank accounts belonging to a user with the specified DNI (National ID)")
 	@ApiResponses({
-			@ApiResponse(responseCode = "200", description = "List of accounts found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"))) })
+			@ApiResponse(responseCode = "200", description = "Complete accounts, or account summaries when fields is 'summary'", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(oneOf = { AccountResponseDTO.class, AccountSummaryDTO.class })), examples = {
+					@ExampleObject(name = "full", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"),
+					@ExampleObject(name = "summary", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"currency\":\"USD\",\"balance\":1000.00}]") })) })
 	@GetMapping("/user/dni/{dni}")
-	public Flux<AccountResponseDTO> getAccountsByUserDni(
-			@Parameter(description = "User DNI to find accounts for", example = "12345678", required = true) @PathVariable String dni) {
-		return accountService.getAccountsByUserDni(dni);
+	public Flux<?> getAccountsByUserDni(
+			@Parameter(description = "User DNI to find accounts for", example = "12345678", required = true) @PathVariable String dni,
+			@Parameter(description = "Fields to return: 'full' for complete accounts or 'summary' for number, type, currency and balance", example = "summary") @RequestParam(defaultValue = FULL) String fields) {
+		return summary(fields) ? accountService.getAccountSummariesByUserDni(dni)
+				: accountService.getAccountsByUserDni(dni);
 	}
 
 	/**
 	 * Retrieves all accounts belonging to a user with the specified phone number.
 	 *
 	 * @param phoneNumber The phone number of the user to find accounts for
+	 * @param fields      The fields to return, 'full' (default) or 'summary'
 	 * @return A flux of all accounts belonging to the user with the given phone
 	 *         number
 	 */
 	@Operation(summary = "Get accounts by user phone number", description = "Retrieves all bank accounts belonging to a user with the specified phone number")
 	@ApiResponses({
-			@ApiResponse(responseCode = "200", description = "List of accounts found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"))) })
+			@ApiResponse(responseCode = "200", description = "Complete accounts, or account summaries when fields is 'summary'", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(oneOf = { AccountResponseDTO.class, AccountSummaryDTO.class })), examples = {
+					@ExampleObject(name = "full", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"),
+					@ExampleObject(name = "summary", value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"currency\":\"USD\",\"balance\":1000.00}]") })) })
 	@GetMapping("/user/phone/{phoneNumber}")
-	public Flux<AccountResponseDTO> getAccountsByUserPhoneNumber(
-			@Parameter(description = "User phone number to find accounts for", example = "+1234567890", required = true) @PathVariable String phoneNumber) {
-		return accountService.getAccountsByUserPhoneNumber(phoneNumber);
+	public Flux<?> getAccountsByUserPhoneNumber(
+			@Parameter(description = "User phone number to find accounts for", example = "+1234567890", required = true) @PathVariable String phoneNumber,
+			@Parameter(description = "Fields to return: 'full' for complete accounts or 'summary' for number, type, currency and balance", example = "summary") @RequestParam(defaultValue = FULL) String fields) {
+		return summary(fields) ? accountService.getAccountSummariesByUserPhoneNumber(phoneNumber)
+				: accountService.getAccountsByUserPhoneNumber(phoneNumber);
+	}
+
+	/**
+	 * Retrieves one page of all accounts in the system, in ID order. When more
+	 * accounts remain, the cursor of the next page is returned in the
+	 * {@code X-Next-Cursor} header.
+	 *
+	 * @param limit  The maximum number of accounts to return (optional, defaults
+	 *               to 100)
+	 * @param cursor The cursor returned with the previous page (optional)
+	 * @return A page of accounts
+	 */
+	@Operation(summary = "Get all accounts", description = "Retrieves one page of all bank accounts in the system")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Page of accounts", headers = @Header(name = TransactionController.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page"), content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"))),
+			@ApiResponse(responseCode = "400", description = "Invalid limit or cursor", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<List<AccountResponseDTO>>> getAllAccounts(
+			@Parameter(description = "Maximum number of accounts to return", example = "100") @RequestParam(defaultValue = "100") int limit,
+			@Parameter(description = "Cursor of the page to return, as received in the X-Next-Cursor header") @RequestParam(required = false) String cursor) {
+		return accountService.getAccountPage(limit, cursor).map(page -> {
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+			if (page.getNextCursor() != null) {
+				response.header(TransactionController.NEXT_CURSOR_HEADER, page.getNextCursor());
+			}
+			return response.body(page.getAccounts());
+		});
 	}
 
 	/**
-	 * Retrieves all accounts in the system.
+	 * Streams all accounts in the system, in ID order, as newline-delimited JSON
+	 * or server-sent events. Accounts are read in batches as the client consumes
+	 * them, so exports of any size keep memory bounded on both ends.
 	 *
 	 * @return A flux of all accounts
 	 */
-	@Operation(summary = "Get all accounts", description = "Retrieves all bank accounts in the system")
+	@Operation(summary = "Stream all accounts", description = "Streams all bank accounts in the system as NDJSON or server-sent events, reading them in batches as the client consumes them")
 	@ApiResponses({
-			@ApiResponse(responseCode = "200", description = "List of all accounts", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountResponseDTO.class), examples = @ExampleObject(value = "[{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"}]"))) })
-	@GetMapping
-	public Flux<AccountResponseDTO> getAllAccounts() {
+			@ApiResponse(responseCode = "200", description = "Stream of all accounts", content = {
+					@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = AccountResponseDTO.class)),
+					@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = AccountResponseDTO.class)) }) })
+	@GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<AccountResponseDTO> streamAllAccounts() {
 		return accountService.getAllAccounts();
 	}
 
@@ -182,7 +297,11 @@ public class AccountController {
 	}
 
 	/**
-	 * Retrieves user information, accounts and transactions by phone number.
+	 * Retrieves user information, accounts and transactions by phone number. The
+	 * response carries an ETag derived from the stored version of each account
+	 * and its latest transaction, read before the view so the tag is never newer
+	 * than the body; requests with a matching {@code If-None-Match} get a 304
+	 * without a body.
 	 *
 	 * @param phoneNumber The phone number of the user
 	 * @param limit       Maximum number of transactions to return per account
@@ -192,11 +311,86 @@ public class AccountController {
 	@Operation(summary = "Get user information, accounts and transactions by phone number", description = "Retrieves user information, all accounts and their transactions by the user's phone number")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "User information with accounts and transactions found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserAccountsTransactionsDTO.class), examples = @ExampleObject(value = "{\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"accounts\":[{\"account\":{\"id\":\"60f1a5b3e8c7f12345678901\",\"accountNumber\":\"1234567890\",\"accountType\":\"SAVINGS\",\"balance\":1000.00,\"currency\":\"USD\",\"userId\":\"user123\",\"userDni\":\"12345678\",\"userPhoneNumber\":\"+1234567890\",\"status\":\"ACTIVE\",\"createdAt\":\"2023-07-16T10:30:00\",\"updatedAt\":\"2023-07-16T10:30:00\"},\"transactions\":[{\"id\":\"60f1a5b3e8c7f12345678902\",\"accountId\":\"60f1a5b3e8c7f12345678901\",\"type\":\"DEPOSIT\",\"amount\":500.00,\"description\":\"Salary deposit\",\"reference\":\"DEP123\",\"transactionDate\":\"2023-07-16T10:35:00\",\"status\":\"COMPLETED\"}]}]}"))),
+			@ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
 			@ApiResponse(responseCode = "404", description = "No accounts found for the phone number", content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\":\"No accounts found for phone number: +1234567890\",\"details\":[]}"))) })
 	@GetMapping("/user/phone/{phoneNumber}/complete")
-	public Mono<UserAccountsTransactionsDTO> getUserAccountsTransactionsByPhoneNumber(
+	public Mono<ResponseEntity<UserAccountsTransactionsDTO>> getUserAccountsTransactionsByPhoneNumber(
 			@Parameter(description = "User phone number to find accounts and transactions for", example = "+1234567890", required = true) @PathVariable String phoneNumber,
 			@Parameter(description = "Maximum number of transactions to return per account", example = "10") @RequestParam(defaultValue = "10") int limit) {
-		return accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit);
+		return accountService.getAccountRevisionsByPhoneNumber(phoneNumber).defaultIfEmpty(Set.of())
+				.flatMap(revisions -> accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit)
+						.map(view -> ResponseEntity.ok().eTag(ETags.of(revisions, limit)).body(view)));
+	}
+
+	/**
+	 * Regenerates the per-phone summary read model from the accounts and
+	 * transactions collections.
+	 *
+	 * @return The number of summaries rebuilt
+	 */
+	@Operation(summary = "Rebuild the phone summary read model", description = "Regenerates the per-phone summaries served by the complete view endpoint from the accounts and transactions collections")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Read model rebuilt", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReadModelRebuildDTO.class), examples = @ExampleObject(value = "{\"summaries\":1250}"))) })
+	@PostMapping("/read-model/rebuild")
+	public Mono<ReadModelRebuildDTO> rebuildReadModel() {
+		return accountService.rebuildPhoneSummaries()
+				.map(summaries -> ReadModelRebuildDTO.builder().summaries(summaries).build());
+	}
+
+	/**
+	 * Summarizes an account over a date range from its daily or monthly rollups.
+	 *
+	 * @param id          The ID of the account
+	 * @param granularity The length of the periods, DAY or MONTH (optional,
+	 *                    default MONTH)
+	 * @param from        The first day of the range, inclusive
+	 * @param to          The last day of the range, exclusive
+	 * @return The totals over the range and the aggregates of each period
+	 */
+	@Operation(summary = "Summarize an account over a date range", description = "Returns transaction counts, sums by type, balance bounds and the average closing balance over a range, with the aggregates of every day or month that had activity. Served from precomputed rollups rather than the transactions")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Summary computed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountRollupSummaryDTO.class))),
+			@ApiResponse(responseCode = "400", description = "'from' is not before 'to'", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@GetMapping("/{id}/rollups")
+	public Mono<AccountRollupSummaryDTO> getRollupSummary(
+			@Parameter(description = "ID of the account", example = "60f1a5b3e8c7f12345678901", required = true) @PathVariable String id,
+			@Parameter(description = "Length of the periods", example = "MONTH") @RequestParam(defaultValue = "MONTH") RollupGranularity granularity,
+			@Parameter(description = "First day of the range, inclusive", example = "2024-01-01", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@Parameter(description = "Last day of the range, exclusive", example = "2024-04-01", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return accountService.getRollupSummary(id, granularity, from, to);
+	}
+
+	/**
+	 * Rebuilds the daily and monthly rollups of every account from the
+	 * transactions collection.
+	 *
+	 * @return The number of accounts rebuilt
+	 */
+	@Operation(summary = "Rebuild the account rollups", description = "Regenerates the daily and monthly rollups of every account from its completed transactions. An account that receives transactions while it is rebuilt is rebuilt again, and is skipped if it keeps changing")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Rollups rebuilt", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RollupRebuildDTO.class), examples = @ExampleObject(value = "{\"accounts\":1250}"))) })
+	@PostMapping("/rollups/rebuild")
+	public Mono<RollupRebuildDTO> rebuildRollups() {
+		return accountService.rebuildRollups().map(accounts -> RollupRebuildDTO.builder().accounts(accounts).build());
+	}
+
+	/**
+	 * Resolves the {@code fields} selector of the account list endpoints.
+	 *
+	 * @param fields the requested fields, 'full' or 'summary'
+	 * @return true if summaries were requested
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST for any other
+	 *                                 value
+	 */
+	private static boolean summary(String fields) {
+		if (SUMMARY.equalsIgnoreCase(fields)) {
+			return true;
+		}
+		if (FULL.equalsIgnoreCase(fields)) {
+			return false;
+		}
+		throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+				"Unknown fields '" + fields + "', expected '" + FULL + "' or '" + SUMMARY + "'");
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package io.banking.whatsapp.accounts.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.springframework.util.DigestUtils;
+
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+
+/**
+ * Derives strong entity tags for account responses. Tags are computed from the
+ * account version, which changes on every write including balance updates, so
+ * clients polling with {@code If-None-Match} get a 304 until the account
+ * actually changes. A tag is only as fresh as the account it was computed
+ * from: without change streams, the account cache of one instance does not
+ * see writes made through another, so conditional requests read the stored
+ * version instead of the cached copy, and tags of the complete view are
+ * computed from the stored revisions of the accounts, never from the read
+ * model.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+final class ETags {
+
+	private ETags() {
+	}
+
+	/**
+	 * Computes the tag of an account.
+	 *
+	 * @param account the account
+	 * @return the tag, including the surrounding quotes
+	 */
+	static String of(AccountResponseDTO account) {
+		return "\"" + account.getId() + "-" + revision(account) + "\"";
+	}
+
+	/**
+	 * Computes the tag of a complete view from the current revisions of the
+	 * user's accounts, rather than from the view itself, which may come from a
+	 * read model that lags behind them. The transaction limit is part of the tag
+	 * since it changes the representation.
+	 *
+	 * @param revisions        the revisions of the user's accounts, read before
+	 *                         the view
+	 * @param transactionLimit the maximum number of transactions per account
+	 * @return the tag, including the surrounding quotes
+	 */
+	static String of(Collection<AccountRevision> revisions, int transactionLimit) {
+		StringBuilder state = new StringBuilder().append(transactionLimit).append(';');
+		revisions.stream().sorted(Comparator.comparing(AccountRevision::accountId))
+				.forEach(revision -> state.append(revision.accountId()).append(':').append(revision.version())
+						.append(':').append(revision.latestTransactionId()).append(';'));
+		return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+
+	private static Object revision(AccountResponseDTO account) {
+		return account.getVersion() != null ? account.getVersion() : account.getUpdatedAt();
+	}
+}
@@ -0,0 +1,46 @@
+package io.banking.whatsapp.accounts.controller;
+
+import java.util.Objects;
+
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
+
+/**
+ * Renders account statements as CSV, one record per line, following RFC 4180:
+ * fields holding commas, quotes or line breaks are quoted, and quotes inside
+ * them are doubled.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+final class StatementCsv {
+
+	static final String MEDIA_TYPE = "text/csv";
+
+	static final String HEADER = "transactionId,transactionDate,type,description,reference,amount,balance\r\n";
+
+	private StatementCsv() {
+	}
+
+	/**
+	 * Renders a statement line as a CSV record.
+	 *
+	 * @param line the statement line
+	 * @return the record, terminated by CRLF
+	 */
+	static String record(StatementLineDTO line) {
+		return String.join(",", field(line.getTransactionId()), field(line.getTransactionDate()),
+				field(line.getType()), field(line.getDescription()), field(line.getReference()),
+				field(line.getAmount() == null ? null : line.getAmount().toPlainString()),
+				field(line.getBalance() == null ? null : line.getBalance().toPlainString())) + "\r\n";
+	}
+
+	private static String field(Object value) {
+		String text = Objects.toString(value, "");
+		if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+			return "\"" + text.replace("\"", "\"\"") + "\"";
+		}
+		return text;
+	}
+}
@@ -1,8 +1,16 @@
 package io.banking.whatsapp.accounts.controller;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -12,13 +20,21 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
 import io.banking.whatsapp.accounts.domain.dto.ErrorResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -38,6 +54,8 @@ import reactor.core.publisher.Mono;
 @Tag(name = "Transactions", description = "Transaction management APIs")
 public class TransactionController {
 
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	private final TransactionService transactionService;
 	private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
@@ -58,6 +76,37 @@ public class TransactionController {
 		return transactionService.createTransaction(request);
 	}
 
+	/**
+	 * Creates a batch of transactions with bulk writes.
+	 *
+	 * @param requests The transactions to create
+	 * @return The outcome of every submitted transaction, in request order
+	 */
+	@Operation(summary = "Create a batch of transactions", description = "Creates many transactions in one request. Items are grouped by account, validated against the account balance and persisted with bulk writes; each item succeeds or fails independently")
+	@ApiResponses({ @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+			@ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@PostMapping("/batch")
+	public Mono<BatchResultDTO<TransactionResponseDTO>> createTransactions(
+			@RequestBody List<TransactionRequestDTO> requests) {
+		return transactionService.createTransactions(requests);
+	}
+
+	/**
+	 * Creates transactions from a newline-delimited JSON stream. Requests are
+	 * read as they arrive and results are written back line by line, in the same
+	 * order.
+	 *
+	 * @param requests The stream of transactions to create
+	 * @return The outcome of every streamed transaction
+	 */
+	@Operation(summary = "Stream transactions", description = "Creates transactions from an application/x-ndjson body with bounded concurrency and streams one result per line; each item succeeds or fails independently")
+	@ApiResponse(responseCode = "200", description = "Stream processed, see per-item results")
+	@PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<BatchItemResultDTO<TransactionResponseDTO>> streamTransactions(
+			@RequestBody Flux<TransactionRequestDTO> requests) {
+		return transactionService.createTransactions(requests);
+	}
+
 	/**
 	 * Retrieves a transaction by its ID.
 	 *
@@ -75,20 +124,92 @@ public class TransactionController {
 	}
 
 	/**
-	 * Retrieves the latest transactions for an account.
+	 * Retrieves the transactions of an account, newest first, one page at a time,
+	 * optionally restricted to a date range, type and status. When more
+	 * transactions remain, the cursor of the next page is returned in the
+	 * {@code X-Next-Cursor} header.
 	 *
 	 * @param accountId The ID of the account to get transactions for
+	 * @param from      The earliest transaction date, inclusive (optional)
+	 * @param to        The latest transaction date, exclusive (optional)
+	 * @param type      The transaction type (optional)
+	 * @param status    The transaction status (optional)
 	 * @param limit     The maximum number of transactions to return (optional,
 	 *                  defaults to 10)
-	 * @return A flux of transactions for the account
+	 * @param cursor    The cursor returned with the previous page (optional)
+	 * @return A page of transactions for the account
 	 */
 	@Operation(summary = "Get account transactions")
-	@ApiResponses({ @ApiResponse(responseCode = "200", description = "List of transactions found"),
+	@ApiResponses({ @ApiResponse(responseCode = "200", description = "List of transactions found", headers = @Header(name = NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page")),
+			@ApiResponse(responseCode = "400", description = "Invalid limit, date range or cursor", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
 			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
 	@GetMapping("/account/{accountId}")
-	public Flux<TransactionResponseDTO> getTransactionsByAccountId(
+	public Mono<ResponseEntity<List<TransactionResponseDTO>>> getTransactionsByAccountId(
+			@Parameter(description = "Account ID", example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable String accountId,
+			@Parameter(description = "Earliest transaction date, inclusive", example = "2024-03-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "Latest transaction date, exclusive", example = "2024-04-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@Parameter(description = "Transaction type", example = "WITHDRAWAL") @RequestParam(required = false) TransactionType type,
+			@Parameter(description = "Transaction status", example = "COMPLETED") @RequestParam(required = false) TransactionStatus status,
+			@Parameter(description = "Maximum number of transactions to return", example = "10") @RequestParam(defaultValue = "10") int limit,
+			@Parameter(description = "Cursor of the page to return, as received in the X-Next-Cursor header") @RequestParam(required = false) String cursor) {
+		TransactionFilter filter = new TransactionFilter(from, to, type, status);
+		return transactionService.getTransactionPage(accountId, filter, limit, cursor).map(page -> {
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+			if (page.getNextCursor() != null) {
+				response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+			}
+			return response.body(page.getTransactions());
+		});
+	}
+
+	/**
+	 * Exports the statement of an account as CSV: its completed transactions
+	 * within a date range, oldest first, with the running balance. Rows are
+	 * streamed from a database cursor as the client reads them.
+	 *
+	 * @param accountId The ID of the account
+	 * @param from      The earliest transaction date, inclusive (optional)
+	 * @param to        The latest transaction date, exclusive (optional)
+	 * @return The statement as a CSV attachment
+	 */
+	@Operation(summary = "Export account statement", description = "Streams the completed transactions of an account within a date range, oldest first, with the running balance after each one, as CSV or NDJSON")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Statement", content = @Content(mediaType = StatementCsv.MEDIA_TYPE, examples = @ExampleObject(value = StatementCsv.HEADER + "60f1a5b3e8c7f12345678902,2024-03-04T10:35:00,DEPOSIT,Salary deposit,DEP123,500.00,1500.00\r\n"))),
+			@ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@GetMapping(value = "/account/{accountId}/statement", produces = StatementCsv.MEDIA_TYPE)
+	public ResponseEntity<Flux<String>> exportStatementCsv(
+			@Parameter(description = "Account ID", example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable String accountId,
+			@Parameter(description = "Earliest transaction date, inclusive", example = "2024-03-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "Latest transaction date, exclusive", example = "2024-04-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		Flux<String> records = transactionService.exportStatement(accountId, from, to).map(StatementCsv::record);
+
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						ContentDisposition.attachment().filename("statement-" + accountId + ".csv").build().toString())
+				.body(records.switchOnFirst((first, lines) -> first.hasError() ? lines
+						: Flux.concat(Flux.just(StatementCsv.HEADER), lines)));
+	}
+
+	/**
+	 * Exports the statement of an account as newline-delimited JSON, one line per
+	 * completed transaction with the running balance.
+	 *
+	 * @param accountId The ID of the account
+	 * @param from      The earliest transaction date, inclusive (optional)
+	 * @param to        The latest transaction date, exclusive (optional)
+	 * @return The statement lines
+	 */
+	@Operation(summary = "Export account statement", description = "Streams the completed transactions of an account within a date range, oldest first, with the running balance after each one, as CSV or NDJSON")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Statement", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = StatementLineDTO.class))),
+			@ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))),
+			@ApiResponse(responseCode = "404", description = "Account not found", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@GetMapping(value = "/account/{accountId}/statement", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<StatementLineDTO> exportStatement(
 			@Parameter(description = "Account ID", example = "123e4567-e89b-12d3-a456-426614174000") @PathVariable String accountId,
-			@Parameter(description = "Maximum number of transactions to return", example = "10") @RequestParam(defaultValue = "10") int limit) {
-		return transactionService.getTransactionsByAccountId(accountId, limit);
+			@Parameter(description = "Earliest transaction date, inclusive", example = "2024-03-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@Parameter(description = "Latest transaction date, exclusive", example = "2024-04-01T00:00:00") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		return transactionService.exportStatement(accountId, from, to);
 	}
-}
\ No newline at end of file
+}
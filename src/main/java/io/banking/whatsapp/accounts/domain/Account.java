@@ -2,10 +2,14 @@ package io.banking.whatsapp.accounts.domain;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -47,8 +51,10 @@ public class Account {
 	private AccountType accountType;
 
 	/**
-	 * The current balance of the account.
+	 * The current balance of the account. Stored as Decimal128 so it can be
+	 * updated atomically with $inc and compared server-side.
 	 */
+	@Field(targetType = FieldType.DECIMAL128)
 	private BigDecimal balance;
 
 	/**
@@ -66,6 +72,7 @@ public class Account {
 	 * The national identification number (DNI) of the user who owns this account.
 	 * Used for user identification and account lookup.
 	 */
+	@Indexed
 	private String userDni;
 
 	/**
@@ -73,6 +80,7 @@ public class Account {
 	 * communication and account lookup. Format should include country code (e.g.,
 	 * +1234567890).
 	 */
+	@Indexed
 	private String userPhoneNumber;
 
 	/**
@@ -92,6 +100,27 @@ public class Account {
 	 */
 	private LocalDateTime updatedAt;
 
+	/**
+	 * Optimistic locking version. Incremented on every write, including atomic
+	 * balance updates, so stale full-document saves are rejected instead of
+	 * silently overwriting newer data.
+	 */
+	@Version
+	private Long version;
+
+	/**
+	 * Identifier of the last bulk ingestion that updated this account. Lets a
+	 * bulk write confirm which accounts it actually modified.
+	 */
+	private String lastBatchId;
+
+	/**
+	 * IDs of the transfers whose balance change has been applied to this account
+	 * but which have not completed yet. Makes each transfer leg idempotent so an
+	 * interrupted transfer can be resumed safely.
+	 */
+	private List<String> pendingTransfers;
+
 	/**
 	 * Creates a test instance of Account with default values. This method should
 	 * only be used for testing purposes.
@@ -100,8 +129,9 @@ public class Account {
 	 * @return an Account instance with default test values
 	 */
 	public static Account createTestAccount(String id) {
-		return new Account(id, "1234567890", AccountType.SAVINGS, new BigDecimal("1000.00"), "USD", "user123",
-				"12345678", "+1234567890", AccountStatus.ACTIVE, // Changed from String to enum
-				LocalDateTime.now(), LocalDateTime.now());
+		return Account.builder().id(id).accountNumber("1234567890").accountType(AccountType.SAVINGS)
+				.balance(new BigDecimal("1000.00")).currency("USD").userId("user123").userDni("12345678")
+				.userPhoneNumber("+1234567890").status(AccountStatus.ACTIVE).createdAt(LocalDateTime.now())
+				.updatedAt(LocalDateTime.now()).build();
 	}
 }
\ No newline at end of file
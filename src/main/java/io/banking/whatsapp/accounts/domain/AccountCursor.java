@@ -0,0 +1,61 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+import io.banking.whatsapp.accounts.exception.InvalidCursorException;
+
+/**
+ * Position in the listing of all accounts, ordered by ID ascending. Clients
+ * receive it as an opaque token and send it back to continue from the account
+ * it points to.
+ *
+ * @param id the ID of the last account returned
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public record AccountCursor(String id) {
+
+	/**
+	 * Creates a cursor pointing at the given account.
+	 *
+	 * @param account the last account of a page
+	 * @return the cursor for the page that follows it
+	 */
+	public static AccountCursor of(Account account) {
+		return new AccountCursor(account.getId());
+	}
+
+	/**
+	 * Decodes a token previously returned by {@link #encode()}.
+	 *
+	 * @param token the opaque cursor token
+	 * @return the decoded cursor
+	 * @throws InvalidCursorException if the token is not a valid cursor
+	 */
+	public static AccountCursor decode(String token) {
+		try {
+			String id = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			if (!ObjectId.isValid(id)) {
+				throw InvalidCursorException.malformed(token);
+			}
+			return new AccountCursor(id);
+		} catch (IllegalArgumentException e) {
+			throw InvalidCursorException.malformed(token);
+		}
+	}
+
+	/**
+	 * Encodes the cursor as an URL-safe token.
+	 *
+	 * @return the opaque cursor token
+	 */
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+	}
+}
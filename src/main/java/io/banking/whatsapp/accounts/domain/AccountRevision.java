@@ -0,0 +1,34 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.util.List;
+
+/**
+ * Identifies the state of an account and its transaction history at the time
+ * of a read. Every balance change increments the account version and every
+ * recorded transaction becomes the latest one, so two reads with the same
+ * revision saw the same balance and the same newest transaction.
+ *
+ * @param accountId           the ID of the account
+ * @param version             the version of the account
+ * @param latestTransactionId the ID of the newest transaction of the account,
+ *                            or null if it has none
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public record AccountRevision(String accountId, Long version, String latestTransactionId) {
+
+	/**
+	 * Creates the revision of an account read together with its transactions.
+	 *
+	 * @param account      the account
+	 * @param transactions the latest transactions of the account, newest first
+	 * @return the revision the read observed
+	 */
+	public static AccountRevision of(Account account, List<Transaction> transactions) {
+		return new AccountRevision(account.getId(), account.getVersion(),
+				transactions.isEmpty() ? null : transactions.get(0).getId());
+	}
+}
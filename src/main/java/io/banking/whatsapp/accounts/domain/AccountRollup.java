@@ -0,0 +1,111 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregates of an account's completed transactions over one day or one month.
+ * This class maps to the 'account_rollups' collection in MongoDB. Rollups are
+ * derived from the transactions collection, which remains the source of truth:
+ * they are incremented as transactions are committed and can be rebuilt from
+ * the transactions at any time.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "account_rollups")
+@CompoundIndex(name = "account_granularity_period_idx", def = "{'accountId': 1, 'granularity': 1, 'periodStart': 1}", unique = true)
+public class AccountRollup {
+
+	/**
+	 * The rollup key, made of the account ID, granularity and period start.
+	 */
+	@Id
+	private String id;
+
+	/**
+	 * The ID of the account.
+	 */
+	private String accountId;
+
+	/**
+	 * The length of the period.
+	 */
+	private RollupGranularity granularity;
+
+	/**
+	 * The first day of the period.
+	 */
+	private LocalDate periodStart;
+
+	/**
+	 * Number of completed transactions in the period.
+	 */
+	private long count;
+
+	/**
+	 * Sum of the transaction amounts in the period, by transaction type name.
+	 * Stored as Decimal128 values.
+	 */
+	private Map<String, BigDecimal> sums;
+
+	/**
+	 * Lowest balance right after a transaction of the period.
+	 */
+	@Field(targetType = FieldType.DECIMAL128)
+	private BigDecimal minBalance;
+
+	/**
+	 * Highest balance right after a transaction of the period.
+	 */
+	@Field(targetType = FieldType.DECIMAL128)
+	private BigDecimal maxBalance;
+
+	/**
+	 * Balance right after the last transaction of the period.
+	 */
+	@Field(targetType = FieldType.DECIMAL128)
+	private BigDecimal closingBalance;
+
+	/**
+	 * Date of the transaction that left the closing balance. Guards the closing
+	 * balance against increments applied out of order.
+	 */
+	private LocalDateTime closedAt;
+
+	/**
+	 * Timestamp of the last change to the rollup.
+	 */
+	private LocalDateTime updatedAt;
+
+	/**
+	 * Builds the key of a rollup.
+	 *
+	 * @param accountId   the ID of the account
+	 * @param granularity the length of the period
+	 * @param periodStart the first day of the period
+	 * @return the rollup ID
+	 */
+	public static String key(String accountId, RollupGranularity granularity, LocalDate periodStart) {
+		return accountId + ":" + granularity + ":" + periodStart;
+	}
+}
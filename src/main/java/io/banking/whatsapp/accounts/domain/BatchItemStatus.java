@@ -0,0 +1,21 @@
+package io.banking.whatsapp.accounts.domain;
+
+/**
+ * Enum representing the outcome of a single item in a batch request.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public enum BatchItemStatus {
+	/**
+	 * The item was persisted
+	 */
+	CREATED,
+
+	/**
+	 * The item was rejected and nothing was persisted for it
+	 */
+	FAILED
+}
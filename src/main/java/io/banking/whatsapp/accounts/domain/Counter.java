@@ -0,0 +1,38 @@
+package io.banking.whatsapp.accounts.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Named monotonic counter. This class maps to the 'counters' collection in
+ * MongoDB. Counters are only ever advanced with atomic increments, so every
+ * instance reserving values from the same counter gets a distinct range.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "counters")
+public class Counter {
+
+	/**
+	 * The name of the counter.
+	 */
+	@Id
+	private String name;
+
+	/**
+	 * The number of values reserved so far.
+	 */
+	private long value;
+}
@@ -0,0 +1,64 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Precomputed view of a user's accounts and latest transactions, keyed by phone
+ * number. This class maps to the 'phone_summaries' collection in MongoDB. It is
+ * a read model derived from the accounts and transactions collections, which
+ * remain the source of truth: it is refreshed after every write that affects
+ * it, checked against them on every read and can be rebuilt from them at any
+ * time.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "phone_summaries")
+public class PhoneSummary {
+
+	/**
+	 * The phone number of the user.
+	 */
+	@Id
+	private String phoneNumber;
+
+	/**
+	 * The number of transactions kept per account.
+	 */
+	private int transactionLimit;
+
+	/**
+	 * When the source collections were read to build this summary. A summary is
+	 * never replaced by one built from an older read.
+	 */
+	@Indexed
+	private LocalDateTime refreshedAt;
+
+	/**
+	 * The revisions of the user's accounts the summary was built from. A summary
+	 * whose revisions no longer match the source collections is stale.
+	 */
+	private List<AccountRevision> revisions;
+
+	/**
+	 * The user's accounts with their latest transactions.
+	 */
+	private UserAccountsTransactionsDTO view;
+}
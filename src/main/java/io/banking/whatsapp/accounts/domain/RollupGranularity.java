@@ -0,0 +1,43 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Enum representing the length of the period an account rollup covers.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public enum RollupGranularity {
+	/**
+	 * One calendar day
+	 */
+	DAY,
+
+	/**
+	 * One calendar month
+	 */
+	MONTH;
+
+	/**
+	 * Returns the first day of the period containing a date.
+	 *
+	 * @param date the date
+	 * @return the start of its period
+	 */
+	public LocalDate periodStart(LocalDate date) {
+		return this == DAY ? date : date.withDayOfMonth(1);
+	}
+
+	/**
+	 * Returns the first day of the period following the one starting at a date.
+	 *
+	 * @param periodStart the start of a period
+	 * @return the start of the next period
+	 */
+	public LocalDate next(LocalDate periodStart) {
+		return this == DAY ? periodStart.plusDays(1) : periodStart.plusMonths(1);
+	}
+}
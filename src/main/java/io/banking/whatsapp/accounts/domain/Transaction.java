@@ -4,7 +4,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,6 +29,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transactions")
+@CompoundIndex(name = "account_date_idx", def = "{'accountId': 1, 'transactionDate': -1, '_id': -1}")
+@CompoundIndex(name = "account_type_date_idx", def = "{'accountId': 1, 'type': 1, 'transactionDate': -1, '_id': -1}")
+@CompoundIndex(name = "status_type_date_idx", def = "{'status': 1, 'type': 1, 'transactionDate': 1}")
+@CompoundIndex(name = "account_reference_idx", def = "{'accountId': 1, 'reference': 1}", unique = true, partialFilter = "{'reference': {'$gt': ''}}")
+@CompoundIndex(name = "transfer_leg_idx", def = "{'transferId': 1, 'type': 1}", unique = true, partialFilter = "{'transferId': {'$exists': true}}")
 public class Transaction {
 
 	/**
@@ -49,8 +57,10 @@ public class Transaction {
 	private TransactionType type;
 
 	/**
-	 * The monetary amount of the transaction.
+	 * The monetary amount of the transaction. Stored as Decimal128 so it can be
+	 * summed server-side.
 	 */
+	@Field(targetType = FieldType.DECIMAL128)
 	private BigDecimal amount;
 
 	/**
@@ -60,7 +70,8 @@ public class Transaction {
 
 	/**
 	 * A reference code for the transaction. Could be used for external system
-	 * references or tracking.
+	 * references or tracking. When present it is unique per account, which makes
+	 * retried requests idempotent.
 	 */
 	private String reference;
 
@@ -75,4 +86,16 @@ public class Transaction {
 	 * @see TransactionStatus
 	 */
 	private TransactionStatus status;
+
+	/**
+	 * The other account of a transfer: the destination on the debit leg and the
+	 * source on the credit leg.
+	 */
+	private String counterpartyAccountId;
+
+	/**
+	 * The ID shared by both legs of a transfer, which is the ID of its debit leg.
+	 * Each transfer has at most one leg of each type.
+	 */
+	private String transferId;
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+import io.banking.whatsapp.accounts.exception.InvalidCursorException;
+
+/**
+ * Position in an account's transaction history, ordered by transaction date
+ * and then by ID, both descending. Clients receive it as an opaque token and
+ * send it back to continue from the transaction it points to.
+ *
+ * @param transactionDate the date of the last transaction returned
+ * @param id              the ID of the last transaction returned
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public record TransactionCursor(LocalDateTime transactionDate, String id) {
+
+	private static final String SEPARATOR = "|";
+
+	/**
+	 * Creates a cursor pointing at the given transaction.
+	 *
+	 * @param transaction the last transaction of a page
+	 * @return the cursor for the page that follows it
+	 */
+	public static TransactionCursor of(Transaction transaction) {
+		return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+	}
+
+	/**
+	 * Decodes a token previously returned by {@link #encode()}.
+	 *
+	 * @param token the opaque cursor token
+	 * @return the decoded cursor
+	 * @throws InvalidCursorException if the token is not a valid cursor
+	 */
+	public static TransactionCursor decode(String token) {
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = value.indexOf(SEPARATOR);
+			if (separator <= 0 || !ObjectId.isValid(value.substring(separator + 1))) {
+				throw InvalidCursorException.malformed(token);
+			}
+			return new TransactionCursor(LocalDateTime.parse(value.substring(0, separator)),
+					value.substring(separator + 1));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw InvalidCursorException.malformed(token);
+		}
+	}
+
+	/**
+	 * Encodes the cursor as an URL-safe token.
+	 *
+	 * @return the opaque cursor token
+	 */
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((transactionDate + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+	}
+}
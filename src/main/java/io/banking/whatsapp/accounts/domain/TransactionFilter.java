@@ -0,0 +1,42 @@
+package io.banking.whatsapp.accounts.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria restricting an account's transaction history. Criteria
+ * left null are not applied.
+ *
+ * @param from   the earliest transaction date, inclusive
+ * @param to     the latest transaction date, exclusive
+ * @param type   the transaction type
+ * @param status the transaction status
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public record TransactionFilter(LocalDateTime from, LocalDateTime to, TransactionType type,
+		TransactionStatus status) {
+
+	private static final TransactionFilter NONE = new TransactionFilter(null, null, null, null);
+
+	/**
+	 * Returns a filter that matches every transaction.
+	 *
+	 * @return the empty filter
+	 */
+	public static TransactionFilter none() {
+		return NONE;
+	}
+
+	/**
+	 * Indicates whether the date range is empty, that is, whether its start is
+	 * not before its end.
+	 *
+	 * @return true if no date can fall within the range
+	 */
+	public boolean isEmptyRange() {
+		return from != null && to != null && !from.isBefore(to);
+	}
+}
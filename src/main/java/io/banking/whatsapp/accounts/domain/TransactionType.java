@@ -25,6 +25,12 @@ public enum TransactionType {
 	 */
 	TRANSFER,
 
+	/**
+	 * Money received from another account, the credit leg of a
+	 * {@link #TRANSFER}
+	 */
+	TRANSFER_IN,
+
 	/**
 	 * Payment made from the account
 	 */
@@ -38,5 +44,14 @@ public enum TransactionType {
 	/**
 	 * Interest added to the account
 	 */
-	INTEREST
+	INTEREST;
+
+	/**
+	 * Indicates whether transactions of this type add money to the account.
+	 *
+	 * @return true for credits, false for debits
+	 */
+	public boolean isCredit() {
+		return this == DEPOSIT || this == TRANSFER_IN || this == INTEREST;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object with the accounts found by a lookup and the keys that
+ * matched no account.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lookup outcome")
+public class AccountLookupDTO {
+
+	@Schema(description = "Accounts found, each listed once, requested IDs first and then requested account numbers, in request order")
+	private List<AccountResponseDTO> accounts;
+
+	@Schema(description = "Requested IDs that matched no account", example = "[]")
+	private List<String> missingIds;
+
+	@Schema(description = "Requested account numbers that matched no account", example = "[\"0000000026\"]")
+	private List<String> missingAccountNumbers;
+}
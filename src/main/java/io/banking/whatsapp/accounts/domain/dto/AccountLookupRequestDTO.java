@@ -0,0 +1,32 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for fetching many accounts at once, by ID, by account
+ * number, or both.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Accounts to fetch")
+public class AccountLookupRequestDTO {
+
+	@Schema(description = "IDs of the accounts to fetch", example = "[\"60f1a5b3e8c7f12345678901\"]")
+	private List<String> ids;
+
+	@Schema(description = "Account numbers of the accounts to fetch", example = "[\"0000000018\"]")
+	private List<String> accountNumbers;
+}
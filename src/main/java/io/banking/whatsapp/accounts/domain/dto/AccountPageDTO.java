@@ -0,0 +1,31 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for one page of the listing of all accounts.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of accounts")
+public class AccountPageDTO {
+
+	@Schema(description = "Accounts in the page, in ID order")
+	private List<AccountResponseDTO> accounts;
+
+	@Schema(description = "Cursor of the next page, absent on the last page", example = "NjVmOWIyYzNlOGM3ZjEyMzQ1Njc4OTAx")
+	private String nextCursor;
+}
@@ -26,7 +26,7 @@ import lombok.NoArgsConstructor;
 @Schema(description = "Data transfer object for account creation and update requests")
 public class AccountRequestDTO {
 
-	@Schema(description = "Account number", example = "1234567890", required = true)
+	@Schema(description = "Account number; allocated by the server when omitted on creation", example = "0000000018")
 	private String accountNumber;
 
 	@Schema(description = "Account type", example = "SAVINGS", required = true, allowableValues = { "SAVINGS",
@@ -60,4 +60,7 @@ public class AccountResponseDTO {
 
 	@Schema(description = "Account last update timestamp", example = "2023-07-16T10:30:00")
 	private LocalDateTime updatedAt;
+
+	@Schema(description = "Account version, incremented on every change", example = "3")
+	private Long version;
 }
\ No newline at end of file
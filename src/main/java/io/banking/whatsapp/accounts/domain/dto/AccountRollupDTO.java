@@ -0,0 +1,46 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the aggregates of an account over one day or one
+ * month.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Aggregates of an account over one period")
+public class AccountRollupDTO {
+
+	@Schema(description = "First day of the period", example = "2024-03-01")
+	private LocalDate periodStart;
+
+	@Schema(description = "Number of completed transactions in the period", example = "42")
+	private long count;
+
+	@Schema(description = "Sum of the transaction amounts in the period, by transaction type", example = "{\"DEPOSIT\":2500.00,\"WITHDRAWAL\":730.50}")
+	private Map<String, BigDecimal> sums;
+
+	@Schema(description = "Lowest balance right after a transaction of the period", example = "120.00")
+	private BigDecimal minBalance;
+
+	@Schema(description = "Highest balance right after a transaction of the period", example = "2980.00")
+	private BigDecimal maxBalance;
+
+	@Schema(description = "Balance right after the last transaction of the period", example = "1769.50")
+	private BigDecimal closingBalance;
+}
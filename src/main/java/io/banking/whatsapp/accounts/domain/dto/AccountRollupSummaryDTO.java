@@ -0,0 +1,60 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object summarizing an account over a date range, built from
+ * its daily or monthly rollups.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Summary of an account over a date range")
+public class AccountRollupSummaryDTO {
+
+	@Schema(description = "ID of the account", example = "60f1a5b3e8c7f12345678901")
+	private String accountId;
+
+	@Schema(description = "Length of the periods", example = "MONTH")
+	private RollupGranularity granularity;
+
+	@Schema(description = "First day of the range, aligned to the start of its period", example = "2024-01-01")
+	private LocalDate from;
+
+	@Schema(description = "End of the range, exclusive", example = "2024-04-01")
+	private LocalDate to;
+
+	@Schema(description = "Number of completed transactions in the range", example = "118")
+	private long count;
+
+	@Schema(description = "Sum of the transaction amounts in the range, by transaction type", example = "{\"DEPOSIT\":7500.00,\"WITHDRAWAL\":2210.75}")
+	private Map<String, BigDecimal> sums;
+
+	@Schema(description = "Lowest balance right after a transaction in the range", example = "95.00")
+	private BigDecimal minBalance;
+
+	@Schema(description = "Highest balance right after a transaction in the range", example = "5310.25")
+	private BigDecimal maxBalance;
+
+	@Schema(description = "Average of the closing balances of the periods, from the first period with activity up to the current one; quiet periods carry the previous closing balance", example = "2875.40")
+	private BigDecimal averageClosingBalance;
+
+	@Schema(description = "Periods with activity, oldest first")
+	private List<AccountRollupDTO> periods;
+}
@@ -0,0 +1,42 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.math.BigDecimal;
+
+import io.banking.whatsapp.accounts.domain.AccountType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for account summaries. Contains only the account
+ * information needed to list a user's accounts.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Data transfer object for account summaries")
+public class AccountSummaryDTO {
+
+	@Schema(description = "Account ID", example = "60f1a5b3e8c7f12345678901")
+	private String id;
+
+	@Schema(description = "Account number", example = "1234567890")
+	private String accountNumber;
+
+	@Schema(description = "Account type", example = "SAVINGS", allowableValues = { "SAVINGS", "CHECKING", "CREDIT" })
+	private AccountType accountType;
+
+	@Schema(description = "Currency code (ISO 4217)", example = "USD")
+	private String currency;
+
+	@Schema(description = "Account balance", example = "1000.00")
+	private BigDecimal balance;
+}
@@ -0,0 +1,38 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object describing the outcome of one item of a batch request.
+ *
+ * @param <T> the type of the resource created for the item
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a single batch item")
+public class BatchItemResultDTO<T> {
+
+	@Schema(description = "Position of the item in the request", example = "0")
+	private int index;
+
+	@Schema(description = "Item outcome", example = "CREATED")
+	private BatchItemStatus status;
+
+	@Schema(description = "Created resource, present when the item was created")
+	private T result;
+
+	@Schema(description = "Reason the item failed, present when the item was rejected", example = "Insufficient funds for withdrawal. Requested: 500.00, Available: 100.00")
+	private String error;
+}
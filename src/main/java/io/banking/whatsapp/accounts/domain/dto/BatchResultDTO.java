@@ -0,0 +1,40 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object summarizing a batch request, with one result per
+ * submitted item in request order.
+ *
+ * @param <T> the type of the resource created for each item
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch request outcome")
+public class BatchResultDTO<T> {
+
+	@Schema(description = "Number of items received", example = "3")
+	private int total;
+
+	@Schema(description = "Number of items created", example = "2")
+	private int created;
+
+	@Schema(description = "Number of items rejected", example = "1")
+	private int failed;
+
+	@Schema(description = "Per-item outcomes in request order")
+	private List<BatchItemResultDTO<T>> items;
+}
@@ -0,0 +1,26 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the outcome of a rollup backfill.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a rollup backfill")
+public class RollupRebuildDTO {
+
+	@Schema(description = "Number of accounts whose rollups were rebuilt", example = "1250")
+	private long accounts;
+}
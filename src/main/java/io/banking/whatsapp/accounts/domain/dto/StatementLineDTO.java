@@ -0,0 +1,49 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for one line of an account statement: a completed
+ * transaction with its signed amount and the balance right after it.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Account statement line")
+public class StatementLineDTO {
+
+	@Schema(description = "Transaction ID", example = "60f1a5b3e8c7f12345678901")
+	private String transactionId;
+
+	@Schema(description = "Transaction date", example = "2023-07-16T10:30:00")
+	private LocalDateTime transactionDate;
+
+	@Schema(description = "Transaction type", example = "WITHDRAWAL")
+	private TransactionType type;
+
+	@Schema(description = "Transaction description", example = "ATM withdrawal")
+	private String description;
+
+	@Schema(description = "Transaction reference", example = "WD123")
+	private String reference;
+
+	@Schema(description = "Signed amount, negative for debits", example = "-200.00")
+	private BigDecimal amount;
+
+	@Schema(description = "Account balance after the transaction", example = "800.00")
+	private BigDecimal balance;
+}
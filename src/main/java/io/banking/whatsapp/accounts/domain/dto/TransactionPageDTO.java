@@ -0,0 +1,31 @@
+package io.banking.whatsapp.accounts.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for one page of an account's transaction history.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of account transactions")
+public class TransactionPageDTO {
+
+	@Schema(description = "Transactions in the page, newest first")
+	private List<TransactionResponseDTO> transactions;
+
+	@Schema(description = "Cursor of the next page, absent on the last page", example = "MjAyNC0wMy0xOVQxMDozMDowMHw2NWY5")
+	private String nextCursor;
+}
@@ -46,4 +46,7 @@ public class TransactionRequestDTO {
 
 	@Schema(description = "Transaction reference", example = "DEP123")
 	private String reference;
+
+	@Schema(description = "Destination account ID, required for transfers", example = "60f1a5b3e8c7f12345678903")
+	private String targetAccountId;
 }
\ No newline at end of file
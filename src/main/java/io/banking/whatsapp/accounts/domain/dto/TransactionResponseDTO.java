@@ -50,4 +50,10 @@ public class TransactionResponseDTO {
 
 	@Schema(description = "Transaction status", example = "COMPLETED")
 	private TransactionStatus status;
+
+	@Schema(description = "Other account of a transfer", example = "60f1a5b3e8c7f12345678903")
+	private String counterpartyAccountId;
+
+	@Schema(description = "ID shared by both legs of a transfer", example = "60f1a5b3e8c7f12345678901")
+	private String transferId;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package io.banking.whatsapp.accounts.exception;
+
+/**
+ * Exception thrown when too many mutations are already queued for an account
+ * and a new one cannot be accepted.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public class AccountBusyException extends RuntimeException {
+
+	public AccountBusyException(String message) {
+		super(message);
+	}
+
+	public static AccountBusyException withId(String id) {
+		return new AccountBusyException("Too many pending operations for account with ID: " + id);
+	}
+}
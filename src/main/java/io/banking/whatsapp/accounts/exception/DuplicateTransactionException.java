@@ -0,0 +1,22 @@
+package io.banking.whatsapp.accounts.exception;
+
+/**
+ * Exception thrown when a transaction cannot be recorded because another one
+ * with the same reference is being recorded for the account at the same time.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public class DuplicateTransactionException extends RuntimeException {
+
+	public DuplicateTransactionException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public static DuplicateTransactionException withReference(String accountId, String reference, Throwable cause) {
+		return new DuplicateTransactionException("A transaction with reference " + reference + " for account "
+				+ accountId + " is already being processed, please retry", cause);
+	}
+}
@@ -0,0 +1,20 @@
+package io.banking.whatsapp.accounts.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public class InvalidCursorException extends RuntimeException {
+
+	public InvalidCursorException(String message) {
+		super(message);
+	}
+
+	public static InvalidCursorException malformed(String cursor) {
+		return new InvalidCursorException("Invalid pagination cursor: " + cursor);
+	}
+}
@@ -0,0 +1,25 @@
+package io.banking.whatsapp.accounts.exception;
+
+/**
+ * Exception thrown when a transfer request does not identify a valid
+ * destination account.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public class InvalidTransferException extends RuntimeException {
+
+	public InvalidTransferException(String message) {
+		super(message);
+	}
+
+	public static InvalidTransferException missingTarget() {
+		return new InvalidTransferException("Target account ID is required for transfers");
+	}
+
+	public static InvalidTransferException sameAccount(String id) {
+		return new InvalidTransferException("Cannot transfer to the same account: " + id);
+	}
+}
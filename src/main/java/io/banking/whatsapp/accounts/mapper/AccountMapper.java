@@ -3,10 +3,14 @@ package io.banking.whatsapp.accounts.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountRollupDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountSummaryDTO;
 
 /**
  * Mapper interface for converting between Account entities and DTOs. Uses
@@ -31,6 +35,9 @@ public interface AccountMapper {
 	@Mapping(target = "status", constant = "ACTIVE")
 	@Mapping(target = "createdAt", expression = "java(java.time.LocalDateTime.now())")
 	@Mapping(target = "updatedAt", expression = "java(java.time.LocalDateTime.now())")
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "lastBatchId", ignore = true)
+	@Mapping(target = "pendingTransfers", ignore = true)
 	Account toEntity(AccountRequestDTO dto);
 
 	/**
@@ -41,17 +48,31 @@ public interface AccountMapper {
 	 */
 	AccountResponseDTO toDto(Account account);
 
+	AccountSummaryDTO toSummaryDto(Account account);
+
+	/**
+	 * Converts an AccountRollup to an AccountRollupDTO.
+	 *
+	 * @param rollup the rollup to convert
+	 * @return the corresponding DTO representation
+	 */
+	AccountRollupDTO toRollupDto(AccountRollup rollup);
+
 	/**
 	 * Updates an existing Account entity with data from an AccountRequestDTO.
-	 * Preserves the id, status, and createdAt fields. Updates the updatedAt
-	 * timestamp.
+	 * Preserves the id, status, createdAt and version fields. Updates the
+	 * updatedAt timestamp.
 	 *
 	 * @param dto     the account request DTO containing updated data
 	 * @param account the existing account entity to update
 	 */
 	@Mapping(target = "id", ignore = true)
+	@Mapping(target = "accountNumber", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 	@Mapping(target = "status", ignore = true)
 	@Mapping(target = "createdAt", ignore = true)
 	@Mapping(target = "updatedAt", expression = "java(java.time.LocalDateTime.now())")
+	@Mapping(target = "version", ignore = true)
+	@Mapping(target = "lastBatchId", ignore = true)
+	@Mapping(target = "pendingTransfers", ignore = true)
 	void updateEntity(AccountRequestDTO dto, @MappingTarget Account account);
 }
\ No newline at end of file
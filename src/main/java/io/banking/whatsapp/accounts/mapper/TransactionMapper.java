@@ -1,8 +1,10 @@
 package io.banking.whatsapp.accounts.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 
 /**
@@ -17,6 +19,20 @@ import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 @Mapper(componentModel = "spring")
 public interface TransactionMapper {
 
+	/**
+	 * Converts a TransactionRequestDTO to a Transaction entity. Sets status to
+	 * "COMPLETED" and dates the transaction now.
+	 *
+	 * @param dto the transaction request DTO to convert
+	 * @return the corresponding Transaction entity
+	 */
+	@Mapping(target = "id", ignore = true)
+	@Mapping(target = "status", constant = "COMPLETED")
+	@Mapping(target = "transactionDate", expression = "java(java.time.LocalDateTime.now())")
+	@Mapping(target = "counterpartyAccountId", source = "targetAccountId")
+	@Mapping(target = "transferId", ignore = true)
+	Transaction toEntity(TransactionRequestDTO dto);
+
 	/**
 	 * Converts a Transaction entity to a TransactionResponseDTO.
 	 *
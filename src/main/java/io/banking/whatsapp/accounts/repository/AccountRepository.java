@@ -1,5 +1,8 @@
 package io.banking.whatsapp.accounts.repository;
 
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,7 +12,8 @@ import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Account entities. Provides methods for CRUD
- * operations on accounts.
+ * operations on accounts and, through {@link AccountRepositoryCustom}, atomic
+ * balance updates.
  *
  * @author Marcelo Alejandro Albarracín
  * @email marceloalejandro.albarracin@gmail.com
@@ -17,7 +21,12 @@ import reactor.core.publisher.Mono;
  * @since 2024-03-19
  */
 @Repository
-public interface AccountRepository extends ReactiveMongoRepository<Account, String> {
+public interface AccountRepository extends ReactiveMongoRepository<Account, String>, AccountRepositoryCustom {
+
+	/**
+	 * Fields read by the summary queries, besides the ID.
+	 */
+	String SUMMARY_FIELDS = "{ 'accountNumber': 1, 'accountType': 1, 'currency': 1, 'balance': 1 }";
 
 	/**
 	 * Finds an account by its account number.
@@ -27,6 +36,14 @@ public interface AccountRepository extends ReactiveMongoRepository<Account, Stri
 	 */
 	Mono<Account> findByAccountNumber(String accountNumber);
 
+	/**
+	 * Finds the accounts with any of the given account numbers in a single query.
+	 *
+	 * @param accountNumbers the account numbers to search for
+	 * @return a Flux of the accounts found, in no particular order
+	 */
+	Flux<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
 	/**
 	 * Finds all accounts belonging to a specific user.
 	 *
@@ -51,4 +68,34 @@ public interface AccountRepository extends ReactiveMongoRepository<Account, Stri
 	 *         number
 	 */
 	Flux<Account> findByUserPhoneNumber(String phoneNumber);
-}
\ No newline at end of file
+
+	/**
+	 * Finds the summaries of all accounts belonging to a specific user. Only the
+	 * summary fields are read from the database.
+	 *
+	 * @param userId the ID of the user to find accounts for
+	 * @return a Flux of partially populated accounts
+	 */
+	@Query(value = "{ 'userId': ?0 }", fields = SUMMARY_FIELDS)
+	Flux<Account> findSummariesByUserId(String userId);
+
+	/**
+	 * Finds the summaries of all accounts belonging to a user with the specified
+	 * DNI. Only the summary fields are read from the database.
+	 *
+	 * @param dni the DNI (National ID) of the user to find accounts for
+	 * @return a Flux of partially populated accounts
+	 */
+	@Query(value = "{ 'userDni': ?0 }", fields = SUMMARY_FIELDS)
+	Flux<Account> findSummariesByUserDni(String dni);
+
+	/**
+	 * Finds the summaries of all accounts belonging to a user with the specified
+	 * phone number. Only the summary fields are read from the database.
+	 *
+	 * @param phoneNumber the phone number of the user to find accounts for
+	 * @return a Flux of partially populated accounts
+	 */
+	@Query(value = "{ 'userPhoneNumber': ?0 }", fields = SUMMARY_FIELDS)
+	Flux<Account> findSummariesByUserPhoneNumber(String phoneNumber);
+}
@@ -0,0 +1,203 @@
+package io.banking.whatsapp.accounts.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountCursor;
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for Account entities. Provides atomic update
+ * operations that cannot be expressed as derived queries.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public interface AccountRepositoryCustom {
+
+	/**
+	 * Atomically adds the given amount to the account balance in a single
+	 * findAndModify operation. Negative amounts are only applied when the current
+	 * balance covers the debit.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @param delta     the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if the
+	 *         account does not exist or has insufficient funds
+	 */
+	@QueryShape(filter = { "id", "balance" })
+	Mono<Account> incrementBalance(String accountId, BigDecimal delta);
+
+	/**
+	 * Atomically adds the given amount to the account balance without a funds
+	 * check. Only meant to compensate a balance change whose transaction could
+	 * not be recorded.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @param delta     the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if the
+	 *         account does not exist
+	 */
+	@QueryShape(filter = "id")
+	Mono<Account> adjustBalance(String accountId, BigDecimal delta);
+
+	/**
+	 * Sets the version of an account written before versioning was introduced.
+	 * Such accounts load with a null version, which would make a full-document
+	 * save insert instead of update.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @return a Mono containing the updated account, or an empty Mono if the
+	 *         account does not exist or already has a version
+	 */
+	@QueryShape(filter = { "id", "version" })
+	Mono<Account> initializeVersion(String accountId);
+
+	/**
+	 * Reads only the version and last update date of an account, to check
+	 * whether a copy of it is still current.
+	 *
+	 * @param accountId the ID of the account
+	 * @return a Mono containing the account with only its ID, version and update
+	 *         date set, or an empty Mono if the account does not exist
+	 */
+	@QueryShape(filter = "id")
+	Mono<Account> findRevisionById(String accountId);
+
+	/**
+	 * Applies one leg of a transfer to the account balance and records the
+	 * transfer as pending on the account, in a single findAndModify operation.
+	 * The leg is applied at most once; debits are only applied when the current
+	 * balance covers them.
+	 *
+	 * @param accountId  the ID of the account to update
+	 * @param transferId the ID of the transfer
+	 * @param delta      the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if the
+	 *         account does not exist, has insufficient funds or already has the
+	 *         leg applied
+	 */
+	@QueryShape(filter = { "id", "pendingTransfers", "balance" })
+	Mono<Account> applyTransferLeg(String accountId, String transferId, BigDecimal delta);
+
+	/**
+	 * Reverts a transfer leg previously applied to the account, if it is still
+	 * pending there.
+	 *
+	 * @param accountId  the ID of the account to update
+	 * @param transferId the ID of the transfer
+	 * @param delta      the signed amount the leg added to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if the leg
+	 *         was not pending on the account
+	 */
+	@QueryShape(filter = { "id", "pendingTransfers" })
+	Mono<Account> revertTransferLeg(String accountId, String transferId, BigDecimal delta);
+
+	/**
+	 * Clears a completed transfer from the pending transfers of its accounts.
+	 *
+	 * @param transferId the ID of the transfer
+	 * @param accountIds the IDs of the accounts involved in the transfer
+	 * @return a Mono that completes once the accounts are updated
+	 */
+	@QueryShape(filter = { "id", "pendingTransfers" })
+	Mono<Void> releaseTransfer(String transferId, Collection<String> accountIds);
+
+	/**
+	 * Applies many balance changes in a single unordered bulk write. Each change
+	 * only applies if the account still has the version it was validated against.
+	 *
+	 * @param batchId unique identifier of the bulk ingestion
+	 * @param changes the balance changes to apply, at most one per account
+	 * @return a Flux with the IDs of the accounts that were updated
+	 */
+	@QueryShape(filter = { "id", "version" })
+	@QueryShape(filter = { "id", "lastBatchId" })
+	Flux<String> incrementBalances(String batchId, List<BalanceChange> changes);
+
+	/**
+	 * Finds the accounts of a user together with their latest transactions in a
+	 * single aggregation, instead of one transaction query per account.
+	 *
+	 * @param phoneNumber      the phone number of the user
+	 * @param transactionLimit the maximum number of transactions per account
+	 * @return a Flux of accounts with their transactions, newest first
+	 */
+	@QueryShape(filter = "userPhoneNumber")
+	Flux<AccountHistory> findHistoriesByUserPhoneNumber(String phoneNumber, int transactionLimit);
+
+	/**
+	 * Reads the revision of every account of a user, that is its version and the
+	 * ID of its newest transaction, without fetching the documents.
+	 *
+	 * @param phoneNumber the phone number of the user
+	 * @return a Flux of the revisions of the user's accounts
+	 */
+	@QueryShape(filter = "userPhoneNumber")
+	Flux<AccountRevision> findRevisionsByUserPhoneNumber(String phoneNumber);
+
+	/**
+	 * Lists the distinct phone numbers that have at least one account.
+	 *
+	 * @return a Flux of phone numbers
+	 */
+	@QueryShape(filter = {}, sort = "userPhoneNumber")
+	Flux<String> findDistinctUserPhoneNumbers();
+
+	/**
+	 * Reads a page of all accounts in ID order, starting after the given cursor.
+	 *
+	 * @param after the position of the last account of the previous page, or
+	 *              null for the first page
+	 * @param limit the maximum number of accounts to return
+	 * @return a Flux of accounts in ascending ID order
+	 */
+	@QueryShape(filter = "id", sort = "id")
+	Flux<Account> findPage(AccountCursor after, int limit);
+
+	/**
+	 * Streams every account number in use, read from the account number index
+	 * without fetching the documents.
+	 *
+	 * @return a Flux of account numbers
+	 */
+	Flux<String> findAllAccountNumbers();
+
+	/**
+	 * Inserts the accounts in a single unordered bulk write. Accounts rejected by
+	 * the unique account number index do not prevent the rest from being
+	 * inserted. Accounts without an ID are assigned one before the write.
+	 *
+	 * @param accounts the accounts to insert
+	 * @return a Mono containing the positions of the accounts that were rejected
+	 *         as duplicates
+	 */
+	Mono<Set<Integer>> insertAll(List<Account> accounts);
+
+	/**
+	 * A balance change validated against a specific account version.
+	 *
+	 * @param accountId       the ID of the account to update
+	 * @param expectedVersion the account version the change was computed from
+	 * @param delta           the signed amount to add to the balance
+	 */
+	record BalanceChange(String accountId, Long expectedVersion, BigDecimal delta) {
+	}
+
+	/**
+	 * An account with its latest transactions.
+	 *
+	 * @param account      the account
+	 * @param transactions the latest transactions of the account, newest first
+	 */
+	record AccountHistory(Account account, List<Transaction> transactions) {
+	}
+}
@@ -0,0 +1,57 @@
+package io.banking.whatsapp.accounts.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for AccountRollup documents. Provides the
+ * incremental and bulk writes that maintain the rollups.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public interface AccountRollupRepositoryCustom {
+
+	/**
+	 * Adds the given aggregates to the stored rollups in a single bulk write,
+	 * creating the rollups that do not exist yet. Counts and sums are added, the
+	 * balance bounds are widened and the closing balance is replaced unless the
+	 * stored one was left by a later transaction.
+	 *
+	 * @param deltas the aggregates of newly committed transactions, one per rollup
+	 * @return a Mono that completes once the rollups are updated
+	 */
+	@QueryShape(filter = "id")
+	@QueryShape(filter = { "id", "closedAt" })
+	Mono<Void> increment(List<AccountRollup> deltas);
+
+	/**
+	 * Replaces all the rollups of an account.
+	 *
+	 * @param accountId the ID of the account
+	 * @param rollups   the complete set of rollups of the account
+	 * @return a Mono that completes once the rollups are replaced
+	 */
+	@QueryShape(filter = "accountId")
+	Mono<Void> replaceAll(String accountId, List<AccountRollup> rollups);
+
+	/**
+	 * Retrieves the rollups of an account whose period starts within a range, in
+	 * period order.
+	 *
+	 * @param accountId   the ID of the account
+	 * @param granularity the length of the periods
+	 * @param from        the earliest period start, inclusive
+	 * @param to          the latest period start, exclusive
+	 * @return a Flux of rollups ordered by period start
+	 */
+	@QueryShape(filter = { "accountId", "granularity", "periodStart" }, sort = "periodStart")
+	Flux<AccountRollup> findRange(String accountId, RollupGranularity granularity, LocalDate from, LocalDate to);
+}
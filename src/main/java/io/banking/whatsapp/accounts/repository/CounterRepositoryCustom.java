@@ -0,0 +1,24 @@
+package io.banking.whatsapp.accounts.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for atomic counter updates.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public interface CounterRepositoryCustom {
+
+	/**
+	 * Atomically advances a counter, creating it at zero if it does not exist.
+	 *
+	 * @param name  the name of the counter
+	 * @param delta the amount to add
+	 * @return a Mono containing the value of the counter after the increment
+	 */
+	@QueryShape(filter = "name")
+	Mono<Long> increment(String name, long delta);
+}
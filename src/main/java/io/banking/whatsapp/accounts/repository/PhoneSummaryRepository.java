@@ -0,0 +1,20 @@
+package io.banking.whatsapp.accounts.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+
+/**
+ * Repository interface for PhoneSummary documents. Summaries are looked up by
+ * phone number and written through {@link PhoneSummaryRepositoryCustom}.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Repository
+public interface PhoneSummaryRepository
+		extends ReactiveMongoRepository<PhoneSummary, String>, PhoneSummaryRepositoryCustom {
+}
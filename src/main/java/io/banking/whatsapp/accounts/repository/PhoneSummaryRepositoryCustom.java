@@ -0,0 +1,49 @@
+package io.banking.whatsapp.accounts.repository;
+
+import java.time.LocalDateTime;
+
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for PhoneSummary documents. Provides writes that
+ * only apply when they are based on a more recent read of the source
+ * collections, so concurrent refreshes cannot leave an older summary behind.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public interface PhoneSummaryRepositoryCustom {
+
+	/**
+	 * Inserts the summary, or replaces the stored one if it was refreshed before
+	 * this one.
+	 *
+	 * @param summary the summary to store
+	 * @return a Mono emitting true if the summary was stored
+	 */
+	@QueryShape(filter = { "phoneNumber", "refreshedAt" })
+	Mono<Boolean> replaceIfOlder(PhoneSummary summary);
+
+	/**
+	 * Deletes the summary of a phone number if it was refreshed before the given
+	 * date.
+	 *
+	 * @param phoneNumber the phone number
+	 * @param refreshedAt the date of the read that found no accounts
+	 * @return a Mono containing the number of deleted summaries
+	 */
+	@QueryShape(filter = { "phoneNumber", "refreshedAt" })
+	Mono<Long> deleteIfOlder(String phoneNumber, LocalDateTime refreshedAt);
+
+	/**
+	 * Deletes every summary refreshed before the given date.
+	 *
+	 * @param refreshedAt the cut-off date
+	 * @return a Mono containing the number of deleted summaries
+	 */
+	@QueryShape(filter = "refreshedAt")
+	Mono<Long> deleteAllOlderThan(LocalDateTime refreshedAt);
+}
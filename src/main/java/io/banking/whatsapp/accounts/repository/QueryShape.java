@@ -0,0 +1,46 @@
+package io.banking.whatsapp.accounts.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the shape of a query issued by a custom repository method, so it can
+ * be checked for index coverage at startup like derived query methods are.
+ * Methods issuing several queries declare one shape per query.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(QueryShape.List.class)
+public @interface QueryShape {
+
+	/**
+	 * Properties the query filters on.
+	 */
+	String[] filter();
+
+	/**
+	 * Properties the query sorts on, in order.
+	 */
+	String[] sort() default {};
+
+	/**
+	 * Container for repeated {@link QueryShape} declarations.
+	 */
+	@Documented
+	@Target(ElementType.METHOD)
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface List {
+
+		QueryShape[] value();
+	}
+}
@@ -1,15 +1,22 @@
 package io.banking.whatsapp.accounts.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Transaction entities. Provides methods for CRUD
- * operations on transactions.
+ * operations on transactions and, through {@link TransactionRepositoryCustom},
+ * bulk inserts.
  *
  * @author Marcelo Alejandro Albarracín
  * @email marceloalejandro.albarracin@gmail.com
@@ -17,7 +24,7 @@ import reactor.core.publisher.Flux;
  * @since 2024-03-19
  */
 @Repository
-public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String> {
+public interface TransactionRepository extends ReactiveMongoRepository<Transaction, String>, TransactionRepositoryCustom {
 
 	/**
 	 * Finds transactions by account ID, ordered by transaction date in descending
@@ -28,4 +35,54 @@ public interface TransactionRepository extends ReactiveMongoRepository<Transacti
 	 * @return a Flux of transactions for the account
 	 */
 	Flux<Transaction> findByAccountIdOrderByTransactionDateDesc(String accountId, Pageable pageable);
+
+	/**
+	 * Finds the transaction recorded for an account under a client reference.
+	 * Backed by the unique (accountId, reference) index.
+	 *
+	 * @param accountId the ID of the account
+	 * @param reference the client-supplied transaction reference
+	 * @return a Mono containing the transaction, or an empty Mono if none exists
+	 */
+	Mono<Transaction> findFirstByAccountIdAndReference(String accountId, String reference);
+
+	/**
+	 * Finds the transactions recorded under any of the given references for any
+	 * of the given accounts.
+	 *
+	 * @param accountIds the IDs of the accounts
+	 * @param references the client-supplied transaction references
+	 * @return a Flux of the matching transactions
+	 */
+	Flux<Transaction> findByAccountIdInAndReferenceIn(Collection<String> accountIds, Collection<String> references);
+
+	/**
+	 * Finds transactions of a type in any of the given statuses that were created
+	 * before the given date.
+	 *
+	 * @param type     the transaction type
+	 * @param statuses the statuses to match
+	 * @param date     the upper bound for the transaction date
+	 * @return a Flux of the matching transactions
+	 */
+	Flux<Transaction> findByTypeAndStatusInAndTransactionDateBefore(TransactionType type,
+			Collection<TransactionStatus> statuses, LocalDateTime date);
+
+	/**
+	 * Finds the leg of a transfer with the given type.
+	 *
+	 * @param transferId the ID of the transfer
+	 * @param type       the type of the leg
+	 * @return a Mono containing the leg, or an empty Mono if it does not exist
+	 */
+	Mono<Transaction> findFirstByTransferIdAndType(String transferId, TransactionType type);
+
+	/**
+	 * Finds the legs with the given type of several transfers.
+	 *
+	 * @param transferIds the IDs of the transfers
+	 * @param type        the type of the legs
+	 * @return a Flux of the legs that exist
+	 */
+	Flux<Transaction> findByTransferIdInAndType(Collection<String> transferIds, TransactionType type);
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package io.banking.whatsapp.accounts.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionCursor;
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for Transaction entities. Provides bulk operations
+ * that cannot be expressed as derived queries.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+public interface TransactionRepositoryCustom {
+
+	/**
+	 * Inserts the transactions in a single unordered bulk write. Transactions
+	 * rejected by the unique (accountId, reference) index do not prevent the rest
+	 * from being inserted. Transactions without an ID are assigned one before the
+	 * write.
+	 *
+	 * @param transactions the transactions to insert
+	 * @return a Mono containing the positions of the transactions that were
+	 *         rejected as duplicates
+	 */
+	Mono<Set<Integer>> insertAll(List<Transaction> transactions);
+
+	/**
+	 * Moves a transaction from one status to another, only if it is still in the
+	 * expected status.
+	 *
+	 * @param id   the ID of the transaction
+	 * @param from the status the transaction is expected to be in
+	 * @param to   the new status
+	 * @return a Mono emitting true if the transaction was moved
+	 */
+	@QueryShape(filter = { "id", "status" })
+	Mono<Boolean> transitionStatus(String id, TransactionStatus from, TransactionStatus to);
+
+	/**
+	 * Moves a transaction to FAILED, only if it is still in the expected status,
+	 * and removes its reference so a later attempt can use it again.
+	 *
+	 * @param id   the ID of the transaction
+	 * @param from the status the transaction is expected to be in
+	 * @return a Mono emitting true if the transaction was moved
+	 */
+	@QueryShape(filter = { "id", "status" })
+	Mono<Boolean> failReleasingReference(String id, TransactionStatus from);
+
+	/**
+	 * Retrieves a page of an account's transactions matching the filter, newest
+	 * first, starting right after the given cursor. The page is located through
+	 * the index rather than by skipping earlier transactions, so every page costs
+	 * the same to read.
+	 *
+	 * @param accountId the ID of the account
+	 * @param filter    the criteria the transactions must match
+	 * @param after     the position of the last transaction already read, or
+	 *                  null for the first page
+	 * @param limit     the maximum number of transactions to return
+	 * @return a Flux of transactions ordered by date and ID, descending
+	 */
+	@QueryShape(filter = { "accountId", "transactionDate", "status", "id" }, sort = { "transactionDate", "id" })
+	@QueryShape(filter = { "accountId", "type", "transactionDate", "status", "id" }, sort = { "transactionDate", "id" })
+	Flux<Transaction> findPageByAccountId(String accountId, TransactionFilter filter, TransactionCursor after,
+			int limit);
+
+	/**
+	 * Streams the completed transactions of an account within a date range,
+	 * oldest first, from a single cursor.
+	 *
+	 * @param accountId       the ID of the account
+	 * @param from            the earliest transaction date, inclusive, or null
+	 * @param to              the latest transaction date, exclusive, or null
+	 * @param cursorBatchSize the number of transactions fetched per cursor batch
+	 * @return a Flux of transactions ordered by date and ID, ascending
+	 */
+	@QueryShape(filter = { "accountId", "transactionDate", "status" }, sort = { "transactionDate", "id" })
+	Flux<Transaction> streamCompletedByAccountId(String accountId, LocalDateTime from, LocalDateTime to,
+			int cursorBatchSize);
+
+	/**
+	 * Sums the signed amounts of an account's completed transactions from a date
+	 * onwards, credits adding and debits subtracting.
+	 *
+	 * @param accountId the ID of the account
+	 * @param from      the earliest transaction date, inclusive, or null for all
+	 *                  transactions
+	 * @return a Mono containing the net change, zero if there are no transactions
+	 */
+	@QueryShape(filter = { "accountId", "transactionDate", "status" })
+	Mono<BigDecimal> sumCompletedSince(String accountId, LocalDateTime from);
+}
@@ -0,0 +1,343 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountCursor;
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.repository.AccountRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of the AccountRepositoryCustom fragment. Uses the reactive
+ * Mongo template to issue server-side atomic updates.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@RequiredArgsConstructor
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	/**
+	 * Applies the balance change with {@code $inc}. Debits are guarded by a
+	 * {@code balance >= amount} condition so the check and the update happen in
+	 * the same server-side operation. The version is incremented as well, so any
+	 * concurrent full-document save based on an older read fails its optimistic
+	 * lock check.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @param delta     the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if no
+	 *         account matched
+	 */
+	@Override
+	public Mono<Account> incrementBalance(String accountId, BigDecimal delta) {
+		Criteria criteria = Criteria.where("id").is(accountId);
+		if (delta.signum() < 0) {
+			criteria = criteria.and("balance").gte(new Decimal128(delta.negate()));
+		}
+
+		return applyDelta(criteria, delta);
+	}
+
+	/**
+	 * Applies the balance change with an unconditional {@code $inc}.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @param delta     the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if no
+	 *         account matched
+	 */
+	@Override
+	public Mono<Account> adjustBalance(String accountId, BigDecimal delta) {
+		return applyDelta(Criteria.where("id").is(accountId), delta);
+	}
+
+	/**
+	 * Sets the version to 0 with a findAndModify matching only while the
+	 * account has no version field.
+	 *
+	 * @param accountId the ID of the account to update
+	 * @return a Mono containing the updated account, or an empty Mono if no
+	 *         account matched
+	 */
+	@Override
+	public Mono<Account> initializeVersion(String accountId) {
+		Query query = new Query(Criteria.where("id").is(accountId).and("version").exists(false));
+
+		return mongoTemplate.findAndModify(query, new Update().set("version", 0L),
+				FindAndModifyOptions.options().returnNew(true), Account.class);
+	}
+
+	/**
+	 * Projects the account on its version and update date, so the check costs
+	 * an index lookup and a few bytes instead of the whole document.
+	 *
+	 * @param accountId the ID of the account
+	 * @return a Mono containing the projected account, or an empty Mono if the
+	 *         account does not exist
+	 */
+	@Override
+	public Mono<Account> findRevisionById(String accountId) {
+		Query query = new Query(Criteria.where("id").is(accountId));
+		query.fields().include("version", "updatedAt");
+
+		return mongoTemplate.findOne(query, Account.class);
+	}
+
+	/**
+	 * Applies the leg with {@code $inc} and {@code $addToSet}, matching only while
+	 * the transfer is not yet pending on the account.
+	 *
+	 * @param accountId  the ID of the account to update
+	 * @param transferId the ID of the transfer
+	 * @param delta      the signed amount to add to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if no
+	 *         account matched
+	 */
+	@Override
+	public Mono<Account> applyTransferLeg(String accountId, String transferId, BigDecimal delta) {
+		Criteria criteria = Criteria.where("id").is(accountId).and("pendingTransfers").ne(transferId);
+		if (delta.signum() < 0) {
+			criteria = criteria.and("balance").gte(new Decimal128(delta.negate()));
+		}
+
+		Update update = new Update().inc("balance", new Decimal128(delta)).inc("version", 1)
+				.addToSet("pendingTransfers", transferId).set("updatedAt", LocalDateTime.now());
+
+		return mongoTemplate.findAndModify(new Query(criteria), update, FindAndModifyOptions.options().returnNew(true),
+				Account.class);
+	}
+
+	/**
+	 * Takes back the leg with {@code $inc} and {@code $pull}, matching only while
+	 * the transfer is pending on the account.
+	 *
+	 * @param accountId  the ID of the account to update
+	 * @param transferId the ID of the transfer
+	 * @param delta      the signed amount the leg added to the balance
+	 * @return a Mono containing the updated account, or an empty Mono if no
+	 *         account matched
+	 */
+	@Override
+	public Mono<Account> revertTransferLeg(String accountId, String transferId, BigDecimal delta) {
+		Criteria criteria = Criteria.where("id").is(accountId).and("pendingTransfers").is(transferId);
+		Update update = new Update().inc("balance", new Decimal128(delta.negate())).inc("version", 1)
+				.pull("pendingTransfers", transferId).set("updatedAt", LocalDateTime.now());
+
+		return mongoTemplate.findAndModify(new Query(criteria), update, FindAndModifyOptions.options().returnNew(true),
+				Account.class);
+	}
+
+	/**
+	 * Pulls the transfer from every involved account in one {@code updateMany}.
+	 * The version is incremented so full-document saves based on an older read
+	 * cannot restore the marker.
+	 *
+	 * @param transferId the ID of the transfer
+	 * @param accountIds the IDs of the accounts involved in the transfer
+	 * @return a Mono that completes once the accounts are updated
+	 */
+	@Override
+	public Mono<Void> releaseTransfer(String transferId, Collection<String> accountIds) {
+		Query query = new Query(Criteria.where("id").in(accountIds).and("pendingTransfers").is(transferId));
+		Update update = new Update().pull("pendingTransfers", transferId).inc("version", 1).set("updatedAt",
+				LocalDateTime.now());
+
+		return mongoTemplate.updateMulti(query, update, Account.class).then();
+	}
+
+	private Mono<Account> applyDelta(Criteria criteria, BigDecimal delta) {
+		Update update = new Update().inc("balance", new Decimal128(delta)).inc("version", 1).set("updatedAt",
+				LocalDateTime.now());
+
+		return mongoTemplate.findAndModify(new Query(criteria), update, FindAndModifyOptions.options().returnNew(true),
+				Account.class);
+	}
+
+	/**
+	 * Issues one version-guarded {@code updateOne} per account in a single
+	 * unordered bulk write. Bulk results only report counts, so each update also
+	 * stamps the batch ID; when some updates did not match, the stamped accounts
+	 * are read back in one query to tell which ones were applied.
+	 *
+	 * @param batchId unique identifier of the bulk ingestion
+	 * @param changes the balance changes to apply, at most one per account
+	 * @return a Flux with the IDs of the accounts that were updated
+	 */
+	@Override
+	public Flux<String> incrementBalances(String batchId, List<BalanceChange> changes) {
+		if (changes.isEmpty()) {
+			return Flux.empty();
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Account.class);
+		for (BalanceChange change : changes) {
+			Query query = new Query(
+					Criteria.where("id").is(change.accountId()).and("version").is(change.expectedVersion()));
+			Update update = new Update().inc("balance", new Decimal128(change.delta())).inc("version", 1)
+					.set("updatedAt", now).set("lastBatchId", batchId);
+			bulk.updateOne(query, update);
+		}
+
+		List<String> accountIds = changes.stream().map(BalanceChange::accountId).toList();
+		return bulk.execute().flatMapMany(result -> {
+			if (result.getMatchedCount() == changes.size()) {
+				return Flux.fromIterable(accountIds);
+			}
+			Query applied = new Query(Criteria.where("id").in(accountIds).and("lastBatchId").is(batchId));
+			applied.fields().include("id");
+			return mongoTemplate.find(applied, Account.class).map(Account::getId);
+		});
+	}
+
+	/**
+	 * Matches the user's accounts on the phone number index, then joins each one
+	 * with a {@code $lookup} whose sub-pipeline sorts and limits on the
+	 * (accountId, transactionDate, _id) index of the transactions collection. The
+	 * whole view is built in one round-trip.
+	 *
+	 * @param phoneNumber      the phone number of the user
+	 * @param transactionLimit the maximum number of transactions per account
+	 * @return a Flux of accounts with their transactions, newest first
+	 */
+	@Override
+	public Flux<AccountHistory> findHistoriesByUserPhoneNumber(String phoneNumber, int transactionLimit) {
+		String transactions = mongoTemplate.getCollectionName(Transaction.class);
+		Document latestTransactions = new Document("from", transactions)
+				.append("let", new Document("accountId", new Document("$toString", "$account._id")))
+				.append("pipeline", List.of(
+						new Document("$match",
+								new Document("$expr", new Document("$eq", List.of("$accountId", "$$accountId")))),
+						new Document("$sort", new Document("transactionDate", -1).append("_id", -1)),
+						new Document("$limit", transactionLimit)))
+				.append("as", "transactions");
+
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(Criteria.where("userPhoneNumber").is(phoneNumber)),
+				context -> new Document("$project", new Document("_id", 0).append("account", "$$ROOT")),
+				context -> new Document("$lookup", latestTransactions));
+
+		return mongoTemplate.aggregate(aggregation, Account.class, AccountHistory.class);
+	}
+
+	/**
+	 * Matches the user's accounts on the phone number index and joins each one
+	 * with its newest transaction, read from the (accountId, transactionDate,
+	 * _id) index in the same order as {@link #findHistoriesByUserPhoneNumber}.
+	 * Only the version and the transaction ID are projected.
+	 *
+	 * @param phoneNumber the phone number of the user
+	 * @return a Flux of the revisions of the user's accounts
+	 */
+	@Override
+	public Flux<AccountRevision> findRevisionsByUserPhoneNumber(String phoneNumber) {
+		String transactions = mongoTemplate.getCollectionName(Transaction.class);
+		Document latestTransaction = new Document("from", transactions)
+				.append("let", new Document("accountId", new Document("$toString", "$_id")))
+				.append("pipeline", List.of(
+						new Document("$match",
+								new Document("$expr", new Document("$eq", List.of("$accountId", "$$accountId")))),
+						new Document("$sort", new Document("transactionDate", -1).append("_id", -1)),
+						new Document("$limit", 1), new Document("$project", new Document("_id", 1))))
+				.append("as", "latest");
+
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(Criteria.where("userPhoneNumber").is(phoneNumber)),
+				context -> new Document("$project", new Document("version", 1)),
+				context -> new Document("$lookup", latestTransaction));
+
+		return mongoTemplate.aggregate(aggregation, Account.class, Document.class).map(document -> {
+			List<Document> latest = document.getList("latest", Document.class);
+			Long version = document.get("version") instanceof Number number ? number.longValue() : null;
+			return new AccountRevision(document.get("_id").toString(), version,
+					latest.isEmpty() ? null : latest.get(0).get("_id").toString());
+		});
+	}
+
+	/**
+	 * Issues a {@code distinct} on the phone number, served by its index.
+	 *
+	 * @return a Flux of phone numbers
+	 */
+	@Override
+	public Flux<String> findDistinctUserPhoneNumbers() {
+		return mongoTemplate.findDistinct(new Query(), "userPhoneNumber", Account.class, String.class);
+	}
+
+	/**
+	 * Seeks past the cursor on the {@code _id} index, so every page costs the
+	 * same however deep into the collection it is.
+	 */
+	@Override
+	public Flux<Account> findPage(AccountCursor after, int limit) {
+		Query query = new Query();
+		if (after != null) {
+			query.addCriteria(Criteria.where("id").gt(new ObjectId(after.id())));
+		}
+
+		return mongoTemplate.find(query.with(Sort.by(Sort.Direction.ASC, "id")).limit(limit), Account.class);
+	}
+
+	/**
+	 * Projects the account number only and hints the unique index on it, so the
+	 * query is covered by the index.
+	 */
+	@Override
+	public Flux<String> findAllAccountNumbers() {
+		Query query = new Query().withHint(new Document("accountNumber", 1));
+		query.fields().include("accountNumber").exclude("_id");
+
+		return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Account.class))
+				.mapNotNull(document -> document.getString("accountNumber"));
+	}
+
+	/**
+	 * Assigns IDs and the initial version up front, as a template insert would,
+	 * so the caller holds complete accounts once the write returns, then issues
+	 * one unordered {@code insertMany}. Duplicate key errors are reported by
+	 * position; any other write error is propagated.
+	 *
+	 * @param accounts the accounts to insert
+	 * @return a Mono containing the positions of the accounts that were rejected
+	 *         as duplicates
+	 */
+	@Override
+	public Mono<Set<Integer>> insertAll(List<Account> accounts) {
+		accounts.forEach(account -> {
+			if (account.getId() == null) {
+				account.setId(ObjectId.get().toHexString());
+			}
+			if (account.getVersion() == null) {
+				account.setVersion(0L);
+			}
+		});
+
+		return BulkInserts.insertAll(mongoTemplate, Account.class, accounts);
+	}
+}
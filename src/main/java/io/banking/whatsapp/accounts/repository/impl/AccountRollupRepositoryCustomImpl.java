@@ -0,0 +1,117 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.repository.AccountRollupRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of the AccountRollupRepositoryCustom fragment. Uses the
+ * reactive Mongo template to issue server-side increments.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@RequiredArgsConstructor
+public class AccountRollupRepositoryCustomImpl implements AccountRollupRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	/**
+	 * Issues one upserting {@code updateOne} per rollup in an ordered bulk write,
+	 * with {@code $inc} on the count and sums, {@code $min} and {@code $max} on
+	 * the balance bounds, so concurrent increments of the same rollup never lose
+	 * each other's changes. Each upsert is followed by an {@code updateOne} that
+	 * sets the closing balance only if no later transaction closed the rollup
+	 * yet, so increments applied out of order cannot leave a stale closing
+	 * balance behind.
+	 *
+	 * @param deltas the aggregates of newly committed transactions, one per rollup
+	 * @return a Mono that completes once the rollups are updated
+	 */
+	@Override
+	public Mono<Void> increment(List<AccountRollup> deltas) {
+		if (deltas.isEmpty()) {
+			return Mono.empty();
+		}
+
+		ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.ORDERED, AccountRollup.class);
+		for (AccountRollup delta : deltas) {
+			Update update = new Update().inc("count", delta.getCount())
+					.min("minBalance", decimal(delta.getMinBalance())).max("maxBalance", decimal(delta.getMaxBalance()))
+					.set("updatedAt", LocalDateTime.now())
+					.setOnInsert("accountId", delta.getAccountId()).setOnInsert("granularity", delta.getGranularity())
+					.setOnInsert("periodStart", delta.getPeriodStart());
+			delta.getSums().forEach((type, sum) -> update.inc("sums." + type, decimal(sum)));
+			bulk.upsert(new Query(Criteria.where("id").is(delta.getId())), update);
+			bulk.updateOne(new Query(Criteria.where("id").is(delta.getId()).orOperator(
+					Criteria.where("closedAt").exists(false), Criteria.where("closedAt").lte(delta.getClosedAt()))),
+					new Update().set("closingBalance", decimal(delta.getClosingBalance())).set("closedAt",
+							delta.getClosedAt()));
+		}
+
+		return bulk.execute().then();
+	}
+
+	/**
+	 * Deletes the account's rollups, then inserts the new ones with a single bulk
+	 * write. Sums are stored as Decimal128 like the increments write them.
+	 */
+	@Override
+	public Mono<Void> replaceAll(String accountId, List<AccountRollup> rollups) {
+		Mono<Void> delete = mongoTemplate
+				.remove(new Query(Criteria.where("accountId").is(accountId)), AccountRollup.class).then();
+		if (rollups.isEmpty()) {
+			return delete;
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, AccountRollup.class);
+		for (AccountRollup rollup : rollups) {
+			Update update = new Update().set("accountId", rollup.getAccountId())
+					.set("granularity", rollup.getGranularity()).set("periodStart", rollup.getPeriodStart())
+					.set("count", rollup.getCount()).set("minBalance", decimal(rollup.getMinBalance()))
+					.set("maxBalance", decimal(rollup.getMaxBalance()))
+					.set("closingBalance", decimal(rollup.getClosingBalance())).set("closedAt", rollup.getClosedAt())
+					.set("updatedAt", now);
+			rollup.getSums().forEach((type, sum) -> update.set("sums." + type, decimal(sum)));
+			bulk.upsert(new Query(Criteria.where("id").is(rollup.getId())), update);
+		}
+
+		return delete.then(bulk.execute()).then();
+	}
+
+	/**
+	 * Scans the (accountId, granularity, periodStart) index over the range.
+	 */
+	@Override
+	public Flux<AccountRollup> findRange(String accountId, RollupGranularity granularity, LocalDate from,
+			LocalDate to) {
+		Query query = new Query(Criteria.where("accountId").is(accountId).and("granularity").is(granularity)
+				.and("periodStart").gte(from).lt(to)).with(Sort.by(Sort.Direction.ASC, "periodStart"));
+
+		return mongoTemplate.find(query, AccountRollup.class);
+	}
+
+	private static Decimal128 decimal(BigDecimal value) {
+		return new Decimal128(value);
+	}
+}
@@ -0,0 +1,72 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Unordered bulk inserts shared by the custom repository implementations.
+ * Documents rejected by a unique index are reported by position instead of
+ * failing the whole write.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+final class BulkInserts {
+
+	private BulkInserts() {
+	}
+
+	/**
+	 * Issues one unordered {@code insertMany}. Duplicate key errors are reported
+	 * by position; any other write error is propagated.
+	 *
+	 * @param mongoTemplate the template to write with
+	 * @param entityClass   the mapped class of the documents
+	 * @param documents     the documents to insert
+	 * @return a Mono containing the positions of the documents that were rejected
+	 *         as duplicates
+	 */
+	static <T> Mono<Set<Integer>> insertAll(ReactiveMongoTemplate mongoTemplate, Class<T> entityClass,
+			List<T> documents) {
+		if (documents.isEmpty()) {
+			return Mono.just(Collections.emptySet());
+		}
+
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass).insert(documents).execute()
+				.<Set<Integer>>map(result -> Collections.emptySet()).onErrorResume(error -> {
+					MongoBulkWriteException bulkError = bulkWriteException(error);
+					if (bulkError == null
+							|| bulkError.getWriteErrors().stream().anyMatch(BulkInserts::isNotDuplicate)) {
+						return Mono.error(error);
+					}
+					return Mono.just(bulkError.getWriteErrors().stream().map(BulkWriteError::getIndex)
+							.collect(Collectors.toSet()));
+				});
+	}
+
+	private static boolean isNotDuplicate(BulkWriteError writeError) {
+		return ErrorCategory.fromErrorCode(writeError.getCode()) != ErrorCategory.DUPLICATE_KEY;
+	}
+
+	private static MongoBulkWriteException bulkWriteException(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof MongoBulkWriteException bulkWriteException) {
+				return bulkWriteException;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,43 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.banking.whatsapp.accounts.domain.Counter;
+import io.banking.whatsapp.accounts.repository.CounterRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of the CounterRepositoryCustom fragment. Uses the reactive
+ * Mongo template to issue server-side atomic increments.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@RequiredArgsConstructor
+public class CounterRepositoryCustomImpl implements CounterRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	/**
+	 * Issues an upserting {@code findAndModify} with {@code $inc}, returning the
+	 * updated document.
+	 *
+	 * @param name  the name of the counter
+	 * @param delta the amount to add
+	 * @return a Mono containing the value of the counter after the increment
+	 */
+	@Override
+	public Mono<Long> increment(String name, long delta) {
+		return mongoTemplate
+				.findAndModify(new Query(Criteria.where("name").is(name)), new Update().inc("value", delta),
+						FindAndModifyOptions.options().upsert(true).returnNew(true), Counter.class)
+				.map(Counter::getValue);
+	}
+}
@@ -0,0 +1,73 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import java.time.LocalDateTime;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+import io.banking.whatsapp.accounts.repository.PhoneSummaryRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of the PhoneSummaryRepositoryCustom fragment. Uses the
+ * reactive Mongo template to issue conditional writes.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@RequiredArgsConstructor
+public class PhoneSummaryRepositoryCustomImpl implements PhoneSummaryRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	/**
+	 * Issues an upserting {@code findAndReplace} matching the phone number and an
+	 * older refresh date. When a newer summary is stored, the filter does not
+	 * match and the upsert is rejected by the {@code _id} index.
+	 *
+	 * @param summary the summary to store
+	 * @return a Mono emitting true if the summary was stored
+	 */
+	@Override
+	public Mono<Boolean> replaceIfOlder(PhoneSummary summary) {
+		Query query = new Query(Criteria.where("phoneNumber").is(summary.getPhoneNumber()).and("refreshedAt")
+				.lt(summary.getRefreshedAt()));
+
+		return mongoTemplate.findAndReplace(query, summary, FindAndReplaceOptions.options().upsert()).thenReturn(true)
+				.onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+	}
+
+	/**
+	 * Issues a {@code deleteOne} matching the phone number and an older refresh
+	 * date.
+	 *
+	 * @param phoneNumber the phone number
+	 * @param refreshedAt the date of the read that found no accounts
+	 * @return a Mono containing the number of deleted summaries
+	 */
+	@Override
+	public Mono<Long> deleteIfOlder(String phoneNumber, LocalDateTime refreshedAt) {
+		Query query = new Query(Criteria.where("phoneNumber").is(phoneNumber).and("refreshedAt").lt(refreshedAt));
+
+		return mongoTemplate.remove(query, PhoneSummary.class).map(result -> result.getDeletedCount());
+	}
+
+	/**
+	 * Issues a {@code deleteMany} on the refresh date index.
+	 *
+	 * @param refreshedAt the cut-off date
+	 * @return a Mono containing the number of deleted summaries
+	 */
+	@Override
+	public Mono<Long> deleteAllOlderThan(LocalDateTime refreshedAt) {
+		return mongoTemplate.remove(new Query(Criteria.where("refreshedAt").lt(refreshedAt)), PhoneSummary.class)
+				.map(result -> result.getDeletedCount());
+	}
+}
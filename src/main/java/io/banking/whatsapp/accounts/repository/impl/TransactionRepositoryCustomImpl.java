@@ -0,0 +1,189 @@
+package io.banking.whatsapp.accounts.repository.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionCursor;
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.repository.TransactionRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of the TransactionRepositoryCustom fragment. Uses the reactive
+ * Mongo template to issue bulk writes.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@RequiredArgsConstructor
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	/**
+	 * Assigns IDs up front so the caller holds complete transactions once the
+	 * write returns, then issues one unordered {@code insertMany}. Duplicate key
+	 * errors are reported by position; any other write error is propagated.
+	 *
+	 * @param transactions the transactions to insert
+	 * @return a Mono containing the positions of the transactions that were
+	 *         rejected as duplicates
+	 */
+	@Override
+	public Mono<Set<Integer>> insertAll(List<Transaction> transactions) {
+		transactions.stream().filter(transaction -> transaction.getId() == null)
+				.forEach(transaction -> transaction.setId(ObjectId.get().toHexString()));
+
+		return BulkInserts.insertAll(mongoTemplate, Transaction.class, transactions);
+	}
+
+	/**
+	 * Issues a single {@code updateOne} conditioned on the current status.
+	 *
+	 * @param id   the ID of the transaction
+	 * @param from the status the transaction is expected to be in
+	 * @param to   the new status
+	 * @return a Mono emitting true if the transaction was moved
+	 */
+	@Override
+	public Mono<Boolean> transitionStatus(String id, TransactionStatus from, TransactionStatus to) {
+		Query query = new Query(Criteria.where("id").is(id).and("status").is(from));
+
+		return mongoTemplate.updateFirst(query, Update.update("status", to), Transaction.class)
+				.map(result -> result.getModifiedCount() > 0);
+	}
+
+	/**
+	 * Issues a single {@code updateOne} conditioned on the current status that
+	 * sets the new status and unsets the reference, which takes the transaction
+	 * out of the partial (accountId, reference) index.
+	 *
+	 * @param id   the ID of the transaction
+	 * @param from the status the transaction is expected to be in
+	 * @return a Mono emitting true if the transaction was moved
+	 */
+	@Override
+	public Mono<Boolean> failReleasingReference(String id, TransactionStatus from) {
+		Query query = new Query(Criteria.where("id").is(id).and("status").is(from));
+		Update update = Update.update("status", TransactionStatus.FAILED).unset("reference");
+
+		return mongoTemplate.updateFirst(query, update, Transaction.class).map(result -> result.getModifiedCount() > 0);
+	}
+
+	/**
+	 * Seeks past the cursor with a range on the (accountId, transactionDate, _id)
+	 * index, or on the (accountId, type, transactionDate, _id) index when a type
+	 * is given: transactions strictly older than the cursor, or as old with a
+	 * lower ID. The ID breaks ties between transactions recorded in the same
+	 * millisecond. The date range bounds the same index scan, and the status is
+	 * checked on the documents read.
+	 *
+	 * @param accountId the ID of the account
+	 * @param filter    the criteria the transactions must match
+	 * @param after     the position of the last transaction already read, or
+	 *                  null for the first page
+	 * @param limit     the maximum number of transactions to return
+	 * @return a Flux of transactions ordered by date and ID, descending
+	 */
+	@Override
+	public Flux<Transaction> findPageByAccountId(String accountId, TransactionFilter filter, TransactionCursor after,
+			int limit) {
+		Criteria criteria = Criteria.where("accountId").is(accountId);
+		if (filter.type() != null) {
+			criteria = criteria.and("type").is(filter.type());
+		}
+		if (filter.from() != null || filter.to() != null) {
+			Criteria date = criteria.and("transactionDate");
+			if (filter.from() != null) {
+				date.gte(filter.from());
+			}
+			if (filter.to() != null) {
+				date.lt(filter.to());
+			}
+		}
+		if (filter.status() != null) {
+			criteria = criteria.and("status").is(filter.status());
+		}
+		if (after != null) {
+			criteria = criteria.orOperator(Criteria.where("transactionDate").lt(after.transactionDate()),
+					Criteria.where("transactionDate").is(after.transactionDate()).and("id").lt(after.id()));
+		}
+		Query query = new Query(criteria)
+				.with(Sort.by(Sort.Direction.DESC, "transactionDate").and(Sort.by(Sort.Direction.DESC, "id")))
+				.limit(limit);
+
+		return mongoTemplate.find(query, Transaction.class);
+	}
+
+	/**
+	 * Scans the (accountId, transactionDate, _id) index forwards over the date
+	 * range; the status is checked on the documents read. Documents are fetched
+	 * in cursor batches as the subscriber requests them.
+	 */
+	@Override
+	public Flux<Transaction> streamCompletedByAccountId(String accountId, LocalDateTime from, LocalDateTime to,
+			int cursorBatchSize) {
+		Query query = new Query(statementCriteria(accountId, from, to))
+				.with(Sort.by(Sort.Direction.ASC, "transactionDate").and(Sort.by(Sort.Direction.ASC, "id")))
+				.cursorBatchSize(cursorBatchSize);
+
+		return mongoTemplate.find(query, Transaction.class);
+	}
+
+	/**
+	 * Sums on the server with a single {@code $group}, so the net change costs one
+	 * round-trip however many transactions it covers.
+	 */
+	@Override
+	public Mono<BigDecimal> sumCompletedSince(String accountId, LocalDateTime from) {
+		List<String> credits = Arrays.stream(TransactionType.values()).filter(TransactionType::isCredit)
+				.map(TransactionType::name).toList();
+		AggregationExpression signedAmount = ConditionalOperators
+				.when(ArrayOperators.In.arrayOf(credits).containsValue("$type")).thenValueOf("amount")
+				.otherwiseValueOf(ArithmeticOperators.Multiply.valueOf("amount").multiplyBy(-1));
+		Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(statementCriteria(accountId, from, null)),
+				Aggregation.group().sum(signedAmount).as("total"));
+
+		return mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).next()
+				.mapNotNull(result -> result.get("total", Decimal128.class)).map(Decimal128::bigDecimalValue)
+				.defaultIfEmpty(BigDecimal.ZERO);
+	}
+
+	private Criteria statementCriteria(String accountId, LocalDateTime from, LocalDateTime to) {
+		Criteria criteria = Criteria.where("accountId").is(accountId);
+		if (from != null || to != null) {
+			Criteria date = criteria.and("transactionDate");
+			if (from != null) {
+				date.gte(from);
+			}
+			if (to != null) {
+				date.lt(to);
+			}
+		}
+		return criteria.and("status").is(TransactionStatus.COMPLETED);
+	}
+}
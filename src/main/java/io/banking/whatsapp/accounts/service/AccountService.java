@@ -1,7 +1,19 @@
 package io.banking.whatsapp.accounts.service;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountPageDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountRollupSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
 import reactor.core.publisher.Flux;
@@ -26,6 +38,22 @@ public interface AccountService {
 	 */
 	Mono<AccountResponseDTO> createAccount(AccountRequestDTO request);
 
+	/**
+	 * Creates a batch of accounts, each item succeeding or failing independently.
+	 *
+	 * @param requests the accounts to create
+	 * @return a Mono containing the outcome of every item
+	 */
+	Mono<BatchResultDTO<AccountResponseDTO>> createAccounts(List<AccountRequestDTO> requests);
+
+	/**
+	 * Retrieves many accounts at once by ID and by account number.
+	 *
+	 * @param request the IDs and account numbers to fetch
+	 * @return a Mono containing the accounts found and the keys that matched none
+	 */
+	Mono<AccountLookupDTO> lookupAccounts(AccountLookupRequestDTO request);
+
 	/**
 	 * Retrieves an account by its ID.
 	 *
@@ -42,6 +70,25 @@ public interface AccountService {
 	 */
 	Mono<AccountResponseDTO> getAccountByNumber(String accountNumber);
 
+	/**
+	 * Retrieves an account by its ID, making sure the version returned is the
+	 * stored one even if this instance cached an older copy. Meant for
+	 * conditional requests, whose answer depends on the version.
+	 *
+	 * @param id the ID of the account to retrieve
+	 * @return a Mono containing the current account if found
+	 */
+	Mono<AccountResponseDTO> getCurrentAccountById(String id);
+
+	/**
+	 * Retrieves an account by its account number, making sure the version
+	 * returned is the stored one even if this instance cached an older copy.
+	 *
+	 * @param accountNumber the account number to search for
+	 * @return a Mono containing the current account if found
+	 */
+	Mono<AccountResponseDTO> getCurrentAccountByNumber(String accountNumber);
+
 	/**
 	 * Retrieves all accounts belonging to a specific user.
 	 *
@@ -51,12 +98,23 @@ public interface AccountService {
 	Flux<AccountResponseDTO> getAccountsByUserId(String userId);
 
 	/**
-	 * Retrieves all accounts in the system.
+	 * Retrieves all accounts in the system, read from the database in batches as
+	 * the subscriber requests them.
 	 *
 	 * @return a Flux of all accounts
 	 */
 	Flux<AccountResponseDTO> getAllAccounts();
 
+	/**
+	 * Retrieves one page of all accounts in the system.
+	 *
+	 * @param limit  the maximum number of accounts to return
+	 * @param cursor the cursor returned with the previous page, or null for the
+	 *               first page
+	 * @return a Mono containing the page
+	 */
+	Mono<AccountPageDTO> getAccountPage(int limit, String cursor);
+
 	/**
 	 * Updates an existing account.
 	 *
@@ -93,6 +151,41 @@ public interface AccountService {
 	Mono<UserAccountsTransactionsDTO> getUserAccountsTransactionsByPhoneNumber(String phoneNumber,
 			int transactionLimit);
 
+	/**
+	 * Reads the current revisions of a user's accounts from the source
+	 * collections, bypassing the read model.
+	 *
+	 * @param phoneNumber The phone number of the user
+	 * @return a Mono containing the revisions, empty if the user has no accounts
+	 */
+	Mono<Set<AccountRevision>> getAccountRevisionsByPhoneNumber(String phoneNumber);
+
+	/**
+	 * Regenerates the per-phone summary read model from the source collections.
+	 *
+	 * @return a Mono containing the number of summaries rebuilt
+	 */
+	Mono<Long> rebuildPhoneSummaries();
+
+	/**
+	 * Summarizes an account over a date range from its daily or monthly rollups.
+	 *
+	 * @param accountId   the ID of the account
+	 * @param granularity the length of the periods to summarize
+	 * @param from        the first day of the range, inclusive
+	 * @param to          the last day of the range, exclusive
+	 * @return a Mono containing the summary and its periods
+	 */
+	Mono<AccountRollupSummaryDTO> getRollupSummary(String accountId, RollupGranularity granularity, LocalDate from,
+			LocalDate to);
+
+	/**
+	 * Rebuilds the rollups of every account from the transactions collection.
+	 *
+	 * @return a Mono containing the number of accounts rebuilt
+	 */
+	Mono<Long> rebuildRollups();
+
 	/**
 	 * Retrieves all accounts belonging to a user with the specified DNI.
 	 *
@@ -109,4 +202,30 @@ public interface AccountService {
 	 *         number
 	 */
 	Flux<AccountResponseDTO> getAccountsByUserPhoneNumber(String phoneNumber);
-}
\ No newline at end of file
+
+	/**
+	 * Retrieves the summaries of all accounts belonging to a specific user.
+	 *
+	 * @param userId the ID of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	Flux<AccountSummaryDTO> getAccountSummariesByUserId(String userId);
+
+	/**
+	 * Retrieves the summaries of all accounts belonging to a user with the
+	 * specified DNI.
+	 *
+	 * @param dni the DNI (National ID) of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	Flux<AccountSummaryDTO> getAccountSummariesByUserDni(String dni);
+
+	/**
+	 * Retrieves the summaries of all accounts belonging to a user with the
+	 * specified phone number.
+	 *
+	 * @param phoneNumber the phone number of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	Flux<AccountSummaryDTO> getAccountSummariesByUserPhoneNumber(String phoneNumber);
+}
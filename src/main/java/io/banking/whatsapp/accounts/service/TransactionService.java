@@ -1,5 +1,13 @@
 package io.banking.whatsapp.accounts.service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionPageDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import reactor.core.publisher.Flux;
@@ -24,6 +32,25 @@ public interface TransactionService {
 	 */
 	Mono<TransactionResponseDTO> createTransaction(TransactionRequestDTO request);
 
+	/**
+	 * Creates a batch of transactions, grouping them by account and persisting
+	 * them with bulk writes. Each item succeeds or fails independently.
+	 *
+	 * @param requests the transactions to create
+	 * @return a Mono containing the outcome of every item
+	 */
+	Mono<BatchResultDTO<TransactionResponseDTO>> createTransactions(List<TransactionRequestDTO> requests);
+
+	/**
+	 * Creates transactions from a stream, with bounded concurrency and
+	 * backpressure. Results are emitted in the order the requests were received,
+	 * and each item succeeds or fails independently.
+	 *
+	 * @param requests the stream of transactions to create
+	 * @return a Flux emitting the outcome of every item
+	 */
+	Flux<BatchItemResultDTO<TransactionResponseDTO>> createTransactions(Flux<TransactionRequestDTO> requests);
+
 	/**
 	 * Retrieves a transaction by its ID.
 	 *
@@ -40,4 +67,28 @@ public interface TransactionService {
 	 * @return a Flux of transactions for the account
 	 */
 	Flux<TransactionResponseDTO> getTransactionsByAccountId(String accountId, int limit);
-}
\ No newline at end of file
+
+	/**
+	 * Retrieves a page of an account's transactions matching the filter, newest
+	 * first.
+	 *
+	 * @param accountId the ID of the account to get transactions for
+	 * @param filter    the criteria the transactions must match
+	 * @param limit     the maximum number of transactions to return
+	 * @param cursor    the cursor returned with the previous page, or null for the
+	 *                  first page
+	 * @return a Mono containing the page and the cursor of the next one
+	 */
+	Mono<TransactionPageDTO> getTransactionPage(String accountId, TransactionFilter filter, int limit, String cursor);
+
+	/**
+	 * Streams the statement of an account: its completed transactions within a
+	 * date range, oldest first, each with the running balance.
+	 *
+	 * @param accountId the ID of the account
+	 * @param from      the earliest transaction date, inclusive, or null
+	 * @param to        the latest transaction date, exclusive, or null
+	 * @return a Flux emitting one line per transaction
+	 */
+	Flux<StatementLineDTO> exportStatement(String accountId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,187 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
+import io.banking.whatsapp.accounts.exception.DuplicateAccountException;
+import io.banking.whatsapp.accounts.mapper.AccountMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates batches of accounts with a single database round-trip. Items are
+ * validated in memory, accounts without a number get one from the allocator,
+ * and all accounts are written with one unordered bulk insert. Items rejected
+ * by the unique account number index fail individually without affecting the
+ * rest of the batch.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountBatchProcessor {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountBatchProcessor.class);
+
+	private final AccountRepository accountRepository;
+	private final AccountMapper accountMapper;
+	private final AccountNumberAllocator accountNumberAllocator;
+	private final Validator validator;
+
+	/**
+	 * Creates a batch of accounts. Invalid items and items whose account number
+	 * is already in use are rejected individually; the rest are persisted.
+	 *
+	 * @param requests the accounts to create
+	 * @return a Mono containing the per-item outcomes
+	 */
+	public Mono<BatchResultDTO<AccountResponseDTO>> process(List<AccountRequestDTO> requests) {
+		List<BatchItemResultDTO<AccountResponseDTO>> results = new ArrayList<>(
+				Collections.nCopies(requests.size(), null));
+		List<Integer> indexes = new ArrayList<>();
+		Set<String> accountNumbers = new HashSet<>();
+
+		int unnumbered = 0;
+		for (int i = 0; i < requests.size(); i++) {
+			String error = validate(requests.get(i));
+			String accountNumber = error == null ? requests.get(i).getAccountNumber() : null;
+			if (StringUtils.hasText(accountNumber) && !accountNumbers.add(accountNumber)) {
+				error = "Duplicate account number in batch: " + accountNumber;
+			}
+			if (error != null) {
+				results.set(i, failed(i, error));
+			} else {
+				indexes.add(i);
+				if (!StringUtils.hasText(accountNumber)) {
+					unnumbered++;
+				}
+			}
+		}
+
+		return Flux.range(0, unnumbered).concatMap(i -> accountNumberAllocator.next()).collectList()
+				.flatMap(allocated -> insert(requests, indexes, allocated, results))
+				.then(Mono.fromCallable(() -> summarize(results)))
+				.doOnSuccess(result -> log.info("Account batch processed: {} created, {} failed", result.getCreated(),
+						result.getFailed()));
+	}
+
+	/**
+	 * Inserts the accepted items in one bulk write, assigning the allocated
+	 * numbers to the items that came without one.
+	 */
+	private Mono<Void> insert(List<AccountRequestDTO> requests, List<Integer> indexes, List<String> allocated,
+			List<BatchItemResultDTO<AccountResponseDTO>> results) {
+		int next = 0;
+		List<Account> accounts = new ArrayList<>(indexes.size());
+		Set<Integer> numbered = new HashSet<>();
+		for (Integer index : indexes) {
+			Account account = accountMapper.toEntity(requests.get(index));
+			if (!StringUtils.hasText(account.getAccountNumber())) {
+				account.setAccountNumber(allocated.get(next++));
+				numbered.add(accounts.size());
+			}
+			accounts.add(account);
+		}
+
+		return insertAll(accounts, numbered, AccountNumberAllocator.COLLISION_RETRIES).doOnNext(duplicates -> {
+			for (int i = 0; i < accounts.size(); i++) {
+				int index = indexes.get(i);
+				Account account = accounts.get(i);
+				results.set(index, duplicates.contains(i)
+						? failed(index, DuplicateAccountException.withAccountNumber(account.getAccountNumber()).getMessage())
+						: BatchItemResultDTO.<AccountResponseDTO>builder().index(index).status(BatchItemStatus.CREATED)
+								.result(accountMapper.toDto(account)).build());
+			}
+		}).then();
+	}
+
+	/**
+	 * Inserts accounts in one bulk write. Accounts whose allocated number was
+	 * already taken by a client-supplied one are given a new number and inserted
+	 * again, a bounded number of times.
+	 *
+	 * @param accounts  the accounts to insert
+	 * @param allocated the positions of the accounts with an allocated number
+	 * @param retries   the number of retries left
+	 * @return a Mono containing the positions of the accounts rejected as
+	 *         duplicates
+	 */
+	private Mono<Set<Integer>> insertAll(List<Account> accounts, Set<Integer> allocated, int retries) {
+		return accountRepository.insertAll(accounts).flatMap(duplicates -> {
+			List<Integer> collided = duplicates.stream().filter(allocated::contains).sorted().toList();
+			if (collided.isEmpty() || retries == 0) {
+				return Mono.just(duplicates);
+			}
+
+			log.warn("Allocating new account numbers for {} accounts whose numbers were already in use",
+					collided.size());
+			return Flux.fromIterable(collided).concatMap(i -> accountNumberAllocator.next()).collectList()
+					.flatMap(numbers -> {
+						List<Account> retried = new ArrayList<>(collided.size());
+						for (int i = 0; i < collided.size(); i++) {
+							Account account = accounts.get(collided.get(i));
+							account.setAccountNumber(numbers.get(i));
+							retried.add(account);
+						}
+						Set<Integer> all = IntStream.range(0, retried.size()).boxed().collect(Collectors.toSet());
+						return insertAll(retried, all, retries - 1);
+					}).map(stillDuplicated -> {
+						Set<Integer> rejected = new HashSet<>(duplicates);
+						rejected.removeAll(collided);
+						stillDuplicated.forEach(i -> rejected.add(collided.get(i)));
+						return rejected;
+					});
+		});
+	}
+
+	/**
+	 * Validates a single batch item.
+	 *
+	 * @return the validation error, or null if the item is valid
+	 */
+	private String validate(AccountRequestDTO request) {
+		if (request == null) {
+			return "Account is required";
+		}
+		Set<ConstraintViolation<AccountRequestDTO>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			return violations.stream().map(ConstraintViolation::getMessage).sorted()
+					.collect(Collectors.joining(", "));
+		}
+		return null;
+	}
+
+	private BatchItemResultDTO<AccountResponseDTO> failed(int index, String error) {
+		return BatchItemResultDTO.<AccountResponseDTO>builder().index(index).status(BatchItemStatus.FAILED).error(error)
+				.build();
+	}
+
+	private BatchResultDTO<AccountResponseDTO> summarize(List<BatchItemResultDTO<AccountResponseDTO>> results) {
+		int created = (int) results.stream().filter(item -> item.getStatus() == BatchItemStatus.CREATED).count();
+		return BatchResultDTO.<AccountResponseDTO>builder().total(results.size()).created(created)
+				.failed(results.size() - created).items(results).build();
+	}
+}
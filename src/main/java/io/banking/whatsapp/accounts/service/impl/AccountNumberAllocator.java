@@ -0,0 +1,179 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.concurrency.SingleFlight;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.exception.DuplicateAccountException;
+import io.banking.whatsapp.accounts.repository.CounterRepository;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Allocates account numbers on the server. Each instance reserves a block of
+ * serials at a time with an atomic increment of a shared counter document, and
+ * hands them out from memory without locking, so numbers never collide across
+ * instances and allocating one rarely costs a round-trip. Serials are
+ * zero-padded behind the configured prefix and followed by a Luhn check digit,
+ * so mistyped numbers are detected before any lookup. Serials left in a block
+ * when an instance stops are never used. Clients may still supply numbers that
+ * fall in the allocated range; writes of allocated numbers that collide with
+ * one of them are retried with a fresh number.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountNumberAllocator {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountNumberAllocator.class);
+
+	static final String COUNTER = "account-number";
+
+	/**
+	 * Number of fresh numbers tried after an allocated number collides with one
+	 * already in use.
+	 */
+	static final int COLLISION_RETRIES = 3;
+
+	private final CounterRepository counterRepository;
+	private final SingleFlight singleFlight;
+	private final AccountsProperties.Numbers properties;
+	private final long maxSerial;
+	private final AtomicReference<Block> current = new AtomicReference<>(Block.EXHAUSTED);
+
+	public AccountNumberAllocator(CounterRepository counterRepository, SingleFlight singleFlight,
+			AccountsProperties properties) {
+		this.counterRepository = counterRepository;
+		this.singleFlight = singleFlight;
+		this.properties = properties.getNumbers();
+		this.maxSerial = (long) Math.pow(10, this.properties.getDigits()) - 1;
+	}
+
+	/**
+	 * Allocates a new account number.
+	 *
+	 * @return a Mono containing an account number no other caller has received
+	 */
+	public Mono<String> next() {
+		return Mono.defer(() -> {
+			Block block = current.get();
+			long serial = block.take();
+			return serial >= 0 ? Mono.just(format(serial)) : reserve(block).then(next());
+		});
+	}
+
+	/**
+	 * Retry policy for a write of a freshly allocated number, retrying when the
+	 * number was already taken by a client-supplied one. The write must allocate
+	 * its number on subscription, so each retry uses a new one.
+	 *
+	 * @return the retry policy, failing with the last duplicate error once the
+	 *         retries are exhausted
+	 */
+	public static Retry onCollision() {
+		return Retry.max(COLLISION_RETRIES).filter(DuplicateAccountException.class::isInstance)
+				.doBeforeRetry(signal -> log.warn("Allocating a new account number: {}", signal.failure().getMessage()))
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+	}
+
+	/**
+	 * Reserves a new block once the given one is exhausted. Concurrent callers
+	 * share a single reservation, and a caller arriving after another block was
+	 * installed reserves nothing.
+	 */
+	private Mono<Void> reserve(Block exhausted) {
+		return singleFlight.execute("accountNumberBlock", COUNTER, () -> {
+			if (current.get() != exhausted) {
+				return Mono.just(true);
+			}
+
+			int blockSize = properties.getBlockSize();
+			return counterRepository.increment(COUNTER, blockSize).map(reserved -> {
+				long last = properties.getFirstSerial() + reserved - 1;
+				if (last > maxSerial) {
+					throw new IllegalStateException("Account number range exhausted");
+				}
+				log.debug("Reserved account number serials {} to {}", last - blockSize + 1, last);
+				current.compareAndSet(exhausted, new Block(last - blockSize + 1, last));
+				return true;
+			});
+		}).then();
+	}
+
+	private String format(long serial) {
+		String digits = properties.getPrefix()
+				+ String.format("%0" + properties.getDigits() + "d", serial);
+		return digits + checkDigit(digits);
+	}
+
+	/**
+	 * Computes the Luhn check digit of a string of digits.
+	 *
+	 * @param digits the digits to protect
+	 * @return the check digit to append
+	 */
+	static int checkDigit(String digits) {
+		int sum = 0;
+		boolean doubled = true;
+		for (int i = digits.length() - 1; i >= 0; i--) {
+			int digit = digits.charAt(i) - '0';
+			if (doubled) {
+				digit *= 2;
+				if (digit > 9) {
+					digit -= 9;
+				}
+			}
+			sum += digit;
+			doubled = !doubled;
+		}
+		return (10 - sum % 10) % 10;
+	}
+
+	/**
+	 * Tells whether a number ends with a valid Luhn check digit.
+	 *
+	 * @param number the account number
+	 * @return true if the number is all digits and its check digit matches
+	 */
+	public static boolean isValid(String number) {
+		if (number == null || number.length() < 2 || !number.chars().allMatch(Character::isDigit)) {
+			return false;
+		}
+		int last = number.length() - 1;
+		return checkDigit(number.substring(0, last)) == number.charAt(last) - '0';
+	}
+
+	/**
+	 * A reserved range of serials, handed out in order.
+	 */
+	private static final class Block {
+
+		static final Block EXHAUSTED = new Block(1, 0);
+
+		private final AtomicLong next;
+		private final long last;
+
+		Block(long first, long last) {
+			this.next = new AtomicLong(first);
+			this.last = last;
+		}
+
+		/**
+		 * Takes the next serial of the block.
+		 *
+		 * @return the serial, or -1 if the block is exhausted
+		 */
+		long take() {
+			long serial = next.getAndIncrement();
+			return serial <= last ? serial : -1;
+		}
+	}
+}
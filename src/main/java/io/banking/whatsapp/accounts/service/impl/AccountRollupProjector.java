@@ -0,0 +1,266 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.concurrency.OptimisticLockRetry;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRollupRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintains the daily and monthly rollups of every account. Each committed
+ * transaction is added to the rollups of its day and month with server-side
+ * increments, so questions about a period are answered from a handful of small
+ * documents instead of the period's transactions. Balance bounds are taken
+ * from the balance each write leaves on the account. Rollups are derived data:
+ * an increment that fails is counted in the {@code accounts.rollups.failures}
+ * meter and skipped, and a backfill rebuilds them from the transactions.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class AccountRollupProjector {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountRollupProjector.class);
+
+	private final AccountRepository accountRepository;
+	private final TransactionRepository transactionRepository;
+	private final AccountRollupRepository accountRollupRepository;
+	private final OptimisticLockRetry optimisticLockRetry;
+	private final AccountsProperties.Rollups properties;
+	private final int cursorBatchSize;
+	private final Counter failedIncrements;
+	private final Counter failedRebuilds;
+
+	public AccountRollupProjector(AccountRepository accountRepository, TransactionRepository transactionRepository,
+			AccountRollupRepository accountRollupRepository, OptimisticLockRetry optimisticLockRetry,
+			MeterRegistry meterRegistry, AccountsProperties properties) {
+		this.accountRepository = accountRepository;
+		this.transactionRepository = transactionRepository;
+		this.accountRollupRepository = accountRollupRepository;
+		this.optimisticLockRetry = optimisticLockRetry;
+		this.properties = properties.getRollups();
+		this.cursorBatchSize = properties.getStatement().getCursorBatchSize();
+		this.failedIncrements = Counter.builder("accounts.rollups.failures").tag("operation", "increment")
+				.register(meterRegistry);
+		this.failedRebuilds = Counter.builder("accounts.rollups.failures").tag("operation", "rebuild")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Adds committed transactions to the rollups of their account in the
+	 * background.
+	 *
+	 * @param accountId      the ID of the account
+	 * @param transactions   the transactions, in the order they were applied
+	 * @param closingBalance the balance after the last transaction, or null to
+	 *                       read the current balance of the account
+	 */
+	public void committed(String accountId, List<Transaction> transactions, BigDecimal closingBalance) {
+		if (!properties.isEnabled() || accountId == null || transactions.isEmpty()) {
+			return;
+		}
+
+		Mono<BigDecimal> closing = closingBalance != null ? Mono.just(closingBalance)
+				: accountRepository.findById(accountId).map(AccountRollupProjector::balance);
+		closing.flatMap(balance -> accountRollupRepository.increment(aggregate(accountId, transactions, balance)))
+				.subscribe(null, error -> {
+					failedIncrements.increment();
+					log.debug("Could not update the rollups of account {}: {}", accountId, error.getMessage());
+				});
+	}
+
+	/**
+	 * Retrieves the rollups of an account whose period starts within a range.
+	 *
+	 * @param accountId   the ID of the account
+	 * @param granularity the length of the periods
+	 * @param from        the earliest period start, inclusive
+	 * @param to          the latest period start, exclusive
+	 * @return a Flux of rollups ordered by period start
+	 */
+	public Flux<AccountRollup> find(String accountId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+		return accountRollupRepository.findRange(accountId, granularity, from, to);
+	}
+
+	/**
+	 * Backfills the rollups of every account in the background once the
+	 * application is ready, when enabled.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillOnStartup() {
+		if (properties.isBackfillOnStartup()) {
+			rebuild().subscribe(null, error -> log.warn("Could not backfill account rollups: {}", error.getMessage()));
+		}
+	}
+
+	/**
+	 * Rebuilds the rollups of every account from the transactions, several
+	 * accounts at a time. An account that cannot be rebuilt is counted in the
+	 * failures meter and skipped, so it does not stop the others.
+	 *
+	 * @return a Mono containing the number of accounts rebuilt
+	 */
+	public Mono<Long> rebuild() {
+		return Mono.defer(() -> {
+			log.info("Rebuilding account rollups");
+
+			return accountRepository.findAll().flatMap(account -> rebuild(account.getId()).onErrorResume(error -> {
+				failedRebuilds.increment();
+				log.warn("Could not rebuild the rollups of account {}: {}", account.getId(), error.getMessage());
+				return Mono.empty();
+			}), properties.getBackfillConcurrency()).count()
+					.doOnNext(count -> log.info("Rebuilt the rollups of {} accounts", count));
+		});
+	}
+
+	/**
+	 * Rebuilds the rollups of one account. The opening balance is the current
+	 * balance minus the net change of all completed transactions, and the
+	 * transactions are then replayed in order from a single cursor, so only the
+	 * rollups themselves are held in memory.
+	 * <p>
+	 * The rebuild replaces the rollups wholesale, which would drop increments of
+	 * transactions committed meanwhile. Every balance change bumps the account
+	 * version, so once the rollups are written the version and the net change are
+	 * read again: if either moved, a transaction was committed during the rebuild
+	 * and it starts over with the usual optimistic locking backoff.
+	 *
+	 * @param accountId the ID of the account
+	 * @return a Mono containing the number of rollups written
+	 * @throws OptimisticLockingFailureException if transactions kept being
+	 *                                           committed through every retry
+	 */
+	public Mono<Integer> rebuild(String accountId) {
+		return optimisticLockRetry.execute(accountId, () -> rebuildOnce(accountId));
+	}
+
+	private Mono<Integer> rebuildOnce(String accountId) {
+		return Mono.zip(accountRepository.findById(accountId), transactionRepository.sumCompletedSince(accountId, null))
+				.flatMap(start -> {
+					Account account = start.getT1();
+					BigDecimal net = start.getT2();
+
+					return transactionRepository.streamCompletedByAccountId(accountId, null, null, cursorBatchSize)
+							.reduce(new Rollups(accountId, balance(account).subtract(net)), Rollups::add)
+							.flatMap(rollups -> accountRollupRepository.replaceAll(accountId, rollups.values())
+									.then(unchangedSince(account, net, rollups))
+									.thenReturn(rollups.values().size()));
+				});
+	}
+
+	/**
+	 * Fails with an optimistic locking conflict if the account changed or a
+	 * transaction was recorded since the rebuild started.
+	 */
+	private Mono<Void> unchangedSince(Account account, BigDecimal net, Rollups rollups) {
+		return Mono
+				.zip(accountRepository.findRevisionById(account.getId()),
+						transactionRepository.sumCompletedSince(account.getId(), null))
+				.filter(end -> Objects.equals(end.getT1().getVersion(), account.getVersion())
+						&& end.getT2().compareTo(net) == 0 && rollups.net().compareTo(net) == 0)
+				.switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+						"Account " + account.getId() + " changed while its rollups were rebuilt")))
+				.then();
+	}
+
+	/**
+	 * Aggregates transactions into one rollup per day and month they fall in.
+	 *
+	 * @param accountId      the ID of the account
+	 * @param transactions   the transactions, in the order they were applied
+	 * @param closingBalance the balance after the last transaction
+	 * @return the aggregates, daily ones first
+	 */
+	static List<AccountRollup> aggregate(String accountId, List<Transaction> transactions, BigDecimal closingBalance) {
+		BigDecimal opening = closingBalance;
+		for (Transaction transaction : transactions) {
+			opening = opening.subtract(signedAmount(transaction));
+		}
+
+		Rollups rollups = new Rollups(accountId, opening);
+		transactions.forEach(rollups::add);
+		return rollups.values();
+	}
+
+	private static BigDecimal balance(Account account) {
+		return Objects.requireNonNullElse(account.getBalance(), BigDecimal.ZERO);
+	}
+
+	static BigDecimal signedAmount(Transaction transaction) {
+		return transaction.getType().isCredit() ? transaction.getAmount() : transaction.getAmount().negate();
+	}
+
+	/**
+	 * Accumulates the rollups of one account while its transactions are replayed
+	 * in order, carrying the running balance.
+	 */
+	private static final class Rollups {
+
+		private final String accountId;
+		private final Map<String, AccountRollup> rollups = new LinkedHashMap<>();
+		private final BigDecimal openingBalance;
+		private BigDecimal balance;
+
+		private Rollups(String accountId, BigDecimal openingBalance) {
+			this.accountId = accountId;
+			this.openingBalance = openingBalance;
+			this.balance = openingBalance;
+		}
+
+		private Rollups add(Transaction transaction) {
+			balance = balance.add(signedAmount(transaction));
+			LocalDate date = transaction.getTransactionDate().toLocalDate();
+			for (RollupGranularity granularity : RollupGranularity.values()) {
+				LocalDate periodStart = granularity.periodStart(date);
+				AccountRollup rollup = rollups.computeIfAbsent(AccountRollup.key(accountId, granularity, periodStart),
+						id -> AccountRollup.builder().id(id).accountId(accountId).granularity(granularity)
+								.periodStart(periodStart).sums(new HashMap<>()).minBalance(balance).maxBalance(balance)
+								.build());
+				rollup.setCount(rollup.getCount() + 1);
+				rollup.getSums().merge(transaction.getType().name(), transaction.getAmount(), BigDecimal::add);
+				rollup.setMinBalance(rollup.getMinBalance().min(balance));
+				rollup.setMaxBalance(rollup.getMaxBalance().max(balance));
+				rollup.setClosingBalance(balance);
+				rollup.setClosedAt(transaction.getTransactionDate());
+			}
+			return this;
+		}
+
+		private BigDecimal net() {
+			return balance.subtract(openingBalance);
+		}
+
+		private List<AccountRollup> values() {
+			List<AccountRollup> values = new ArrayList<>(rollups.values());
+			values.sort((left, right) -> left.getGranularity().compareTo(right.getGranularity()));
+			return values;
+		}
+	}
+}
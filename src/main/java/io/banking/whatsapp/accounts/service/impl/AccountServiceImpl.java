@@ -1,28 +1,60 @@
 package io.banking.whatsapp.accounts.service.impl;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.banking.whatsapp.accounts.cache.AccountCache;
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.cache.AccountNumberFilter;
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.concurrency.OptimisticLockRetry;
+import io.banking.whatsapp.accounts.concurrency.SingleFlight;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
 import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountCursor;
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountPageDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
-import io.banking.whatsapp.accounts.domain.dto.AccountWithTransactionsDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountRollupSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountSummaryDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
 import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
 import io.banking.whatsapp.accounts.exception.DuplicateAccountException;
+import io.banking.whatsapp.accounts.exception.InvalidCursorException;
 import io.banking.whatsapp.accounts.mapper.AccountMapper;
 import io.banking.whatsapp.accounts.mapper.TransactionMapper;
 import io.banking.whatsapp.accounts.repository.AccountRepository;
 import io.banking.whatsapp.accounts.repository.TransactionRepository;
 import io.banking.whatsapp.accounts.service.AccountService;
-import io.banking.whatsapp.accounts.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -42,36 +74,152 @@ public class AccountServiceImpl implements AccountService {
 
 	private final AccountRepository accountRepository;
 	private final AccountMapper accountMapper;
-	private final TransactionService transactionService;
 	private final TransactionRepository transactionRepository;
 	private final TransactionMapper transactionMapper;
+	private final OptimisticLockRetry optimisticLockRetry;
+	private final AccountSequencer accountSequencer;
+	private final AccountExistenceCache accountExistenceCache;
+	private final AccountCache accountCache;
+	private final PhoneSummaryProjector phoneSummaryProjector;
+	private final AccountsProperties properties;
+	private final SingleFlight singleFlight;
+	private final AccountNumberFilter accountNumberFilter;
+	private final AccountNumberAllocator accountNumberAllocator;
+	private final AccountBatchProcessor accountBatchProcessor;
+	private final AccountRollupProjector accountRollupProjector;
 	private static final Logger log = LoggerFactory.getLogger(AccountServiceImpl.class);
 
 	/**
-	 * Creates a new account. Validates that the account number is unique before
-	 * creating the account.
+	 * Creates a new account in a single insert. When the request carries no
+	 * account number, one is allocated on the server and the account is inserted
+	 * without any check, as allocated numbers never collide with each other; if
+	 * a client-supplied number took it first, the insert is retried with a new
+	 * one. Client-supplied numbers rely on the unique index on the account
+	 * number to reject duplicates; numbers the duplicate filter reports as
+	 * possibly in use are checked first, so obvious duplicates are rejected
+	 * without attempting the write.
 	 *
 	 * @param request the account data to create
 	 * @return a Mono containing the created account
-	 * @throws ResponseStatusException with HTTP 409 CONFLICT if an account with the
-	 *                                 same number already exists
+	 * @throws DuplicateAccountException if an account with the same number
+	 *                                   already exists
 	 */
 	@Override
 	public Mono<AccountResponseDTO> createAccount(AccountRequestDTO request) {
 		log.debug("Creating account with number: {}", request.getAccountNumber());
+		String accountNumber = request.getAccountNumber();
+
+		Mono<Account> created;
+		if (!StringUtils.hasText(accountNumber)) {
+			created = accountNumberAllocator.next().flatMap(allocated -> insert(request, allocated))
+					.retryWhen(AccountNumberAllocator.onCollision());
+		} else {
+			Mono<Boolean> duplicate = accountNumberFilter.mightContain(accountNumber)
+					? accountRepository.findByAccountNumber(accountNumber).hasElement()
+					: Mono.just(false);
+			created = duplicate.flatMap(exists -> exists
+					? Mono.error(DuplicateAccountException.withAccountNumber(accountNumber))
+					: insert(request, accountNumber));
+		}
+
+		return created.doOnNext(saved -> {
+			accountNumberFilter.put(saved.getAccountNumber());
+			accountExistenceCache.markExists(saved.getId());
+			phoneSummaryProjector.phoneNumberChanged(saved.getUserPhoneNumber());
+		}).map(accountMapper::toDto)
+				.doOnSuccess(dto -> log.info("Account created successfully: {}", dto.getAccountNumber()));
+	}
 
-		return accountRepository.findByAccountNumber(request.getAccountNumber())
-				.flatMap(existingAccount -> Mono.<AccountResponseDTO>error(
-						DuplicateAccountException.withAccountNumber(request.getAccountNumber())))
-				.switchIfEmpty(Mono.defer(() -> {
-					Account account = accountMapper.toEntity(request);
-					return accountRepository.save(account).map(accountMapper::toDto)
-							.doOnSuccess(dto -> log.info("Account created successfully: {}", dto.getAccountNumber()));
-				}));
+	private Mono<Account> insert(AccountRequestDTO request, String accountNumber) {
+		Account account = accountMapper.toEntity(request);
+		account.setAccountNumber(accountNumber);
+
+		return accountRepository.save(account).onErrorMap(DuplicateKeyException.class,
+				e -> DuplicateAccountException.withAccountNumber(accountNumber));
 	}
 
 	/**
-	 * Retrieves an account by its ID.
+	 * Creates a batch of accounts with a single bulk insert. The batch size is
+	 * capped so a single request cannot hold an unbounded amount of work in
+	 * memory. Created accounts are recorded in the duplicate filter and the
+	 * existence cache, and the summaries of their owners are refreshed.
+	 *
+	 * @param requests the accounts to create
+	 * @return a Mono containing the outcome of every item
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if the batch is
+	 *                                 empty or too large
+	 */
+	@Override
+	public Mono<BatchResultDTO<AccountResponseDTO>> createAccounts(List<AccountRequestDTO> requests) {
+		int maxItems = properties.getBatch().getMaxItems();
+		if (requests == null || requests.isEmpty() || requests.size() > maxItems) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"A batch must contain between 1 and " + maxItems + " accounts"));
+		}
+		log.debug("Creating batch of {} accounts", requests.size());
+
+		return accountBatchProcessor.process(requests).doOnNext(result -> {
+			Set<String> phoneNumbers = new HashSet<>();
+			result.getItems().stream().filter(item -> item.getStatus() == BatchItemStatus.CREATED)
+					.map(BatchItemResultDTO::getResult).forEach(created -> {
+						accountNumberFilter.put(created.getAccountNumber());
+						accountExistenceCache.markExists(created.getId());
+						phoneNumbers.add(created.getUserPhoneNumber());
+					});
+			phoneNumbers.forEach(phoneSummaryProjector::phoneNumberChanged);
+		});
+	}
+
+	/**
+	 * Retrieves many accounts at once with at most two queries: one {@code $in}
+	 * on the ID and one {@code $in} on the account number, run concurrently.
+	 * Accounts requested both ways are returned once.
+	 *
+	 * @param request the IDs and account numbers to fetch
+	 * @return a Mono containing the accounts found and the keys that matched none
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if no keys, or
+	 *                                 too many, are given
+	 */
+	@Override
+	public Mono<AccountLookupDTO> lookupAccounts(AccountLookupRequestDTO request) {
+		List<String> ids = distinct(request == null ? null : request.getIds());
+		List<String> accountNumbers = distinct(request == null ? null : request.getAccountNumbers());
+		int maxItems = properties.getBatch().getMaxItems();
+		int keys = ids.size() + accountNumbers.size();
+		if (keys == 0 || keys > maxItems) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"A lookup must contain between 1 and " + maxItems + " IDs and account numbers"));
+		}
+		log.debug("Looking up {} IDs and {} account numbers", ids.size(), accountNumbers.size());
+
+		Mono<Map<String, Account>> byId = ids.isEmpty() ? Mono.just(Map.of())
+				: accountRepository.findAllById(ids).collectMap(Account::getId);
+		Mono<Map<String, Account>> byNumber = accountNumbers.isEmpty() ? Mono.just(Map.of())
+				: accountRepository.findByAccountNumberIn(accountNumbers).collectMap(Account::getAccountNumber);
+
+		return Mono.zip(byId, byNumber).map(found -> {
+			Map<String, Account> accounts = new LinkedHashMap<>();
+			ids.stream().map(found.getT1()::get).filter(Objects::nonNull)
+					.forEach(account -> accounts.putIfAbsent(account.getId(), account));
+			accountNumbers.stream().map(found.getT2()::get).filter(Objects::nonNull)
+					.forEach(account -> accounts.putIfAbsent(account.getId(), account));
+
+			return AccountLookupDTO.builder()
+					.accounts(accounts.values().stream().map(accountMapper::toDto).toList())
+					.missingIds(ids.stream().filter(id -> !found.getT1().containsKey(id)).toList())
+					.missingAccountNumbers(
+							accountNumbers.stream().filter(number -> !found.getT2().containsKey(number)).toList())
+					.build();
+		});
+	}
+
+	private List<String> distinct(List<String> keys) {
+		return keys == null ? List.of() : keys.stream().filter(StringUtils::hasText).distinct().toList();
+	}
+
+	/**
+	 * Retrieves an account by its ID. Accounts are served from the read-through
+	 * account cache when possible.
 	 *
 	 * @param id the ID of the account to retrieve
 	 * @return a Mono containing the account if found
@@ -82,12 +230,14 @@ public class AccountServiceImpl implements AccountService {
 	public Mono<AccountResponseDTO> getAccountById(String id) {
 		log.debug("Getting account by ID: {}", id);
 
-		return accountRepository.findById(id).switchIfEmpty(Mono.error(AccountNotFoundException.withId(id)))
-				.map(accountMapper::toDto).doOnSuccess(dto -> log.debug("Found account: {}", dto));
+		return accountCache.getById(id, () -> accountRepository.findById(id).map(accountMapper::toDto))
+				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(id)))
+				.doOnSuccess(dto -> log.debug("Found account: {}", dto));
 	}
 
 	/**
-	 * Retrieves an account by its account number.
+	 * Retrieves an account by its account number. Accounts are served from the
+	 * read-through account cache when possible.
 	 *
 	 * @param accountNumber the account number to search for
 	 * @return a Mono containing the account if found
@@ -98,9 +248,64 @@ public class AccountServiceImpl implements AccountService {
 	public Mono<AccountResponseDTO> getAccountByNumber(String accountNumber) {
 		log.debug("Getting account by number: {}", accountNumber);
 
-		return accountRepository.findByAccountNumber(accountNumber)
+		return accountCache
+				.getByNumber(accountNumber,
+						() -> accountRepository.findByAccountNumber(accountNumber).map(accountMapper::toDto))
 				.switchIfEmpty(Mono.error(AccountNotFoundException.withAccountNumber(accountNumber)))
-				.map(accountMapper::toDto).doOnSuccess(dto -> log.debug("Found account: {}", dto));
+				.doOnSuccess(dto -> log.debug("Found account: {}", dto));
+	}
+
+	/**
+	 * Retrieves an account by its ID for a conditional request. With change
+	 * streams enabled, accounts changed through any instance are evicted from
+	 * every cache, so the cached copy is served as usual. Otherwise the cached
+	 * copy may predate a write made through another instance: its version is
+	 * checked against the stored one with a projected read, and the account is
+	 * reloaded when they differ.
+	 *
+	 * @param id the ID of the account to retrieve
+	 * @return a Mono containing the current account if found
+	 * @throws ResponseStatusException with HTTP 404 NOT_FOUND if the account does
+	 *                                 not exist
+	 */
+	@Override
+	public Mono<AccountResponseDTO> getCurrentAccountById(String id) {
+		return revalidate(getAccountById(id), () -> getAccountById(id));
+	}
+
+	/**
+	 * Retrieves an account by its account number for a conditional request,
+	 * checking the cached copy against the stored version like
+	 * {@link #getCurrentAccountById(String)}.
+	 *
+	 * @param accountNumber the account number to search for
+	 * @return a Mono containing the current account if found
+	 * @throws ResponseStatusException with HTTP 404 NOT_FOUND if the account does
+	 *                                 not exist
+	 */
+	@Override
+	public Mono<AccountResponseDTO> getCurrentAccountByNumber(String accountNumber) {
+		return revalidate(getAccountByNumber(accountNumber), () -> getAccountByNumber(accountNumber));
+	}
+
+	private Mono<AccountResponseDTO> revalidate(Mono<AccountResponseDTO> cached,
+			Supplier<Mono<AccountResponseDTO>> reload) {
+		if (properties.getChangeStreams().isEnabled()) {
+			return cached;
+		}
+
+		return cached.flatMap(account -> accountRepository.findRevisionById(account.getId())
+				.filter(stored -> sameRevision(stored, account)).map(stored -> account)
+				.switchIfEmpty(Mono.defer(() -> {
+					log.debug("Cached account {} is stale, reloading it", account.getId());
+					accountCache.evict(account.getId());
+					return reload.get();
+				})));
+	}
+
+	private static boolean sameRevision(Account stored, AccountResponseDTO account) {
+		return Objects.equals(stored.getVersion(), account.getVersion())
+				&& (stored.getVersion() != null || Objects.equals(stored.getUpdatedAt(), account.getUpdatedAt()));
 	}
 
 	/**
@@ -133,6 +338,7 @@ public class AccountServiceImpl implements AccountService {
 
 	/**
 	 * Retrieves all accounts belonging to a user with the specified phone number.
+	 * Identical requests in flight at the same time share a single query.
 	 *
 	 * @param phoneNumber the phone number of the user to find accounts for
 	 * @return a Flux of all accounts belonging to the user with the specified phone
@@ -142,25 +348,125 @@ public class AccountServiceImpl implements AccountService {
 	public Flux<AccountResponseDTO> getAccountsByUserPhoneNumber(String phoneNumber) {
 		log.debug("Getting accounts for user phone number: {}", phoneNumber);
 
-		return accountRepository.findByUserPhoneNumber(phoneNumber).map(accountMapper::toDto)
+		return singleFlight
+				.execute("accountsByPhoneNumber", phoneNumber,
+						() -> accountRepository.findByUserPhoneNumber(phoneNumber).map(accountMapper::toDto)
+								.collectList())
+				.flatMapIterable(Function.identity())
 				.doOnComplete(() -> log.debug("Completed fetching accounts for user phone number: {}", phoneNumber));
 	}
 
 	/**
-	 * Retrieves all accounts in the system.
+	 * Retrieves the summaries of all accounts belonging to a specific user. Only
+	 * the summary fields are read and decoded.
+	 *
+	 * @param userId the ID of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	@Override
+	public Flux<AccountSummaryDTO> getAccountSummariesByUserId(String userId) {
+		log.debug("Getting account summaries for user ID: {}", userId);
+
+		return accountRepository.findSummariesByUserId(userId).map(accountMapper::toSummaryDto);
+	}
+
+	/**
+	 * Retrieves the summaries of all accounts belonging to a user with the
+	 * specified DNI. Only the summary fields are read and decoded.
+	 *
+	 * @param dni the DNI (National ID) of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	@Override
+	public Flux<AccountSummaryDTO> getAccountSummariesByUserDni(String dni) {
+		log.debug("Getting account summaries for user DNI: {}", dni);
+
+		return accountRepository.findSummariesByUserDni(dni).map(accountMapper::toSummaryDto);
+	}
+
+	/**
+	 * Retrieves the summaries of all accounts belonging to a user with the
+	 * specified phone number. Only the summary fields are read and decoded, and
+	 * identical requests in flight at the same time share a single query.
+	 *
+	 * @param phoneNumber the phone number of the user to find accounts for
+	 * @return a Flux of account summaries
+	 */
+	@Override
+	public Flux<AccountSummaryDTO> getAccountSummariesByUserPhoneNumber(String phoneNumber) {
+		log.debug("Getting account summaries for user phone number: {}", phoneNumber);
+
+		return singleFlight.execute("accountSummariesByPhoneNumber", phoneNumber,
+				() -> accountRepository.findSummariesByUserPhoneNumber(phoneNumber).map(accountMapper::toSummaryDto)
+						.collectList())
+				.flatMapIterable(Function.identity());
+	}
+
+	/**
+	 * Retrieves all accounts in the system. Accounts are read in keyset batches
+	 * of {@code banking.accounts.listing.stream-batch-size}, and the next batch
+	 * is only read once the subscriber has requested the accounts of the current
+	 * one, so memory stays flat however many accounts there are.
 	 *
-	 * @return a Flux of all accounts
+	 * @return a Flux of all accounts, in ID order
 	 */
 	@Override
 	public Flux<AccountResponseDTO> getAllAccounts() {
 		log.debug("Getting all accounts");
 
-		return accountRepository.findAll().map(accountMapper::toDto)
+		int batchSize = properties.getListing().getStreamBatchSize();
+		return accountRepository.findPage(null, batchSize).collectList()
+				.expand(batch -> batch.size() < batchSize ? Mono.empty()
+						: accountRepository.findPage(AccountCursor.of(batch.get(batch.size() - 1)), batchSize)
+								.collectList())
+				.concatMapIterable(Function.identity(), 1).map(accountMapper::toDto).limitRate(batchSize)
 				.doOnComplete(() -> log.debug("Completed fetching all accounts"));
 	}
 
 	/**
-	 * Updates an existing account.
+	 * Retrieves one page of all accounts in the system, in ID order. Pages are
+	 * read with a keyset seek on the account ID, so deep pages cost the same as
+	 * the first one.
+	 *
+	 * @param limit  the maximum number of accounts to return
+	 * @param cursor the cursor returned with the previous page, or null for the
+	 *               first page
+	 * @return a Mono containing the page
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if the limit is
+	 *                                 out of range
+	 * @throws InvalidCursorException  if the cursor cannot be decoded
+	 */
+	@Override
+	public Mono<AccountPageDTO> getAccountPage(int limit, String cursor) {
+		log.debug("Getting accounts page (limit: {}, cursor: {})", limit, cursor);
+		int maxPageSize = properties.getListing().getMaxPageSize();
+		if (limit < 1 || limit > maxPageSize) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"The limit must be between 1 and " + maxPageSize));
+		}
+
+		AccountCursor after;
+		try {
+			after = StringUtils.hasText(cursor) ? AccountCursor.decode(cursor) : null;
+		} catch (InvalidCursorException e) {
+			return Mono.error(e);
+		}
+
+		return accountRepository.findPage(after, limit + 1).collectList().map(accounts -> {
+			boolean hasNext = accounts.size() > limit;
+			List<Account> page = hasNext ? accounts.subList(0, limit) : accounts;
+			return AccountPageDTO.builder().accounts(page.stream().map(accountMapper::toDto).toList())
+					.nextCursor(hasNext ? AccountCursor.of(page.get(limit - 1)).encode() : null).build();
+		});
+	}
+
+	/**
+	 * Updates an existing account. Each attempt is sequenced with other mutations
+	 * of the same account; the read-modify-write is guarded by the account
+	 * version and retried with a jittered backoff when a write from another
+	 * instance wins the race. Retries wait outside the sequencer, so the backoff
+	 * never holds up the account's lane. The cached view of the account is
+	 * evicted.
 	 *
 	 * @param id      the ID of the account to update
 	 * @param request the updated account data
@@ -172,16 +478,52 @@ public class AccountServiceImpl implements AccountService {
 	public Mono<AccountResponseDTO> updateAccount(String id, AccountRequestDTO request) {
 		log.debug("Updating account with ID: {}", id);
 
-		return accountRepository.findById(id).switchIfEmpty(Mono.error(AccountNotFoundException.withId(id)))
-				.flatMap(existingAccount -> {
+		return optimisticLockRetry.execute(id, () -> accountSequencer.sequence(id,
+				() -> findVersioned(id).flatMap(existingAccount -> {
+					String previousPhoneNumber = existingAccount.getUserPhoneNumber();
 					accountMapper.updateEntity(request, existingAccount);
-					return accountRepository.save(existingAccount);
-				}).map(accountMapper::toDto)
+					String accountNumber = existingAccount.getAccountNumber();
+					return accountRepository.save(existingAccount)
+							.onErrorMap(DuplicateKeyException.class,
+									e -> DuplicateAccountException.withAccountNumber(accountNumber))
+							.doOnNext(saved -> updated(previousPhoneNumber, saved));
+				})))
+				.doFinally(signal -> accountCache.evict(id)).map(accountMapper::toDto)
 				.doOnSuccess(dto -> log.info("Account updated successfully: {}", dto.getAccountNumber()));
 	}
 
 	/**
-	 * Deletes an account by its ID.
+	 * Reads an account for a version-guarded write. Accounts written before
+	 * versioning have no version and are given one first, since Spring Data
+	 * treats an entity with a null version as new and would insert it.
+	 *
+	 * @throws AccountNotFoundException if the account does not exist
+	 */
+	private Mono<Account> findVersioned(String id) {
+		return accountRepository.findById(id)
+				.flatMap(account -> account.getVersion() != null ? Mono.just(account)
+						: accountRepository.initializeVersion(id)
+								.switchIfEmpty(Mono.defer(() -> accountRepository.findById(id))))
+				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(id)));
+	}
+
+	/**
+	 * Records an updated account in the duplicate filter and refreshes the
+	 * summaries of its previous and current owners.
+	 */
+	private void updated(String previousPhoneNumber, Account saved) {
+		accountNumberFilter.put(saved.getAccountNumber());
+		phoneSummaryProjector.phoneNumberChanged(previousPhoneNumber);
+		if (!Objects.equals(previousPhoneNumber, saved.getUserPhoneNumber())) {
+			phoneSummaryProjector.phoneNumberChanged(saved.getUserPhoneNumber());
+		}
+	}
+
+	/**
+	 * Deletes an account by its ID. Each attempt is sequenced with other
+	 * mutations of the same account and guarded by the account version; the
+	 * delete is retried outside the sequencer when the account changes between
+	 * the read and the delete. The account is evicted from the caches.
 	 *
 	 * @param id the ID of the account to delete
 	 * @return a Mono that completes when the account is deleted
@@ -192,15 +534,19 @@ public class AccountServiceImpl implements AccountService {
 	public Mono<Void> deleteAccount(String id) {
 		log.debug("Deleting account with ID: {}", id);
 
-		return accountRepository.findById(id).switchIfEmpty(Mono.error(AccountNotFoundException.withId(id)))
+		return optimisticLockRetry.execute(id, () -> accountSequencer.sequence(id, () -> findVersioned(id)
 				.flatMap(account -> {
 					log.info("Deleting account: {}", account.getAccountNumber());
-					return accountRepository.delete(account);
-				});
+					return accountRepository.delete(account).doOnSuccess(
+							deleted -> phoneSummaryProjector.phoneNumberChanged(account.getUserPhoneNumber()));
+				}))).doOnSuccess(deleted -> accountExistenceCache.evict(id))
+				.doFinally(signal -> accountCache.evict(id));
 	}
 
 	/**
-	 * Retrieves the latest transactions for an account.
+	 * Retrieves the latest transactions for an account. The transactions are read
+	 * concurrently with the check that the account exists, which only reads the
+	 * account ID and is skipped when the account is known to exist.
 	 *
 	 * @param accountId the ID of the account to get transactions for
 	 * @param limit     the maximum number of transactions to return
@@ -212,19 +558,21 @@ public class AccountServiceImpl implements AccountService {
 	public Flux<TransactionResponseDTO> getAccountTransactions(String accountId, int limit) {
 		log.debug("Getting transactions for account ID: {} (limit: {})", accountId, limit);
 
-		return accountRepository.findById(accountId)
-				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(accountId))).flatMapMany(account -> {
-					PageRequest pageRequest = PageRequest.of(0, limit);
-					return transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId, pageRequest)
-							.map(transactionMapper::toDto).doOnComplete(
-									() -> log.debug("Completed fetching transactions for account ID: {}", accountId));
-				});
+		PageRequest pageRequest = PageRequest.of(0, limit);
+		Mono<List<Transaction>> transactions = transactionRepository
+				.findByAccountIdOrderByTransactionDateDesc(accountId, pageRequest).collectList();
+
+		return requireAccount(accountId, transactions).flatMapMany(Flux::fromIterable).map(transactionMapper::toDto)
+				.doOnComplete(() -> log.debug("Completed fetching transactions for account ID: {}", accountId));
 	}
 
 	/**
-	 * Gets user information, accounts and transactions by phone number. This method
-	 * aggregates data from multiple sources to provide a comprehensive view of a
-	 * user's financial information based on their phone number.
+	 * Gets user information, accounts and transactions by phone number. The view
+	 * is served from the per-phone summary read model, which is refreshed shortly
+	 * after every write to the user's accounts or transactions; requests for more
+	 * transactions than the read model keeps are built from the source
+	 * collections in a single aggregation. Identical requests in flight at the
+	 * same time share a single read.
 	 *
 	 * @param phoneNumber      The phone number of the user
 	 * @param transactionLimit Maximum number of transactions to return per account
@@ -237,31 +585,140 @@ public class AccountServiceImpl implements AccountService {
 			int transactionLimit) {
 		log.debug("Getting user accounts and transactions by phone number: {}", phoneNumber);
 
-		return accountRepository.findByUserPhoneNumber(phoneNumber).collectList().flatMap(accounts -> {
-			if (accounts.isEmpty()) {
-				return Mono.error(new AccountNotFoundException("No accounts found for phone number: " + phoneNumber));
-			}
+		return singleFlight
+				.execute("accountsTransactionsByPhoneNumber", phoneNumber + "|" + transactionLimit,
+						() -> phoneSummaryProjector.find(phoneNumber, transactionLimit))
+				.switchIfEmpty(Mono.error(
+						() -> new AccountNotFoundException("No accounts found for phone number: " + phoneNumber)))
+				.doOnSuccess(dto -> log.info(
+						"Successfully retrieved user accounts and transactions for phone number: {}", phoneNumber));
+	}
+
+	/**
+	 * Reads the current revisions of a user's accounts, that is the version of
+	 * each account and the ID of its newest transaction, in one projected
+	 * aggregation over the source collections.
+	 *
+	 * @param phoneNumber The phone number of the user
+	 * @return a Mono containing the revisions, empty if the user has no accounts
+	 */
+	@Override
+	public Mono<Set<AccountRevision>> getAccountRevisionsByPhoneNumber(String phoneNumber) {
+		return phoneSummaryProjector.revisions(phoneNumber);
+	}
 
-			// Get the first account to extract user information
-			Account firstAccount = accounts.get(0);
+	/**
+	 * Regenerates the per-phone summary read model from the accounts and
+	 * transactions collections.
+	 *
+	 * @return a Mono containing the number of summaries rebuilt
+	 */
+	@Override
+	public Mono<Long> rebuildPhoneSummaries() {
+		log.debug("Rebuilding phone summaries");
 
-			// Create a list of Monos, each containing an account with its transactions
-			List<Mono<AccountWithTransactionsDTO>> accountsWithTransactions = accounts.stream().map(account -> {
-				Mono<AccountResponseDTO> accountDto = Mono.just(accountMapper.toDto(account));
+		return phoneSummaryProjector.rebuild();
+	}
 
-				Flux<TransactionResponseDTO> transactions = transactionService
-						.getTransactionsByAccountId(account.getId(), transactionLimit);
+	/**
+	 * Summarizes an account over a date range from its daily or monthly rollups,
+	 * so the cost depends on the number of periods rather than the number of
+	 * transactions. The start of the range is aligned to the start of its period.
+	 * The rollups are read concurrently with the check that the account exists.
+	 *
+	 * @param accountId   the ID of the account
+	 * @param granularity the length of the periods to summarize
+	 * @param from        the first day of the range, inclusive
+	 * @param to          the last day of the range, exclusive
+	 * @return a Mono containing the summary and its periods
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if the range is
+	 *                                 empty, or HTTP 404 NOT_FOUND if the account
+	 *                                 does not exist
+	 */
+	@Override
+	public Mono<AccountRollupSummaryDTO> getRollupSummary(String accountId, RollupGranularity granularity,
+			LocalDate from, LocalDate to) {
+		log.debug("Getting {} rollups for account ID: {} (from: {}, to: {})", granularity, accountId, from, to);
+		if (!from.isBefore(to)) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'"));
+		}
+
+		LocalDate start = granularity.periodStart(from);
+		Mono<List<AccountRollup>> rollups = accountRollupProjector.find(accountId, granularity, start, to)
+				.collectList();
+
+		return requireAccount(accountId, rollups)
+				.map(periods -> summarize(accountId, granularity, start, to, periods));
+	}
 
-				return Mono.zip(accountDto, transactions.collectList()).map(tuple -> AccountWithTransactionsDTO
-						.builder().account(tuple.getT1()).transactions(tuple.getT2()).build());
-			}).collect(Collectors.toList());
+	/**
+	 * Runs a read concurrently with the check that the account exists. The
+	 * existence check only reads the account ID.
+	 */
+	private <T> Mono<T> requireAccount(String accountId, Mono<T> read) {
+		return accountExistenceCache.requireExisting(accountId, () -> accountRepository.existsById(accountId), read);
+	}
 
-			// Combine all the Monos into a single Mono<List<AccountWithTransactionsDTO>>
-			return Flux.fromIterable(accountsWithTransactions).flatMap(mono -> mono).collectList()
-					.map(accountsWithTxs -> UserAccountsTransactionsDTO.builder().userId(firstAccount.getUserId())
-							.userDni(firstAccount.getUserDni()).userPhoneNumber(firstAccount.getUserPhoneNumber())
-							.accounts(accountsWithTxs).build());
-		}).doOnSuccess(dto -> log.info("Successfully retrieved user accounts and transactions for phone number: {}",
-				phoneNumber));
+	/**
+	 * Rebuilds the rollups of every account from the transactions collection.
+	 *
+	 * @return a Mono containing the number of accounts rebuilt
+	 */
+	@Override
+	public Mono<Long> rebuildRollups() {
+		log.debug("Rebuilding account rollups");
+
+		return accountRollupProjector.rebuild();
+	}
+
+	private AccountRollupSummaryDTO summarize(String accountId, RollupGranularity granularity, LocalDate from,
+			LocalDate to, List<AccountRollup> rollups) {
+		long count = 0;
+		Map<String, BigDecimal> sums = new TreeMap<>();
+		BigDecimal minBalance = null;
+		BigDecimal maxBalance = null;
+		for (AccountRollup rollup : rollups) {
+			count += rollup.getCount();
+			if (rollup.getSums() != null) {
+				rollup.getSums().forEach((type, amount) -> sums.merge(type, amount, BigDecimal::add));
+			}
+			minBalance = minBalance == null ? rollup.getMinBalance() : minBalance.min(rollup.getMinBalance());
+			maxBalance = maxBalance == null ? rollup.getMaxBalance() : maxBalance.max(rollup.getMaxBalance());
+		}
+
+		return AccountRollupSummaryDTO.builder().accountId(accountId).granularity(granularity).from(from).to(to)
+				.count(count).sums(sums).minBalance(minBalance).maxBalance(maxBalance)
+				.averageClosingBalance(averageClosingBalance(granularity, to, rollups))
+				.periods(rollups.stream().map(accountMapper::toRollupDto).toList()).build();
+	}
+
+	/**
+	 * Averages the closing balance over every period from the first one with
+	 * activity up to the end of the range or the current period, whichever comes
+	 * first. Periods without transactions carry the closing balance of the
+	 * previous period.
+	 *
+	 * @return the average rounded to cents, or null if no period qualifies
+	 */
+	static BigDecimal averageClosingBalance(RollupGranularity granularity, LocalDate to, List<AccountRollup> rollups) {
+		if (rollups.isEmpty()) {
+			return null;
+		}
+		LocalDate current = granularity.next(granularity.periodStart(LocalDate.now()));
+		LocalDate end = to.isBefore(current) ? to : current;
+
+		BigDecimal total = BigDecimal.ZERO;
+		BigDecimal closing = null;
+		int periods = 0;
+		int next = 0;
+		for (LocalDate period = rollups.get(0).getPeriodStart(); period.isBefore(end); period = granularity
+				.next(period)) {
+			while (next < rollups.size() && !rollups.get(next).getPeriodStart().isAfter(period)) {
+				closing = rollups.get(next++).getClosingBalance();
+			}
+			total = total.add(closing);
+			periods++;
+		}
+		return periods == 0 ? null : total.divide(BigDecimal.valueOf(periods), 2, RoundingMode.HALF_EVEN);
 	}
 }
@@ -0,0 +1,235 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Coalesces concurrent deposits to the same account into a single write. A
+ * deposit to an account with no commit in flight is committed right away, so
+ * uncontended deposits pay no extra latency. Deposits arriving while a commit
+ * is in flight collect for a short window, or until the batch is full, and are
+ * then applied with one aggregated {@code $inc} to the balance and one
+ * {@code insertMany} for the transactions. Every caller still receives its own
+ * saved transaction.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class DepositGroupCommitter {
+
+	private static final Logger log = LoggerFactory.getLogger(DepositGroupCommitter.class);
+
+	private final AccountRepository accountRepository;
+	private final TransactionRepository transactionRepository;
+	private final AccountSequencer accountSequencer;
+	private final AccountRollupProjector accountRollupProjector;
+	private final boolean enabled;
+	private final Duration window;
+	private final int maxBatchSize;
+	private final DistributionSummary batchSizes;
+	private final ConcurrentHashMap<String, Batch> pending = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+	public DepositGroupCommitter(AccountRepository accountRepository, TransactionRepository transactionRepository,
+			AccountSequencer accountSequencer, AccountRollupProjector accountRollupProjector, AccountsProperties properties,
+			MeterRegistry meterRegistry) {
+		AccountsProperties.GroupCommit groupCommit = properties.getGroupCommit();
+		this.accountRepository = accountRepository;
+		this.transactionRepository = transactionRepository;
+		this.accountSequencer = accountSequencer;
+		this.accountRollupProjector = accountRollupProjector;
+		this.enabled = groupCommit.isEnabled();
+		this.window = groupCommit.getWindow();
+		this.maxBatchSize = groupCommit.getMaxBatchSize();
+		this.batchSizes = DistributionSummary.builder("accounts.group-commit.batch.size").register(meterRegistry);
+	}
+
+	/**
+	 * Indicates whether deposits should be routed through the group committer.
+	 *
+	 * @return true if group commit is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Commits a deposit right away when its account has no commit in flight, or
+	 * queues it for the account's next group commit otherwise.
+	 *
+	 * @param deposit the deposit transaction to persist
+	 * @return a Mono containing the saved transaction once its batch is committed
+	 */
+	public Mono<Transaction> submit(Transaction deposit) {
+		return Mono.defer(() -> {
+			String accountId = deposit.getAccountId();
+			PendingDeposit pendingDeposit = new PendingDeposit(deposit, Sinks.one());
+			Batch[] opened = new Batch[1];
+			Batch[] ready = new Batch[1];
+
+			pending.compute(accountId, (id, batch) -> {
+				if (batch == null) {
+					batch = new Batch(id);
+					opened[0] = batch;
+				}
+				batch.deposits.add(pendingDeposit);
+				if (batch.deposits.size() >= maxBatchSize || opened[0] != null && !inFlight.containsKey(id)) {
+					ready[0] = batch;
+					return null;
+				}
+				return batch;
+			});
+
+			if (ready[0] != null) {
+				commit(ready[0]);
+			} else if (opened[0] != null) {
+				Batch batch = opened[0];
+				Schedulers.parallel().schedule(() -> {
+					if (pending.remove(accountId, batch)) {
+						commit(batch);
+					}
+				}, window.toNanos(), TimeUnit.NANOSECONDS);
+			}
+
+			return pendingDeposit.result.asMono();
+		});
+	}
+
+	/**
+	 * Commits a closed batch: one balance increment for the sum of its deposits
+	 * followed by one bulk insert of its transactions. If the insert fails for
+	 * any reason other than duplicates, the increment is reverted before the
+	 * deposits fail, so the balance never includes unrecorded deposits.
+	 *
+	 * @param batch the batch to commit
+	 */
+	private void commit(Batch batch) {
+		List<Transaction> transactions = new ArrayList<>(batch.deposits.size());
+		BigDecimal total = BigDecimal.ZERO;
+		for (PendingDeposit deposit : batch.deposits) {
+			transactions.add(deposit.transaction);
+			total = total.add(deposit.transaction.getAmount());
+		}
+		batchSizes.record(transactions.size());
+		log.debug("Committing {} deposits for account ID: {} (total: {})", transactions.size(), batch.accountId,
+				total);
+
+		BigDecimal delta = total;
+		inFlight.merge(batch.accountId, 1, Integer::sum);
+		accountSequencer.sequence(batch.accountId, () -> accountRepository.incrementBalance(batch.accountId, delta)
+				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(batch.accountId)))
+				.flatMap(account -> transactionRepository.insertAll(transactions)
+						.onErrorResume(error -> revert(batch, delta).then(Mono.error(error)))
+						.flatMap(duplicates -> compensate(batch, duplicates)
+								.doOnSuccess(ignored -> recordRollups(batch, duplicates, account.getBalance()))
+								.thenReturn(duplicates))))
+				.doFinally(signal -> inFlight.computeIfPresent(batch.accountId,
+						(accountId, commits) -> commits > 1 ? commits - 1 : null))
+				.subscribe(duplicates -> {
+					for (int i = 0; i < batch.deposits.size(); i++) {
+						PendingDeposit deposit = batch.deposits.get(i);
+						if (duplicates.contains(i)) {
+							deposit.result.tryEmitError(new DuplicateKeyException(
+									"Duplicate transaction reference: " + deposit.transaction.getReference()));
+						} else {
+							deposit.result.tryEmitValue(deposit.transaction);
+						}
+					}
+				}, error -> batch.deposits.forEach(deposit -> deposit.result.tryEmitError(error)));
+	}
+
+	/**
+	 * Takes back the amount of the deposits that were rejected as duplicates, since
+	 * the batch total had already been credited.
+	 *
+	 * @param batch      the committed batch
+	 * @param duplicates positions of the deposits rejected as duplicates
+	 * @return a Mono that completes once the balance has been corrected
+	 */
+	private Mono<Void> compensate(Batch batch, Set<Integer> duplicates) {
+		if (duplicates.isEmpty()) {
+			return Mono.empty();
+		}
+		BigDecimal rejected = rejected(batch, duplicates);
+		log.debug("Reverting {} duplicate deposits for account ID: {}", duplicates.size(), batch.accountId);
+
+		return accountRepository.adjustBalance(batch.accountId, rejected.negate()).then();
+	}
+
+	/**
+	 * Takes back the whole batch increment after its transactions could not be
+	 * recorded.
+	 *
+	 * @param batch the committed batch
+	 * @param delta the amount the batch credited
+	 * @return a Mono that completes once the balance has been corrected
+	 */
+	private Mono<Void> revert(Batch batch, BigDecimal delta) {
+		log.warn("Reverting {} deposits for account ID: {} after their transactions could not be recorded",
+				batch.deposits.size(), batch.accountId);
+
+		return accountRepository.adjustBalance(batch.accountId, delta.negate()).then();
+	}
+
+	/**
+	 * Adds the deposits that were recorded to the account's rollups. The balance
+	 * they left is the balance after the batch increment, minus the rejected
+	 * duplicates.
+	 *
+	 * @param batch      the committed batch
+	 * @param duplicates positions of the deposits rejected as duplicates
+	 * @param balance    the balance right after the batch increment
+	 */
+	private void recordRollups(Batch batch, Set<Integer> duplicates, BigDecimal balance) {
+		List<Transaction> recorded = new ArrayList<>(batch.deposits.size());
+		for (int i = 0; i < batch.deposits.size(); i++) {
+			if (!duplicates.contains(i)) {
+				recorded.add(batch.deposits.get(i).transaction);
+			}
+		}
+		accountRollupProjector.committed(batch.accountId, recorded, balance.subtract(rejected(batch, duplicates)));
+	}
+
+	private BigDecimal rejected(Batch batch, Set<Integer> duplicates) {
+		return duplicates.stream().map(index -> batch.deposits.get(index).transaction.getAmount())
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+
+	private static final class Batch {
+
+		private final String accountId;
+		private final List<PendingDeposit> deposits = new ArrayList<>();
+
+		private Batch(String accountId) {
+			this.accountId = accountId;
+		}
+	}
+
+	private record PendingDeposit(Transaction transaction, Sinks.One<Transaction> result) {
+	}
+}
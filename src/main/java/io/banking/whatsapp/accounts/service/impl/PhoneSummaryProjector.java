@@ -0,0 +1,250 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+import io.banking.whatsapp.accounts.domain.dto.AccountWithTransactionsDTO;
+import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
+import io.banking.whatsapp.accounts.mapper.AccountMapper;
+import io.banking.whatsapp.accounts.mapper.TransactionMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRepositoryCustom.AccountHistory;
+import io.banking.whatsapp.accounts.repository.PhoneSummaryRepository;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Maintains the per-phone summary read model. Reads of the complete view by
+ * phone number are a lookup by key, checked against the current revisions of
+ * the user's accounts; writes to accounts and transactions schedule a refresh
+ * of the summaries they affect, which rebuilds them from the source collections
+ * in one aggregation. Refreshes are delayed briefly so a burst of writes for
+ * the same user costs a single refresh, and failed refreshes are retried. A
+ * summary whose refresh was lost is never served: the revision check detects
+ * it and the read rebuilds it.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class PhoneSummaryProjector {
+
+	private static final Logger log = LoggerFactory.getLogger(PhoneSummaryProjector.class);
+
+	private final AccountRepository accountRepository;
+	private final PhoneSummaryRepository phoneSummaryRepository;
+	private final AccountMapper accountMapper;
+	private final TransactionMapper transactionMapper;
+	private final AccountExistenceCache accountExistenceCache;
+	private final AccountsProperties.ReadModel properties;
+	private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+	public PhoneSummaryProjector(AccountRepository accountRepository, PhoneSummaryRepository phoneSummaryRepository,
+			AccountMapper accountMapper, TransactionMapper transactionMapper,
+			AccountExistenceCache accountExistenceCache, AccountsProperties properties) {
+		this.accountRepository = accountRepository;
+		this.phoneSummaryRepository = phoneSummaryRepository;
+		this.accountMapper = accountMapper;
+		this.transactionMapper = transactionMapper;
+		this.accountExistenceCache = accountExistenceCache;
+		this.properties = properties.getReadModel();
+	}
+
+	/**
+	 * Returns the complete view of a user. The view is served from the read model
+	 * when it keeps enough transactions per account and was built from the
+	 * current revisions of the user's accounts; a missing or stale summary is
+	 * rebuilt and stored on the way.
+	 *
+	 * @param phoneNumber      the phone number of the user
+	 * @param transactionLimit the maximum number of transactions per account
+	 * @return a Mono containing the view, or an empty Mono if the user has no
+	 *         accounts
+	 */
+	public Mono<UserAccountsTransactionsDTO> find(String phoneNumber, int transactionLimit) {
+		if (!properties.isEnabled() || transactionLimit > properties.getTransactionLimit()) {
+			return load(phoneNumber, transactionLimit);
+		}
+
+		return phoneSummaryRepository.findById(phoneNumber).filterWhen(this::isCurrent).map(PhoneSummary::getView)
+				.switchIfEmpty(Mono.defer(() -> refresh(phoneNumber)))
+				.map(view -> truncate(view, transactionLimit));
+	}
+
+	/**
+	 * Reads the current revisions of a user's accounts, which identify the
+	 * balances and newest transactions the complete view shows.
+	 *
+	 * @param phoneNumber the phone number of the user
+	 * @return a Mono containing the revisions, empty if the user has no accounts
+	 */
+	public Mono<Set<AccountRevision>> revisions(String phoneNumber) {
+		return accountRepository.findRevisionsByUserPhoneNumber(phoneNumber).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Schedules a refresh of a user's summary, typically after one of their
+	 * accounts was created, updated or deleted.
+	 *
+	 * @param phoneNumber the phone number of the user
+	 */
+	public void phoneNumberChanged(String phoneNumber) {
+		if (phoneNumber != null) {
+			schedule("phone:" + phoneNumber, () -> refresh(phoneNumber));
+		}
+	}
+
+	/**
+	 * Schedules a refresh of the summary an account belongs to, typically after a
+	 * transaction changed its balance.
+	 *
+	 * @param accountId the ID of the account
+	 */
+	public void accountChanged(String accountId) {
+		if (accountId != null) {
+			schedule("account:" + accountId, () -> accountRepository.findById(accountId)
+					.map(Account::getUserPhoneNumber).flatMap(this::refresh));
+		}
+	}
+
+	/**
+	 * Rebuilds the summary of a user from the source collections, or removes it
+	 * if the user has no accounts left. A summary built from an older read never
+	 * replaces one built from a newer read.
+	 *
+	 * @param phoneNumber the phone number of the user
+	 * @return a Mono containing the rebuilt view, or an empty Mono if the user has
+	 *         no accounts
+	 */
+	public Mono<UserAccountsTransactionsDTO> refresh(String phoneNumber) {
+		return Mono.defer(() -> {
+			LocalDateTime refreshedAt = LocalDateTime.now();
+			int transactionLimit = properties.getTransactionLimit();
+
+			return loadHistories(phoneNumber, transactionLimit).flatMap(histories -> {
+				UserAccountsTransactionsDTO view = toView(histories);
+				List<AccountRevision> revisions = histories.stream()
+						.map(history -> AccountRevision.of(history.account(), history.transactions())).toList();
+
+				return phoneSummaryRepository.replaceIfOlder(PhoneSummary.builder().phoneNumber(phoneNumber)
+						.transactionLimit(transactionLimit).refreshedAt(refreshedAt).revisions(revisions).view(view)
+						.build()).thenReturn(view);
+			})
+					.switchIfEmpty(Mono.defer(() -> phoneSummaryRepository.deleteIfOlder(phoneNumber, refreshedAt)
+							.then(Mono.empty())));
+		});
+	}
+
+	/**
+	 * Regenerates the whole read model from the source collections. Summaries are
+	 * rebuilt in parallel, and summaries of phone numbers without accounts are
+	 * removed.
+	 *
+	 * @return a Mono containing the number of summaries rebuilt
+	 */
+	public Mono<Long> rebuild() {
+		return Mono.defer(() -> {
+			LocalDateTime startedAt = LocalDateTime.now();
+			log.info("Rebuilding phone summaries");
+
+			return accountRepository.findDistinctUserPhoneNumbers()
+					.flatMap(this::refresh, properties.getRebuildConcurrency()).count()
+					.flatMap(count -> phoneSummaryRepository.deleteAllOlderThan(startedAt).map(removed -> {
+						log.info("Rebuilt {} phone summaries and removed {} stale ones", count, removed);
+						return count;
+					}));
+		});
+	}
+
+	/**
+	 * Builds the complete view of a user in a single aggregation over the source
+	 * collections.
+	 */
+	private Mono<UserAccountsTransactionsDTO> load(String phoneNumber, int transactionLimit) {
+		return loadHistories(phoneNumber, transactionLimit).map(this::toView);
+	}
+
+	private Mono<List<AccountHistory>> loadHistories(String phoneNumber, int transactionLimit) {
+		return accountRepository.findHistoriesByUserPhoneNumber(phoneNumber, transactionLimit).collectList()
+				.filter(histories -> !histories.isEmpty());
+	}
+
+	/**
+	 * Tells whether a summary was built from the current revisions of the user's
+	 * accounts. Summaries stored before revisions were recorded are stale.
+	 */
+	private Mono<Boolean> isCurrent(PhoneSummary summary) {
+		if (summary.getRevisions() == null) {
+			return Mono.just(false);
+		}
+
+		return revisions(summary.getPhoneNumber()).defaultIfEmpty(Set.of())
+				.map(current -> current.equals(new HashSet<>(summary.getRevisions())));
+	}
+
+	private UserAccountsTransactionsDTO toView(List<AccountHistory> histories) {
+		// Get the first account to extract user information
+		Account firstAccount = histories.get(0).account();
+
+		List<AccountWithTransactionsDTO> accounts = histories.stream().map(history -> {
+			accountExistenceCache.markExists(history.account().getId());
+			return AccountWithTransactionsDTO.builder().account(accountMapper.toDto(history.account()))
+					.transactions(history.transactions().stream().map(transactionMapper::toDto).toList()).build();
+		}).toList();
+
+		return UserAccountsTransactionsDTO.builder().userId(firstAccount.getUserId())
+				.userDni(firstAccount.getUserDni()).userPhoneNumber(firstAccount.getUserPhoneNumber())
+				.accounts(accounts).build();
+	}
+
+	private UserAccountsTransactionsDTO truncate(UserAccountsTransactionsDTO view, int transactionLimit) {
+		List<AccountWithTransactionsDTO> accounts = view.getAccounts().stream()
+				.map(account -> account.getTransactions().size() <= transactionLimit ? account
+						: AccountWithTransactionsDTO.builder().account(account.getAccount())
+								.transactions(account.getTransactions().subList(0, transactionLimit)).build())
+				.toList();
+
+		return UserAccountsTransactionsDTO.builder().userId(view.getUserId()).userDni(view.getUserDni())
+				.userPhoneNumber(view.getUserPhoneNumber()).accounts(accounts).build();
+	}
+
+	/**
+	 * Runs the refresh after the configured delay, unless one is already pending
+	 * for the same key. A write landing while the refresh runs schedules another
+	 * one, so the last write is always reflected. Failed refreshes are retried
+	 * with a backoff starting at the refresh delay; a summary left stale once the
+	 * retries are exhausted is rebuilt by the next read.
+	 */
+	private void schedule(String key, Supplier<Mono<?>> refresh) {
+		if (!properties.isEnabled() || !scheduled.add(key)) {
+			return;
+		}
+
+		Retry retry = Retry.backoff(properties.getRefreshRetries(), properties.getRefreshDelay())
+				.doBeforeRetry(signal -> log.debug("Retrying the refresh of the phone summary for {}, retry #{}", key,
+						signal.totalRetries() + 1))
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+		Mono.delay(properties.getRefreshDelay()).then(Mono.defer(() -> {
+			scheduled.remove(key);
+			return Mono.defer(refresh).retryWhen(retry);
+		})).subscribe(null, error -> log.warn("Could not refresh the phone summary for {}: {}", key,
+				error.getMessage()));
+	}
+}
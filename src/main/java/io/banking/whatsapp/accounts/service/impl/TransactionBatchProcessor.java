@@ -0,0 +1,310 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.mapper.TransactionMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRepositoryCustom.BalanceChange;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Processes batches of transactions with a constant number of database
+ * round-trips. Requests are grouped by account, validated in memory against a
+ * single snapshot of the involved accounts, and persisted with one bulk write
+ * for the balances and one bulk insert for the transactions. Accounts modified
+ * concurrently between the snapshot and the bulk write are re-evaluated from a
+ * fresh snapshot a bounded number of times. Items whose reference was already
+ * recorded are answered with the original transaction instead of being applied
+ * again.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class TransactionBatchProcessor {
+
+	private static final Logger log = LoggerFactory.getLogger(TransactionBatchProcessor.class);
+
+	private final AccountRepository accountRepository;
+	private final TransactionRepository transactionRepository;
+	private final TransactionMapper transactionMapper;
+	private final Validator validator;
+	private final AccountRollupProjector accountRollupProjector;
+	private final int maxAttempts;
+
+	public TransactionBatchProcessor(AccountRepository accountRepository, TransactionRepository transactionRepository,
+			TransactionMapper transactionMapper, Validator validator, AccountRollupProjector accountRollupProjector,
+			AccountsProperties properties) {
+		this.accountRepository = accountRepository;
+		this.transactionRepository = transactionRepository;
+		this.transactionMapper = transactionMapper;
+		this.validator = validator;
+		this.accountRollupProjector = accountRollupProjector;
+		this.maxAttempts = properties.getRetry().getMaxAttempts();
+	}
+
+	/**
+	 * Creates a batch of transactions. Invalid items and items the balance cannot
+	 * cover are rejected individually; the rest are persisted.
+	 *
+	 * @param requests the transactions to create, applied in order per account
+	 * @return a Mono containing the per-item outcomes
+	 */
+	public Mono<BatchResultDTO<TransactionResponseDTO>> process(List<TransactionRequestDTO> requests) {
+		List<BatchItemResultDTO<TransactionResponseDTO>> results = new ArrayList<>(
+				Collections.nCopies(requests.size(), null));
+		Map<String, List<Integer>> itemsByAccount = new LinkedHashMap<>();
+
+		Map<String, Integer> itemsByReference = new HashMap<>();
+
+		for (int i = 0; i < requests.size(); i++) {
+			String error = validate(requests.get(i));
+			if (error == null && requests.get(i).getType() == TransactionType.TRANSFER) {
+				error = "Transfers cannot be batched, submit them individually or through the stream endpoint";
+			}
+			String reference = error == null ? requests.get(i).getReference() : null;
+			if (StringUtils.hasText(reference) && itemsByReference
+					.putIfAbsent(referenceKey(requests.get(i).getAccountId(), reference), i) != null) {
+				error = "Duplicate transaction reference in batch: " + reference;
+			}
+			if (error != null) {
+				results.set(i, failed(i, error));
+			} else {
+				itemsByAccount.computeIfAbsent(requests.get(i).getAccountId(), id -> new ArrayList<>()).add(i);
+			}
+		}
+
+		return replayExisting(requests, itemsByAccount, itemsByReference, results)
+				.then(Mono.defer(() -> apply(requests, itemsByAccount, results, 0)))
+				.then(Mono.fromCallable(() -> summarize(results)))
+				.doOnSuccess(result -> log.info("Transaction batch processed: {} created, {} failed",
+						result.getCreated(), result.getFailed()));
+	}
+
+	/**
+	 * Answers the items whose reference was already recorded with the original
+	 * transaction, in one query backed by the (accountId, reference) index, and
+	 * removes them from the items to apply.
+	 */
+	private Mono<Void> replayExisting(List<TransactionRequestDTO> requests, Map<String, List<Integer>> itemsByAccount,
+			Map<String, Integer> itemsByReference, List<BatchItemResultDTO<TransactionResponseDTO>> results) {
+		if (itemsByReference.isEmpty()) {
+			return Mono.empty();
+		}
+		Set<String> references = itemsByReference.keySet().stream()
+				.map(key -> requests.get(itemsByReference.get(key)).getReference()).collect(Collectors.toSet());
+
+		return transactionRepository.findByAccountIdInAndReferenceIn(itemsByAccount.keySet(), references)
+				.doOnNext(existing -> {
+					Integer index = itemsByReference
+							.get(referenceKey(existing.getAccountId(), existing.getReference()));
+					if (index == null) {
+						return;
+					}
+					results.set(index, created(index, existing));
+					List<Integer> indexes = itemsByAccount.get(existing.getAccountId());
+					indexes.remove(index);
+					if (indexes.isEmpty()) {
+						itemsByAccount.remove(existing.getAccountId());
+					}
+				}).then();
+	}
+
+	/**
+	 * Applies one round of the batch: snapshot the accounts, validate balances in
+	 * memory, bulk-update balances and bulk-insert the transactions of the
+	 * accounts that were updated.
+	 */
+	private Mono<Void> apply(List<TransactionRequestDTO> requests, Map<String, List<Integer>> itemsByAccount,
+			List<BatchItemResultDTO<TransactionResponseDTO>> results, int attempt) {
+		if (itemsByAccount.isEmpty()) {
+			return Mono.empty();
+		}
+
+		return accountRepository.findAllById(itemsByAccount.keySet()).collectMap(Account::getId).flatMap(accounts -> {
+			List<BalanceChange> changes = new ArrayList<>();
+			Map<String, List<Integer>> accepted = new LinkedHashMap<>();
+			Map<String, BigDecimal> closing = new HashMap<>();
+
+			itemsByAccount.forEach((accountId, indexes) -> {
+				Account account = accounts.get(accountId);
+				if (account == null) {
+					String error = AccountNotFoundException.withId(accountId).getMessage();
+					indexes.forEach(index -> results.set(index, failed(index, error)));
+					return;
+				}
+
+				BigDecimal opening = Objects.requireNonNullElse(account.getBalance(), BigDecimal.ZERO);
+				BigDecimal running = opening;
+				List<Integer> applied = new ArrayList<>();
+				for (Integer index : indexes) {
+					TransactionRequestDTO request = requests.get(index);
+					BigDecimal next = running.add(TransactionServiceImpl.balanceDelta(request));
+					if (next.signum() < 0) {
+						results.set(index,
+								failed(index, TransactionServiceImpl.insufficientFunds(request, running).getMessage()));
+					} else {
+						running = next;
+						applied.add(index);
+					}
+				}
+
+				if (!applied.isEmpty()) {
+					changes.add(new BalanceChange(accountId, account.getVersion(), running.subtract(opening)));
+					accepted.put(accountId, applied);
+					closing.put(accountId, running);
+				}
+			});
+
+			return accountRepository.incrementBalances(UUID.randomUUID().toString(), changes)
+					.collect(Collectors.toSet()).flatMap(
+							updated -> persist(requests, itemsByAccount, accepted, closing, updated, results, attempt));
+		});
+	}
+
+	/**
+	 * Inserts the transactions of the accounts whose balance was updated, adds
+	 * them to the accounts' rollups and schedules another round for the accounts
+	 * that changed concurrently. If the insert fails for any reason other than
+	 * duplicates, the balance changes are reverted before the batch fails.
+	 */
+	private Mono<Void> persist(List<TransactionRequestDTO> requests, Map<String, List<Integer>> itemsByAccount,
+			Map<String, List<Integer>> accepted, Map<String, BigDecimal> closing, Set<String> updated,
+			List<BatchItemResultDTO<TransactionResponseDTO>> results, int attempt) {
+		List<Integer> indexes = new ArrayList<>();
+		Map<String, List<Integer>> conflicted = new LinkedHashMap<>();
+		accepted.forEach((accountId, applied) -> {
+			if (updated.contains(accountId)) {
+				indexes.addAll(applied);
+			} else {
+				conflicted.put(accountId, itemsByAccount.get(accountId));
+			}
+		});
+
+		List<Transaction> transactions = indexes.stream().map(index -> transactionMapper.toEntity(requests.get(index)))
+				.toList();
+		Mono<Set<Integer>> inserted = transactionRepository.insertAll(transactions)
+				.onErrorResume(error -> revert(requests, indexes).then(Mono.error(error)));
+		Mono<Void> insert = inserted.flatMap(duplicates -> {
+			Map<String, BigDecimal> reverted = new LinkedHashMap<>();
+			Map<String, List<Transaction>> recorded = new LinkedHashMap<>();
+			for (int i = 0; i < transactions.size(); i++) {
+				int index = indexes.get(i);
+				TransactionRequestDTO request = requests.get(index);
+				if (duplicates.contains(i)) {
+					results.set(index, failed(index, "Duplicate transaction reference: " + request.getReference()));
+					reverted.merge(request.getAccountId(), TransactionServiceImpl.balanceDelta(request).negate(),
+							BigDecimal::add);
+				} else {
+					results.set(index, created(index, transactions.get(i)));
+					recorded.computeIfAbsent(request.getAccountId(), id -> new ArrayList<>()).add(transactions.get(i));
+				}
+			}
+			// Balances were already updated, take back the rejected duplicates
+			return Flux.fromIterable(reverted.entrySet())
+					.concatMap(entry -> accountRepository.adjustBalance(entry.getKey(), entry.getValue()))
+					.then(Mono.fromRunnable(() -> recorded.forEach((accountId, committed) -> accountRollupProjector
+							.committed(accountId, committed, closing.get(accountId)
+									.add(reverted.getOrDefault(accountId, BigDecimal.ZERO))))));
+		});
+
+		return insert.then(Mono.defer(() -> {
+			if (conflicted.isEmpty()) {
+				return Mono.empty();
+			}
+			if (attempt >= maxAttempts) {
+				conflicted.values().forEach(conflictedIndexes -> conflictedIndexes.forEach(index -> results.set(index,
+						failed(index, "The account was modified concurrently, please retry"))));
+				return Mono.empty();
+			}
+			log.debug("Retrying {} accounts modified concurrently during batch", conflicted.size());
+			return apply(requests, conflicted, results, attempt + 1);
+		}));
+	}
+
+	/**
+	 * Takes back the balance changes of the given items, whose transactions could
+	 * not be recorded.
+	 */
+	private Mono<Void> revert(List<TransactionRequestDTO> requests, List<Integer> indexes) {
+		Map<String, BigDecimal> applied = new LinkedHashMap<>();
+		indexes.forEach(index -> applied.merge(requests.get(index).getAccountId(),
+				TransactionServiceImpl.balanceDelta(requests.get(index)), BigDecimal::add));
+		log.warn("Reverting the balance changes of {} accounts after their transactions could not be recorded",
+				applied.size());
+
+		return Flux.fromIterable(applied.entrySet())
+				.concatMap(entry -> accountRepository.adjustBalance(entry.getKey(), entry.getValue().negate())).then();
+	}
+
+	/**
+	 * Validates a single batch item.
+	 *
+	 * @return the validation error, or null if the item is valid
+	 */
+	String validate(TransactionRequestDTO request) {
+		if (request == null) {
+			return "Transaction is required";
+		}
+		Set<ConstraintViolation<TransactionRequestDTO>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			return violations.stream().map(ConstraintViolation::getMessage).sorted()
+					.collect(Collectors.joining(", "));
+		}
+		if (TransactionServiceImpl.balanceDelta(request) == null) {
+			return "Invalid transaction type: " + request.getType();
+		}
+		return null;
+	}
+
+	private BatchItemResultDTO<TransactionResponseDTO> created(int index, Transaction transaction) {
+		return BatchItemResultDTO.<TransactionResponseDTO>builder().index(index).status(BatchItemStatus.CREATED)
+				.result(transactionMapper.toDto(transaction)).build();
+	}
+
+	private String referenceKey(String accountId, String reference) {
+		return accountId + ":" + reference;
+	}
+
+	private BatchItemResultDTO<TransactionResponseDTO> failed(int index, String error) {
+		return BatchItemResultDTO.<TransactionResponseDTO>builder().index(index).status(BatchItemStatus.FAILED)
+				.error(error).build();
+	}
+
+	private BatchResultDTO<TransactionResponseDTO> summarize(List<BatchItemResultDTO<TransactionResponseDTO>> results) {
+		int created = (int) results.stream().filter(item -> item.getStatus() == BatchItemStatus.CREATED).count();
+		return BatchResultDTO.<TransactionResponseDTO>builder().total(results.size()).created(created)
+				.failed(results.size() - created).items(results).build();
+	}
+}
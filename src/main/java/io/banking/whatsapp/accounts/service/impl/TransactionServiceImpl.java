@@ -1,19 +1,40 @@
 package io.banking.whatsapp.accounts.service.impl;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.banking.whatsapp.accounts.cache.AccountCache;
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.cache.TransactionIdempotencyCache;
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
 import io.banking.whatsapp.accounts.domain.Transaction;
-import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionCursor;
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionPageDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.exception.DuplicateTransactionException;
 import io.banking.whatsapp.accounts.exception.InsufficientFundsException;
+import io.banking.whatsapp.accounts.exception.InvalidCursorException;
 import io.banking.whatsapp.accounts.exception.InvalidTransactionTypeException;
 import io.banking.whatsapp.accounts.exception.TransactionNotFoundException;
 import io.banking.whatsapp.accounts.mapper.TransactionMapper;
@@ -40,58 +61,224 @@ public class TransactionServiceImpl implements TransactionService {
 	private final TransactionRepository transactionRepository;
 	private final AccountRepository accountRepository;
 	private final TransactionMapper transactionMapper;
+	private final AccountSequencer accountSequencer;
+	private final DepositGroupCommitter depositGroupCommitter;
+	private final TransactionBatchProcessor transactionBatchProcessor;
+	private final AccountsProperties properties;
+	private final TransactionIdempotencyCache idempotencyCache;
+	private final TransferProcessor transferProcessor;
+	private final AccountExistenceCache accountExistenceCache;
+	private final AccountCache accountCache;
+	private final PhoneSummaryProjector phoneSummaryProjector;
+	private final AccountRollupProjector accountRollupProjector;
 	private static final Logger log = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
 	/**
 	 * Creates a new transaction and updates the account balance accordingly. The
-	 * method validates the account exists and has sufficient funds for withdrawals
-	 * and transfers.
+	 * balance change is applied atomically on the server with a conditional
+	 * {@code $inc}, so concurrent transactions on the same account cannot lose
+	 * updates and withdrawals and transfers never overdraw the account. Writes to
+	 * the same account are sequenced in-process so hot accounts do not contend on
+	 * their document, and concurrent deposits can be group-committed into a
+	 * single write. Transfers debit the source and credit the target account in
+	 * two phases. Requests carrying a reference are idempotent: a retry replays
+	 * the transaction originally created for that reference. Transfers that
+	 * failed do not keep their reference, so retrying one attempts it again.
 	 *
 	 * @param request the transaction data to create
 	 * @return a Mono containing the created transaction
-	 * @throws ResponseStatusException if the account is not found or has
-	 *                                 insufficient funds
+	 * @throws ResponseStatusException       if the account is not found or has
+	 *                                       insufficient funds
+	 * @throws DuplicateTransactionException if another transaction with the same
+	 *                                       reference is still being recorded
 	 */
 	@Override
 	public Mono<TransactionResponseDTO> createTransaction(TransactionRequestDTO request) {
 		log.debug("Creating transaction for account ID: {}", request.getAccountId());
 
+		// Resolve the signed balance change based on transaction type
+		BigDecimal delta = balanceDelta(request);
+		if (delta == null) {
+			return Mono.error(new InvalidTransactionTypeException("Invalid transaction type: " + request.getType()));
+		}
+
+		if (!StringUtils.hasText(request.getReference())) {
+			return applyTransaction(request, delta);
+		}
+
+		// Retries are answered from the dedupe cache, then from the unique
+		// (accountId, reference) index, and only then applied
+		return idempotencyCache.get(request.getAccountId(), request.getReference(),
+				() -> findByReference(request).switchIfEmpty(Mono.defer(() -> applyTransaction(request, delta)
+						.onErrorResume(DuplicateKeyException.class, e -> findByReference(request)
+								.switchIfEmpty(Mono.defer(() -> applyTransaction(request, delta)))))))
+				.onErrorMap(DuplicateKeyException.class, e -> DuplicateTransactionException
+						.withReference(request.getAccountId(), request.getReference(), e));
+	}
+
+	/**
+	 * Applies the balance change and records the transaction. Transfers go through
+	 * the two-phase transfer processor, and deposits through the group committer
+	 * when it is enabled. The cached views of the accounts involved are evicted
+	 * whatever the outcome, since a failed transaction may still have moved a
+	 * balance and reverted it.
+	 */
+	private Mono<TransactionResponseDTO> applyTransaction(TransactionRequestDTO request, BigDecimal delta) {
+		Mono<TransactionResponseDTO> applied;
+		if (request.getType() == TransactionType.TRANSFER) {
+			applied = transferProcessor.transfer(transactionMapper.toEntity(request)).map(transactionMapper::toDto);
+		} else if (request.getType() == TransactionType.DEPOSIT && depositGroupCommitter.isEnabled()) {
+			// Deposits cannot fail on balance, so they can share a write with other
+			// deposits to the same account
+			applied = depositGroupCommitter.submit(transactionMapper.toEntity(request)).map(transactionMapper::toDto)
+					.doOnSuccess(dto -> log.info("Transaction created successfully for account: {}", dto.getAccountId()));
+		} else {
+			applied = applyDirectly(request, delta);
+		}
+
+		return applied.doFinally(signal -> evictAccounts(request));
+	}
+
+	private void evictAccounts(TransactionRequestDTO request) {
+		accountCache.evict(request.getAccountId());
+		accountCache.evict(request.getTargetAccountId());
+		phoneSummaryProjector.accountChanged(request.getAccountId());
+		phoneSummaryProjector.accountChanged(request.getTargetAccountId());
+	}
+
+	/**
+	 * Updates the balance in a single server-side operation, then saves the
+	 * transaction. If the save fails for any reason, duplicates included, the
+	 * balance change is reverted before the error is propagated; otherwise the
+	 * transaction is added to the account's rollups with the balance it left.
+	 */
+	private Mono<TransactionResponseDTO> applyDirectly(TransactionRequestDTO request, BigDecimal delta) {
+		return accountSequencer.sequence(request.getAccountId(),
+				() -> accountRepository.incrementBalance(request.getAccountId(), delta)
+						.switchIfEmpty(Mono.defer(() -> rejectBalanceUpdate(request)))
+						.flatMap(account -> transactionRepository.save(transactionMapper.toEntity(request))
+								.onErrorResume(e -> accountRepository
+										.adjustBalance(request.getAccountId(), delta.negate()).then(Mono.error(e)))
+								.doOnNext(saved -> accountRollupProjector.committed(request.getAccountId(),
+										List.of(saved), account.getBalance()))))
+				.map(transactionMapper::toDto)
+				.doOnSuccess(dto -> log.info("Transaction created successfully for account: {}", dto.getAccountId()));
+	}
+
+	/**
+	 * Looks up the transaction already recorded for the request's reference.
+	 */
+	private Mono<TransactionResponseDTO> findByReference(TransactionRequestDTO request) {
+		return transactionRepository.findFirstByAccountIdAndReference(request.getAccountId(), request.getReference())
+				.map(transactionMapper::toDto).doOnNext(dto -> log.info(
+						"Replaying transaction {} for reference: {}", dto.getId(), request.getReference()));
+	}
+
+	/**
+	 * Creates a batch of transactions through bulk writes. The batch size is
+	 * capped so a single request cannot hold an unbounded amount of work in
+	 * memory.
+	 *
+	 * @param requests the transactions to create
+	 * @return a Mono containing the outcome of every item
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if the batch is
+	 *                                 empty or too large
+	 */
+	@Override
+	public Mono<BatchResultDTO<TransactionResponseDTO>> createTransactions(List<TransactionRequestDTO> requests) {
+		int maxItems = properties.getBatch().getMaxItems();
+		if (requests == null || requests.isEmpty() || requests.size() > maxItems) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"A batch must contain between 1 and " + maxItems + " transactions"));
+		}
+		log.debug("Creating batch of {} transactions", requests.size());
+
+		return transactionBatchProcessor.process(requests)
+				.doFinally(signal -> requests.forEach(this::evictAccounts));
+	}
+
+	/**
+	 * Creates transactions from a stream. At most
+	 * {@code banking.accounts.batch.stream-concurrency} transactions are in
+	 * flight at once, and only that many requests are pulled from the upload, so
+	 * memory stays flat regardless of the stream length. Results keep the request
+	 * order, and transactions for the same account are applied in that order.
+	 *
+	 * @param requests the stream of transactions to create
+	 * @return a Flux emitting the outcome of every item
+	 */
+	@Override
+	public Flux<BatchItemResultDTO<TransactionResponseDTO>> createTransactions(Flux<TransactionRequestDTO> requests) {
+		int concurrency = properties.getBatch().getStreamConcurrency();
+
+		return requests.index()
+				.flatMapSequential(item -> createStreamItem(item.getT1().intValue(), item.getT2()), concurrency,
+						concurrency);
+	}
+
+	private Mono<BatchItemResultDTO<TransactionResponseDTO>> createStreamItem(int index, TransactionRequestDTO request) {
+		String error = transactionBatchProcessor.validate(request);
+		if (error != null) {
+			return Mono.just(failedItem(index, error));
+		}
+
+		return createTransaction(request)
+				.map(dto -> BatchItemResultDTO.<TransactionResponseDTO>builder().index(index)
+						.status(BatchItemStatus.CREATED).result(dto).build())
+				.onErrorResume(e -> Mono.just(failedItem(index, e.getMessage())));
+	}
+
+	private BatchItemResultDTO<TransactionResponseDTO> failedItem(int index, String error) {
+		return BatchItemResultDTO.<TransactionResponseDTO>builder().index(index).status(BatchItemStatus.FAILED)
+				.error(error).build();
+	}
+
+	/**
+	 * Resolves the signed balance change of a transaction request based on its
+	 * type.
+	 *
+	 * @param request the transaction request
+	 * @return the amount to add to the balance, or null if the type cannot be
+	 *         created through this API
+	 */
+	static BigDecimal balanceDelta(TransactionRequestDTO request) {
+		switch (request.getType()) {
+		case DEPOSIT:
+			return request.getAmount();
+		case WITHDRAWAL:
+		case TRANSFER:
+			return request.getAmount().negate();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the insufficient funds error for a debit that the balance cannot
+	 * cover.
+	 *
+	 * @param request          the transaction request that was rejected
+	 * @param availableBalance the balance available to the request
+	 * @return the corresponding exception
+	 */
+	static InsufficientFundsException insufficientFunds(TransactionRequestDTO request, BigDecimal availableBalance) {
+		return request.getType() == TransactionType.WITHDRAWAL
+				? InsufficientFundsException.forWithdrawal(request.getAmount(), availableBalance)
+				: InsufficientFundsException.forTransfer(request.getAmount(), availableBalance);
+	}
+
+	/**
+	 * Explains why a conditional balance update did not match any account. Only
+	 * runs on the failure path, so successful transactions never pay for the
+	 * extra read.
+	 *
+	 * @param request the transaction request that could not be applied
+	 * @return a Mono that always terminates with the corresponding error
+	 */
+	private Mono<Account> rejectBalanceUpdate(TransactionRequestDTO request) {
 		return accountRepository.findById(request.getAccountId())
-				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(request.getAccountId()))).flatMap(account -> {
-					Transaction transaction = Transaction.builder().accountId(request.getAccountId())
-							.type(request.getType()).amount(request.getAmount()).description(request.getDescription())
-							.reference(request.getReference()).transactionDate(LocalDateTime.now())
-							.status(TransactionStatus.COMPLETED).build();
-
-					// Update account balance based on transaction type
-					switch (request.getType()) {
-					case DEPOSIT:
-						account.setBalance(account.getBalance().add(request.getAmount()));
-						break;
-					case WITHDRAWAL:
-						if (account.getBalance().compareTo(request.getAmount()) < 0) {
-							return Mono.error(InsufficientFundsException.forWithdrawal(request.getAmount(),
-									account.getBalance()));
-						}
-						account.setBalance(account.getBalance().subtract(request.getAmount()));
-						break;
-					case TRANSFER:
-						if (account.getBalance().compareTo(request.getAmount()) < 0) {
-							return Mono.error(
-									InsufficientFundsException.forTransfer(request.getAmount(), account.getBalance()));
-						}
-						account.setBalance(account.getBalance().subtract(request.getAmount()));
-						break;
-					default:
-						return Mono.error(
-								new InvalidTransactionTypeException("Invalid transaction type: " + request.getType()));
-					}
-
-					// Update the account first, then save the transaction
-					return accountRepository.save(account).then(transactionRepository.save(transaction))
-							.map(transactionMapper::toDto).doOnSuccess(dto -> log
-									.info("Transaction created successfully for account: {}", dto.getAccountId()));
-				});
+				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(request.getAccountId())))
+				.flatMap(account -> Mono.error(insufficientFunds(request, account.getBalance())));
 	}
 
 	/**
@@ -111,8 +298,8 @@ public class TransactionServiceImpl implements TransactionService {
 
 	/**
 	 * Retrieves the latest transactions for an account, ordered by transaction date
-	 * descending. The method validates the account exists before retrieving its
-	 * transactions.
+	 * descending. The transactions are read concurrently with the check that the
+	 * account exists.
 	 *
 	 * @param accountId the ID of the account to get transactions for
 	 * @param limit     the maximum number of transactions to return
@@ -123,12 +310,119 @@ public class TransactionServiceImpl implements TransactionService {
 	public Flux<TransactionResponseDTO> getTransactionsByAccountId(String accountId, int limit) {
 		log.debug("Getting transactions for account ID: {} (limit: {})", accountId, limit);
 
-		return accountRepository.findById(accountId)
-				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(accountId))).flatMapMany(account -> {
-					PageRequest pageRequest = PageRequest.of(0, limit);
-					return transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId, pageRequest)
-							.map(transactionMapper::toDto).doOnComplete(
-									() -> log.debug("Completed fetching transactions for account ID: {}", accountId));
+		PageRequest pageRequest = PageRequest.of(0, limit);
+		return requireAccount(accountId,
+				transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId, pageRequest).collectList())
+				.flatMapIterable(transactions -> transactions).map(transactionMapper::toDto)
+				.doOnComplete(() -> log.debug("Completed fetching transactions for account ID: {}", accountId));
+	}
+
+	/**
+	 * Retrieves a page of an account's transactions matching the filter, ordered
+	 * by transaction date and ID descending. Filtering happens in the database, on
+	 * the account history indexes, and pages are read by seeking past the cursor,
+	 * so deep pages cost the same as the first one. One extra transaction is read
+	 * to tell whether a next page exists.
+	 *
+	 * @param accountId the ID of the account to get transactions for
+	 * @param filter    the criteria the transactions must match
+	 * @param limit     the maximum number of transactions to return
+	 * @param cursor    the cursor returned with the previous page, or null for the
+	 *                  first page
+	 * @return a Mono containing the page and the cursor of the next one
+	 * @throws ResponseStatusException with HTTP 400 BAD_REQUEST if the limit is
+	 *                                 out of range or the date range is empty
+	 * @throws InvalidCursorException  if the cursor cannot be decoded
+	 * @throws AccountNotFoundException if the account is not found
+	 */
+	@Override
+	public Mono<TransactionPageDTO> getTransactionPage(String accountId, TransactionFilter filter, int limit,
+			String cursor) {
+		log.debug("Getting transactions page for account ID: {} (filter: {}, limit: {}, cursor: {})", accountId, filter,
+				limit, cursor);
+		int maxPageSize = properties.getListing().getMaxPageSize();
+		if (limit < 1 || limit > maxPageSize) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"The limit must be between 1 and " + maxPageSize));
+		}
+		if (filter.isEmptyRange()) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'"));
+		}
+
+		TransactionCursor after;
+		try {
+			after = StringUtils.hasText(cursor) ? TransactionCursor.decode(cursor) : null;
+		} catch (InvalidCursorException e) {
+			return Mono.error(e);
+		}
+
+		return requireAccount(accountId,
+				transactionRepository.findPageByAccountId(accountId, filter, after, limit + 1).collectList())
+				.map(transactions -> {
+					boolean hasNext = transactions.size() > limit;
+					List<Transaction> page = hasNext ? transactions.subList(0, limit) : transactions;
+					return TransactionPageDTO.builder()
+							.transactions(page.stream().map(transactionMapper::toDto).toList())
+							.nextCursor(hasNext ? TransactionCursor.of(page.get(limit - 1)).encode() : null).build();
 				});
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Streams the statement of an account from a single cursor over the account
+	 * history index, fetching transactions in batches of
+	 * {@code banking.accounts.statement.cursor-batch-size} as the client consumes
+	 * them, so memory stays flat however long the statement is. The opening
+	 * balance is the current balance minus the net change of the completed
+	 * transactions since the start of the range, summed on the server, and minus
+	 * the transfer legs since then that already moved the balance but have not
+	 * completed, such as transfers in flight or waiting for recovery. The running
+	 * balance is then carried from line to line. A write caught between its
+	 * balance update and the insert of its transaction while the opening balance
+	 * is computed still shifts every balance of the statement by its amount.
+	 *
+	 * @param accountId the ID of the account
+	 * @param from      the earliest transaction date, inclusive, or null
+	 * @param to        the latest transaction date, exclusive, or null
+	 * @return a Flux emitting one line per completed transaction, oldest first
+	 * @throws ResponseStatusException  with HTTP 400 BAD_REQUEST if the date
+	 *                                  range is empty
+	 * @throws AccountNotFoundException if the account is not found
+	 */
+	@Override
+	public Flux<StatementLineDTO> exportStatement(String accountId, LocalDateTime from, LocalDateTime to) {
+		log.debug("Exporting statement for account ID: {} (from: {}, to: {})", accountId, from, to);
+		if (new TransactionFilter(from, to, null, null).isEmptyRange()) {
+			return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'"));
+		}
+
+		Mono<Account> account = accountRepository.findById(accountId)
+				.switchIfEmpty(Mono.error(AccountNotFoundException.withId(accountId)));
+		Mono<BigDecimal> opening = Mono.zip(account, transactionRepository.sumCompletedSince(accountId, from))
+				.flatMap(result -> transferProcessor.unrecordedSince(result.getT1(), from)
+						.map(unrecorded -> Objects.requireNonNullElse(result.getT1().getBalance(), BigDecimal.ZERO)
+								.subtract(result.getT2()).subtract(unrecorded)));
+		int cursorBatchSize = properties.getStatement().getCursorBatchSize();
+
+		return opening.flatMapMany(balance -> {
+			BigDecimal[] running = { balance };
+			return transactionRepository.streamCompletedByAccountId(accountId, from, to, cursorBatchSize)
+					.map(transaction -> {
+						BigDecimal amount = transaction.getType().isCredit() ? transaction.getAmount()
+								: transaction.getAmount().negate();
+						running[0] = running[0].add(amount);
+						return StatementLineDTO.builder().transactionId(transaction.getId())
+								.transactionDate(transaction.getTransactionDate()).type(transaction.getType())
+								.description(transaction.getDescription()).reference(transaction.getReference())
+								.amount(amount).balance(running[0]).build();
+					});
+		}).doOnComplete(() -> log.debug("Completed statement export for account ID: {}", accountId));
+	}
+
+	/**
+	 * Runs a read concurrently with the check that the account exists. The
+	 * existence check only reads the account ID.
+	 */
+	private <T> Mono<T> requireAccount(String accountId, Mono<T> read) {
+		return accountExistenceCache.requireExisting(accountId, () -> accountRepository.existsById(accountId), read);
+	}
+}
@@ -0,0 +1,288 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.exception.InsufficientFundsException;
+import io.banking.whatsapp.accounts.exception.InvalidTransferException;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Moves money between two accounts with a two-phase protocol tracked on the
+ * debit leg's status:
+ * <ol>
+ * <li>{@code PENDING}: the transfer is recorded before any balance changes.</li>
+ * <li>{@code PROCESSING}: the source account has been debited.</li>
+ * <li>{@code COMPLETED}: the destination account has been credited and the
+ * credit leg recorded.</li>
+ * </ol>
+ * Each balance change also marks the transfer as pending on the account, in the
+ * same atomic update, so every step can be repeated safely and an interrupted
+ * transfer can be resumed by {@link #recover(LocalDateTime)}. A transfer that
+ * fails gives up its reference, so a retry with the same reference attempts
+ * the transfer again instead of replaying the failure. The credit leg is
+ * unique per transfer and is recorded before the destination is credited, so
+ * concurrent recoveries cannot credit twice. Transfers hold the sequencer lanes
+ * of both accounts, acquired in a fixed order, so opposite-direction transfers
+ * wait on each other but cannot deadlock.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferProcessor {
+
+	private static final Logger log = LoggerFactory.getLogger(TransferProcessor.class);
+
+	private final AccountRepository accountRepository;
+	private final TransactionRepository transactionRepository;
+	private final AccountSequencer accountSequencer;
+	private final AccountRollupProjector accountRollupProjector;
+
+	/**
+	 * Executes a transfer from the transaction's account to its counterparty.
+	 *
+	 * @param transfer the debit leg, with the destination as counterparty
+	 * @return a Mono containing the completed debit leg
+	 * @throws InvalidTransferException   if the destination is missing or is the
+	 *                                    source account
+	 * @throws AccountNotFoundException   if either account does not exist
+	 * @throws InsufficientFundsException if the source cannot cover the amount
+	 */
+	public Mono<Transaction> transfer(Transaction transfer) {
+		String sourceId = transfer.getAccountId();
+		String targetId = transfer.getCounterpartyAccountId();
+		if (!StringUtils.hasText(targetId)) {
+			return Mono.error(InvalidTransferException.missingTarget());
+		}
+		if (targetId.equals(sourceId)) {
+			return Mono.error(InvalidTransferException.sameAccount(sourceId));
+		}
+
+		transfer.setId(ObjectId.get().toHexString());
+		transfer.setTransferId(transfer.getId());
+		transfer.setStatus(TransactionStatus.PENDING);
+
+		return accountSequencer.sequence(sourceId, targetId,
+				() -> transactionRepository.insert(transfer).flatMap(this::debit)
+						.flatMap(debited -> credit(debited, null)))
+				.doOnSuccess(completed -> log.info("Transfer {} completed from account {} to account {}",
+						completed.getId(), sourceId, targetId));
+	}
+
+	/**
+	 * Resumes transfers left unfinished, typically by a restart. Transfers whose
+	 * source was debited are completed; transfers that never debited the source
+	 * are marked as failed.
+	 *
+	 * @param before only transfers created before this date are considered, so
+	 *               transfers still in flight elsewhere are left alone
+	 * @return a Flux emitting each recovered transfer
+	 */
+	public Flux<Transaction> recover(LocalDateTime before) {
+		return transactionRepository
+				.findByTypeAndStatusInAndTransactionDateBefore(TransactionType.TRANSFER,
+						List.of(TransactionStatus.PENDING, TransactionStatus.PROCESSING), before)
+				.concatMap(transfer -> accountSequencer
+						.sequence(transfer.getAccountId(), transfer.getCounterpartyAccountId(),
+								() -> resume(transfer, before))
+						.onErrorResume(e -> {
+							log.warn("Transfer {} could not be recovered: {}", transfer.getId(), e.getMessage());
+							return Mono.empty();
+						}));
+	}
+
+	private Mono<Transaction> resume(Transaction transfer, LocalDateTime before) {
+		log.info("Recovering transfer {} in status {}", transfer.getId(), transfer.getStatus());
+		if (transfer.getStatus() == TransactionStatus.PROCESSING) {
+			return credit(transfer, before);
+		}
+
+		return accountRepository.findById(transfer.getAccountId()).filter(account -> isPending(account, transfer))
+				.flatMap(account -> advance(transfer, TransactionStatus.PENDING, TransactionStatus.PROCESSING))
+				.flatMap(debited -> credit(debited, before))
+				.switchIfEmpty(Mono.defer(() -> abandon(transfer, TransactionStatus.PENDING)));
+	}
+
+	/**
+	 * First phase: debits the source account and moves the transfer to
+	 * PROCESSING. A debit that was already applied is not applied again.
+	 */
+	private Mono<Transaction> debit(Transaction transfer) {
+		String sourceId = transfer.getAccountId();
+
+		return accountRepository.applyTransferLeg(sourceId, transfer.getId(), transfer.getAmount().negate())
+				.switchIfEmpty(Mono.defer(() -> accountRepository.findById(sourceId)
+						.switchIfEmpty(Mono.defer(() -> fail(transfer, TransactionStatus.PENDING,
+								AccountNotFoundException.withId(sourceId))))
+						.flatMap(account -> isPending(account, transfer) ? Mono.just(account)
+								: fail(transfer, TransactionStatus.PENDING,
+										InsufficientFundsException.forTransfer(transfer.getAmount(), account.getBalance())))))
+				.then(Mono.defer(() -> advance(transfer, TransactionStatus.PENDING, TransactionStatus.PROCESSING)));
+	}
+
+	/**
+	 * Second phase: records the credit leg, credits the destination account and
+	 * completes the transfer. The credit leg is inserted first, in PROCESSING,
+	 * and the unique (transferId, type) index makes that insert the guard: only
+	 * the caller that inserted it credits the destination. A caller finding the
+	 * leg already recorded only completes the transfer once the leg is completed,
+	 * or takes the credit over when the leg is older than {@code staleBefore},
+	 * meaning its owner stopped before finishing; the destination's pending
+	 * marker keeps that credit from being applied twice. If the destination does
+	 * not exist, the debit is reverted and the transfer fails. Pending markers
+	 * are only cleared once the transfer is completed. Both legs reach the
+	 * rollups once the transfer is completed.
+	 *
+	 * @param transfer    the debit leg
+	 * @param staleBefore credit legs recorded before this date may be taken over,
+	 *                    or null to never take over
+	 */
+	private Mono<Transaction> credit(Transaction transfer, LocalDateTime staleBefore) {
+		String sourceId = transfer.getAccountId();
+		String targetId = transfer.getCounterpartyAccountId();
+
+		Mono<Transaction> credited = transactionRepository.insert(creditLeg(transfer))
+				.flatMap(leg -> applyCredit(transfer, leg))
+				.onErrorResume(DuplicateKeyException.class, e -> transactionRepository
+						.findFirstByTransferIdAndType(transfer.getId(), TransactionType.TRANSFER_IN).flatMap(leg -> {
+							if (leg.getStatus() == TransactionStatus.COMPLETED) {
+								return Mono.just(leg);
+							}
+							if (staleBefore != null && leg.getTransactionDate().isBefore(staleBefore)) {
+								log.info("Taking over the credit of transfer {}", transfer.getId());
+								return applyCredit(transfer, leg);
+							}
+							return Mono.error(new OptimisticLockingFailureException(
+									"Transfer " + transfer.getId() + " is being credited elsewhere"));
+						}));
+
+		return credited.flatMap(leg -> advance(transfer, TransactionStatus.PROCESSING, TransactionStatus.COMPLETED)
+				.flatMap(completed -> accountRepository.releaseTransfer(completed.getId(), List.of(sourceId, targetId))
+						.thenReturn(completed))
+				.doOnNext(completed -> {
+					accountRollupProjector.committed(sourceId, List.of(completed), null);
+					accountRollupProjector.committed(targetId, List.of(leg), null);
+				}));
+	}
+
+	/**
+	 * Credits the destination and completes the credit leg. The credit is applied
+	 * at most once thanks to the pending marker; if the destination does not
+	 * exist, the debit is reverted and both legs fail.
+	 */
+	private Mono<Transaction> applyCredit(Transaction transfer, Transaction leg) {
+		String sourceId = transfer.getAccountId();
+		String targetId = transfer.getCounterpartyAccountId();
+
+		return accountRepository.applyTransferLeg(targetId, transfer.getId(), transfer.getAmount())
+				.switchIfEmpty(Mono.defer(() -> accountRepository.findById(targetId)
+						.filter(account -> isPending(account, transfer))
+						.switchIfEmpty(Mono.defer(() -> accountRepository
+								.revertTransferLeg(sourceId, transfer.getId(), transfer.getAmount().negate())
+								.then(transactionRepository.transitionStatus(leg.getId(), TransactionStatus.PROCESSING,
+										TransactionStatus.FAILED))
+								.then(fail(transfer, TransactionStatus.PROCESSING,
+										AccountNotFoundException.withId(targetId)))))))
+				.then(Mono.defer(() -> advance(leg, TransactionStatus.PROCESSING, TransactionStatus.COMPLETED)));
+	}
+
+	/**
+	 * Sums the transfer legs already applied to an account's balance but not yet
+	 * recorded as completed transactions: debits of transfers that have not
+	 * completed, and credits whose leg has not been completed yet. These are the
+	 * transfers still pending on the account, including transfers interrupted
+	 * and waiting for recovery.
+	 *
+	 * @param account the account
+	 * @param from    only transfers dated from this date onwards are summed, or
+	 *                null for all of them
+	 * @return a Mono containing the signed sum, zero if nothing is in flight
+	 */
+	public Mono<BigDecimal> unrecordedSince(Account account, LocalDateTime from) {
+		List<String> pendingTransfers = account.getPendingTransfers();
+		if (pendingTransfers == null || pendingTransfers.isEmpty()) {
+			return Mono.just(BigDecimal.ZERO);
+		}
+
+		Mono<List<Transaction>> transfers = transactionRepository.findAllById(pendingTransfers).collectList();
+		Mono<Set<String>> credited = transactionRepository
+				.findByTransferIdInAndType(pendingTransfers, TransactionType.TRANSFER_IN)
+				.filter(leg -> leg.getStatus() == TransactionStatus.COMPLETED).map(Transaction::getTransferId)
+				.collect(Collectors.toSet());
+
+		return Mono.zip(transfers, credited).map(result -> {
+			BigDecimal sum = BigDecimal.ZERO;
+			for (Transaction transfer : result.getT1()) {
+				if (transfer.getType() != TransactionType.TRANSFER || transfer.getStatus() == TransactionStatus.COMPLETED
+						|| (from != null && transfer.getTransactionDate().isBefore(from))) {
+					continue;
+				}
+				if (account.getId().equals(transfer.getAccountId())) {
+					sum = sum.subtract(transfer.getAmount());
+				} else if (account.getId().equals(transfer.getCounterpartyAccountId())
+						&& !result.getT2().contains(transfer.getId())) {
+					sum = sum.add(transfer.getAmount());
+				}
+			}
+			return sum;
+		});
+	}
+
+	private Transaction creditLeg(Transaction transfer) {
+		return Transaction.builder().id(ObjectId.get().toHexString()).accountId(transfer.getCounterpartyAccountId())
+				.type(TransactionType.TRANSFER_IN).amount(transfer.getAmount()).description(transfer.getDescription())
+				.transactionDate(LocalDateTime.now()).status(TransactionStatus.PROCESSING)
+				.counterpartyAccountId(transfer.getAccountId()).transferId(transfer.getId()).build();
+	}
+
+	private Mono<Transaction> advance(Transaction transfer, TransactionStatus from, TransactionStatus to) {
+		return transactionRepository.transitionStatus(transfer.getId(), from, to).then(Mono.fromCallable(() -> {
+			transfer.setStatus(to);
+			return transfer;
+		}));
+	}
+
+	/**
+	 * Moves the transfer to FAILED and releases its reference.
+	 */
+	private Mono<Transaction> abandon(Transaction transfer, TransactionStatus from) {
+		return transactionRepository.failReleasingReference(transfer.getId(), from).then(Mono.fromCallable(() -> {
+			transfer.setStatus(TransactionStatus.FAILED);
+			transfer.setReference(null);
+			return transfer;
+		}));
+	}
+
+	private <T> Mono<T> fail(Transaction transfer, TransactionStatus from, RuntimeException error) {
+		return abandon(transfer, from).then(Mono.error(error));
+	}
+
+	private boolean isPending(Account account, Transaction transfer) {
+		return account.getPendingTransfers() != null && account.getPendingTransfers().contains(transfer.getId());
+	}
+}
@@ -0,0 +1,62 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import io.banking.whatsapp.accounts.cache.AccountCache;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+
+/**
+ * Resumes transfers left in PENDING or PROCESSING by a previous run once the
+ * application has started. Recovery runs in the background and does not delay
+ * startup.
+ *
+ * @author Marcelo Alejandro Albarracín
+ * @email marceloalejandro.albarracin@gmail.com
+ * @version 1.0.0
+ * @since 2024-03-19
+ */
+@Component
+public class TransferRecoveryRunner implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(TransferRecoveryRunner.class);
+
+	private final TransferProcessor transferProcessor;
+	private final AccountCache accountCache;
+	private final PhoneSummaryProjector phoneSummaryProjector;
+	private final boolean enabled;
+	private final Duration grace;
+
+	public TransferRecoveryRunner(TransferProcessor transferProcessor, AccountCache accountCache,
+			PhoneSummaryProjector phoneSummaryProjector, AccountsProperties properties) {
+		this.transferProcessor = transferProcessor;
+		this.accountCache = accountCache;
+		this.phoneSummaryProjector = phoneSummaryProjector;
+		this.enabled = properties.getTransfer().isRecoveryEnabled();
+		this.grace = properties.getTransfer().getRecoveryGrace();
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!enabled) {
+			return;
+		}
+
+		transferProcessor.recover(LocalDateTime.now().minus(grace)).doOnNext(transfer -> {
+			accountCache.evict(transfer.getAccountId());
+			accountCache.evict(transfer.getCounterpartyAccountId());
+			phoneSummaryProjector.accountChanged(transfer.getAccountId());
+			phoneSummaryProjector.accountChanged(transfer.getCounterpartyAccountId());
+		}).count().subscribe(count -> {
+			if (count > 0) {
+				log.info("Recovered {} unfinished transfers", count);
+			}
+		}, error -> log.error("Transfer recovery failed", error));
+	}
+}
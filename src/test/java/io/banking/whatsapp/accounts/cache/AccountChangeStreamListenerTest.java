@@ -0,0 +1,95 @@
+package io.banking.whatsapp.accounts.cache;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AccountChangeStreamListenerTest {
+
+	private static final ObjectId ACCOUNT_ID = new ObjectId("65f9a1b2c3d4e5f6a7b8c9d0");
+	private static final ObjectId OTHER_ID = new ObjectId("65f9a1b2c3d4e5f6a7b8c9d1");
+
+	private AccountCache accountCache;
+	private AccountExistenceCache accountExistenceCache;
+	private AccountChangeStreamListener listener;
+
+	@BeforeEach
+	void setUp() {
+		AccountsProperties properties = new AccountsProperties();
+		accountCache = new AccountCache(properties, new SimpleMeterRegistry());
+		accountExistenceCache = new AccountExistenceCache(properties);
+		listener = new AccountChangeStreamListener(mock(ReactiveMongoTemplate.class), accountCache,
+				accountExistenceCache, properties);
+
+		cache(ACCOUNT_ID.toHexString());
+		cache(OTHER_ID.toHexString());
+	}
+
+	private void cache(String id) {
+		accountCache.getById(id, () -> Mono.just(AccountResponseDTO.builder().id(id).build())).block();
+		accountExistenceCache.markExists(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	private ChangeStreamEvent<Document> event(OperationType operation, ObjectId id) {
+		ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+		when(raw.getDocumentKey()).thenReturn(id == null ? null : new BsonDocument("_id", new BsonObjectId(id)));
+		ChangeStreamEvent<Document> event = mock(ChangeStreamEvent.class);
+		when(event.getOperationType()).thenReturn(operation);
+		when(event.getRaw()).thenReturn(raw);
+		return event;
+	}
+
+	private void assertCached(String id, boolean cached) {
+		StepVerifier.create(accountCache.getById(id, Mono::empty)).expectNextCount(cached ? 1 : 0).verifyComplete();
+	}
+
+	private void assertKnown(String id, boolean known) {
+		StepVerifier.create(accountExistenceCache.exists(id, () -> Mono.just(false))).expectNext(known)
+				.verifyComplete();
+	}
+
+	@Test
+	void apply_whenAccountUpdated_shouldEvictOnlyThatAccount() {
+		listener.apply(event(OperationType.UPDATE, ACCOUNT_ID));
+
+		assertCached(ACCOUNT_ID.toHexString(), false);
+		assertCached(OTHER_ID.toHexString(), true);
+		assertKnown(ACCOUNT_ID.toHexString(), true);
+	}
+
+	@Test
+	void apply_whenAccountDeleted_shouldForgetItExists() {
+		listener.apply(event(OperationType.DELETE, ACCOUNT_ID));
+
+		assertCached(ACCOUNT_ID.toHexString(), false);
+		assertKnown(ACCOUNT_ID.toHexString(), false);
+		assertKnown(OTHER_ID.toHexString(), true);
+	}
+
+	@Test
+	void apply_whenStreamInvalidated_shouldClearEverything() {
+		listener.apply(event(OperationType.INVALIDATE, null));
+
+		assertCached(ACCOUNT_ID.toHexString(), false);
+		assertCached(OTHER_ID.toHexString(), false);
+		assertKnown(OTHER_ID.toHexString(), false);
+	}
+}
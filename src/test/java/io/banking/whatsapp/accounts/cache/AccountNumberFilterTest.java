@@ -0,0 +1,49 @@
+package io.banking.whatsapp.accounts.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import reactor.core.publisher.Flux;
+
+class AccountNumberFilterTest {
+
+	private AccountNumberFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		AccountsProperties properties = new AccountsProperties();
+		properties.getNumberFilter().setExpectedAccounts(10_000);
+		filter = new AccountNumberFilter(mock(AccountRepository.class), properties);
+	}
+
+	@Test
+	void mightContain_beforeLoad_answersMaybeForEveryNumber() {
+		assertTrue(filter.mightContain("1234567890"));
+	}
+
+	@Test
+	void mightContain_afterLoad_neverMissesALoadedOrAddedNumber() {
+		assertEquals(10_000L, filter.load(Flux.range(0, 10_000).map(i -> "ACC" + i)).block());
+		filter.put("1234567890");
+
+		assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("ACC" + i)));
+		assertTrue(filter.mightContain("1234567890"));
+	}
+
+	@Test
+	void mightContain_afterLoad_keepsFalsePositivesNearTheConfiguredRate() {
+		filter.load(Flux.range(0, 10_000).map(i -> "ACC" + i)).block();
+
+		long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("NEW" + i)).count();
+
+		assertTrue(falsePositives < 300, falsePositives + " false positives");
+	}
+}
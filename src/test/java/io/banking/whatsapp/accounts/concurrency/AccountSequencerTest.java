@@ -0,0 +1,150 @@
+package io.banking.whatsapp.accounts.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.exception.AccountBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class AccountSequencerTest {
+
+	private AccountsProperties properties;
+
+	@BeforeEach
+	void setUp() {
+		properties = new AccountsProperties();
+	}
+
+	@Test
+	void sequence_sameAccount_runsOperationsOneAtATimeInOrder() {
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Integer> order = new CopyOnWriteArrayList<>();
+
+		Flux<Integer> results = Flux.range(0, 20).flatMap(i -> sequencer.sequence("acc123", () -> Mono.fromCallable(() -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			return i;
+		}).delayElement(Duration.ofMillis(2)).doOnNext(order::add).doOnTerminate(running::decrementAndGet)));
+
+		StepVerifier.create(results).expectNextCount(20).verifyComplete();
+
+		assertEquals(1, maxRunning.get());
+		assertEquals(Flux.range(0, 20).collectList().block(), order);
+	}
+
+	@Test
+	void sequence_differentLanes_runConcurrently() {
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		String first = "acc1";
+		String second = "acc2";
+		assertNotEquals(sequencer.laneIndex(first), sequencer.laneIndex(second));
+
+		Sinks.Empty<Void> gate = Sinks.empty();
+		Mono<String> blocked = sequencer.sequence(first, () -> gate.asMono().thenReturn(first)).cache();
+		blocked.subscribe();
+
+		StepVerifier.create(sequencer.sequence(second, () -> Mono.just(second))).expectNext(second)
+				.verifyComplete();
+
+		gate.tryEmitEmpty();
+		StepVerifier.create(blocked).expectNext(first).verifyComplete();
+	}
+
+	@Test
+	void sequence_whenAccountSaturated_shouldRejectWithAccountBusyException() {
+		properties.getSequencer().setMaxQueueDepth(1);
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		Sinks.Empty<Void> gate = Sinks.empty();
+
+		sequencer.sequence("acc123", () -> gate.asMono()).subscribe();
+
+		StepVerifier.create(sequencer.sequence("acc123", () -> Mono.just("second")))
+				.expectError(AccountBusyException.class).verify();
+
+		gate.tryEmitEmpty();
+		StepVerifier.create(sequencer.sequence("acc123", () -> Mono.just("third"))).expectNext("third")
+				.verifyComplete();
+	}
+
+	@Test
+	void sequence_whenAccountSaturated_shouldStillAcceptOtherAccountsOnItsLane() {
+		properties.getSequencer().setLanes(1);
+		properties.getSequencer().setMaxQueueDepth(1);
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		Sinks.Empty<Void> gate = Sinks.empty();
+
+		sequencer.sequence("acc1", () -> gate.asMono()).subscribe();
+		Mono<String> other = sequencer.sequence("acc2", () -> Mono.just("other")).cache();
+		other.subscribe();
+
+		StepVerifier.create(sequencer.sequence("acc1", () -> Mono.just("second")))
+				.expectErrorMatches(
+						error -> error instanceof AccountBusyException && error.getMessage().contains("acc1"))
+				.verify();
+
+		gate.tryEmitEmpty();
+		StepVerifier.create(other).expectNext("other").verifyComplete();
+	}
+
+	@Test
+	void sequence_whenOperationFails_shouldReleaseLane() {
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+
+		StepVerifier.create(sequencer.sequence("acc123", () -> Mono.error(new IllegalStateException("boom"))))
+				.expectError(IllegalStateException.class).verify();
+		StepVerifier.create(sequencer.sequence("acc123", () -> Mono.just("next"))).expectNext("next")
+				.verifyComplete();
+	}
+
+	@Test
+	void sequence_twoAccounts_oppositeDirectionsShouldNotDeadlock() {
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		Flux<Integer> results = Flux.range(0, 50)
+				.flatMap(i -> sequencer.sequence(i % 2 == 0 ? "acc1" : "acc2", i % 2 == 0 ? "acc2" : "acc1",
+						() -> Mono.fromCallable(() -> {
+							maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+							return i;
+						}).delayElement(Duration.ofMillis(1)).doOnTerminate(running::decrementAndGet)));
+
+		StepVerifier.create(results).expectNextCount(50).expectComplete().verify(Duration.ofSeconds(10));
+
+		assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	void sequence_twoAccounts_shouldWaitForSingleAccountOperations() {
+		AccountSequencer sequencer = new AccountSequencer(properties, new SimpleMeterRegistry());
+		Sinks.Empty<Void> gate = Sinks.empty();
+		List<String> order = new CopyOnWriteArrayList<>();
+
+		Mono<Void> single = sequencer.sequence("acc2", () -> gate.asMono().doOnTerminate(() -> order.add("single")))
+				.cache();
+		single.subscribe();
+		Mono<String> pair = sequencer.sequence("acc1", "acc2", () -> Mono.fromCallable(() -> {
+			order.add("pair");
+			return "pair";
+		})).cache();
+		pair.subscribe();
+
+		gate.tryEmitEmpty();
+		StepVerifier.create(pair).expectNext("pair").verifyComplete();
+		assertEquals(List.of("single", "pair"), order);
+	}
+}
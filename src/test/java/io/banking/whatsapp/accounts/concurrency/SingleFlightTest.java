@@ -0,0 +1,88 @@
+package io.banking.whatsapp.accounts.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class SingleFlightTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private SingleFlight singleFlight;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		singleFlight = new SingleFlight(meterRegistry, new AccountsProperties());
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.counter("accounts.reads.single-flight", "operation", "read", "outcome", outcome).count();
+	}
+
+	@Test
+	void execute_concurrentIdenticalReads_shareOneExecution() {
+		AtomicInteger executions = new AtomicInteger();
+		Sinks.One<String> result = Sinks.one();
+		Mono<String> read = singleFlight.execute("read", "key", () -> {
+			executions.incrementAndGet();
+			return result.asMono();
+		});
+
+		StepVerifier first = StepVerifier.create(read).expectNext("value").expectComplete().verifyLater();
+		StepVerifier second = StepVerifier.create(read).expectNext("value").expectComplete().verifyLater();
+		result.tryEmitValue("value");
+
+		first.verify();
+		second.verify();
+		assertEquals(1, executions.get());
+		assertEquals(1, count("executed"));
+		assertEquals(1, count("collapsed"));
+		assertEquals(0, singleFlight.inFlight());
+	}
+
+	@Test
+	void execute_differentKeys_runSeparately() {
+		AtomicInteger executions = new AtomicInteger();
+		Sinks.Empty<Void> gate = Sinks.empty();
+
+		StepVerifier first = StepVerifier.create(singleFlight.execute("read", "a", () -> {
+			executions.incrementAndGet();
+			return gate.asMono().thenReturn("a");
+		})).expectNext("a").expectComplete().verifyLater();
+		StepVerifier second = StepVerifier.create(singleFlight.execute("read", "b", () -> {
+			executions.incrementAndGet();
+			return gate.asMono().thenReturn("b");
+		})).expectNext("b").expectComplete().verifyLater();
+		gate.tryEmitEmpty();
+
+		first.verify();
+		second.verify();
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void execute_afterFailure_nextCallRunsAgain() {
+		AtomicInteger executions = new AtomicInteger();
+
+		StepVerifier.create(singleFlight.execute("read", "key", () -> {
+			executions.incrementAndGet();
+			return Mono.<String>error(new IllegalStateException("boom"));
+		})).expectError(IllegalStateException.class).verify();
+		StepVerifier.create(singleFlight.execute("read", "key", () -> {
+			executions.incrementAndGet();
+			return Mono.just("value");
+		})).expectNext("value").verifyComplete();
+
+		assertEquals(2, executions.get());
+		assertEquals(0, count("collapsed"));
+	}
+}
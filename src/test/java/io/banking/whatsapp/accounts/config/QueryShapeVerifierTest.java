@@ -0,0 +1,104 @@
+package io.banking.whatsapp.accounts.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import io.banking.whatsapp.accounts.config.QueryShapeVerifier.Shape;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.Counter;
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRollupRepository;
+import io.banking.whatsapp.accounts.repository.CounterRepository;
+import io.banking.whatsapp.accounts.repository.PhoneSummaryRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+
+class QueryShapeVerifierTest {
+
+	private MongoMappingContext mappingContext;
+
+	@BeforeEach
+	void setUp() {
+		mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+	}
+
+	private Map<String, List<Shape>> shapesBySource(Class<?> repository, Class<?> domainType) {
+		return QueryShapeVerifier.shapes(repository, domainType, mappingContext).stream()
+				.collect(Collectors.groupingBy(Shape::source));
+	}
+
+	@Test
+	void shapes_shouldDeriveFilterAndSortFromQueryMethodNames() {
+		Map<String, List<Shape>> shapes = shapesBySource(TransactionRepository.class, Transaction.class);
+
+		assertEquals(List.of(new Shape("TransactionRepository.findByAccountIdOrderByTransactionDateDesc",
+				List.of("accountId"), List.of("transactionDate"))),
+				shapes.get("TransactionRepository.findByAccountIdOrderByTransactionDateDesc"));
+		assertEquals(List.of("_id", "status"), shapes.get("TransactionRepository.transitionStatus").get(0).filter());
+	}
+
+	@Test
+	void shapes_shouldIncludeEveryDeclaredShapeOfCustomMethods() {
+		Map<String, List<Shape>> shapes = shapesBySource(AccountRepository.class, Account.class);
+
+		assertEquals(2, shapes.get("AccountRepository.incrementBalances").size());
+		assertTrue(shapes.containsKey("AccountRepository.findByUserPhoneNumber"));
+		assertFalse(shapes.containsKey("AccountRepository.findAll"));
+	}
+
+	@Test
+	void covers_shouldRequireLeadingFilterKeyFollowedBySortKeys() {
+		Shape shape = new Shape("history", List.of("accountId"), List.of("transactionDate"));
+
+		assertTrue(QueryShapeVerifier.covers(List.of("accountId", "transactionDate"), shape));
+		assertFalse(QueryShapeVerifier.covers(List.of("accountId"), shape));
+		assertFalse(QueryShapeVerifier.covers(List.of("transactionDate", "accountId"), shape));
+		assertFalse(QueryShapeVerifier.covers(List.of("_id"), shape));
+	}
+
+	@Test
+	void covers_shouldAcceptIndexesLedByAnyFilteredField() {
+		Shape shape = new Shape("recovery", List.of("type", "status", "transactionDate"), List.of());
+
+		assertTrue(QueryShapeVerifier.covers(List.of("status", "type", "transactionDate"), shape));
+		assertTrue(QueryShapeVerifier.covers(List.of("status"), shape));
+		assertFalse(QueryShapeVerifier.covers(List.of("accountId", "status"), shape));
+	}
+
+	@Test
+	void declaredIndexes_shouldCoverEveryRepositoryQuery() {
+		assertAllCovered(AccountRepository.class, Account.class);
+		assertAllCovered(TransactionRepository.class, Transaction.class);
+		assertAllCovered(PhoneSummaryRepository.class, PhoneSummary.class);
+		assertAllCovered(CounterRepository.class, Counter.class);
+		assertAllCovered(AccountRollupRepository.class, AccountRollup.class);
+	}
+
+	private void assertAllCovered(Class<?> repository, Class<?> domainType) {
+		MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+		List<List<String>> indexes = new ArrayList<>();
+		indexes.add(List.of("_id"));
+		resolver.resolveIndexFor(domainType)
+				.forEach(index -> indexes.add(new ArrayList<>(index.getIndexKeys().keySet())));
+
+		for (Shape shape : QueryShapeVerifier.shapes(repository, domainType, mappingContext)) {
+			assertTrue(indexes.stream().anyMatch(keys -> QueryShapeVerifier.covers(keys, shape)),
+					shape.source() + " is not covered by any declared index");
+		}
+	}
+}
@@ -1,11 +1,14 @@
 package io.banking.whatsapp.accounts.controller;
 
+import io.banking.whatsapp.accounts.domain.AccountRevision;
 import io.banking.whatsapp.accounts.domain.AccountStatus;
 import io.banking.whatsapp.accounts.domain.AccountType;
 import io.banking.whatsapp.accounts.domain.TransactionStatus;
 import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.AccountPageDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountSummaryDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
 import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
@@ -26,9 +29,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,6 +49,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class AccountControllerTest {
 
+	private static final Set<AccountRevision> REVISIONS = Set.of(
+			new AccountRevision("60f1a5b3e8c7f12345678901", 3L, "60f1a5b3e8c7f12345678902"));
+
 	@Mock
 	private AccountService accountService;
 
@@ -133,6 +141,25 @@ class AccountControllerTest {
 		verify(accountService).getAccountById(accountId);
 	}
 
+	/**
+	 * Tests conditional retrieval of an account. Verifies that the endpoint
+	 * returns an ETag and answers 304 Not Modified when it is sent back.
+	 */
+	@Test
+	void getAccountById_whenETagMatches_shouldReturnNotModified() {
+		String accountId = "60f1a5b3e8c7f12345678901";
+		accountResponseDTO.setVersion(3L);
+		when(accountService.getAccountById(accountId)).thenReturn(Mono.just(accountResponseDTO));
+		when(accountService.getCurrentAccountById(accountId)).thenReturn(Mono.just(accountResponseDTO));
+
+		String etag = webTestClient.get().uri("/api/v1/accounts/{id}", accountId).exchange().expectStatus().isOk()
+				.expectHeader().valueEquals("ETag", "\"60f1a5b3e8c7f12345678901-3\"").returnResult(String.class)
+				.getResponseHeaders().getETag();
+
+		webTestClient.get().uri("/api/v1/accounts/{id}", accountId).ifNoneMatch(etag).exchange().expectStatus()
+				.isNotModified().expectBody().isEmpty();
+	}
+
 	/**
 	 * Tests account retrieval when account is not found. Verifies that the endpoint
 	 * returns 404 Not Found.
@@ -228,6 +255,35 @@ class AccountControllerTest {
 		verify(accountService).getAccountsByUserPhoneNumber(phoneNumber);
 	}
 
+	/**
+	 * Tests retrieval of account summaries by user phone number. Verifies that the
+	 * endpoint returns only the summary fields when they are requested.
+	 */
+	@Test
+	void getAccountsByUserPhoneNumber_whenSummaryRequested_shouldReturnSummaries() {
+		String phoneNumber = "+1234567890";
+		AccountSummaryDTO summary = AccountSummaryDTO.builder().id("60f1a5b3e8c7f12345678901")
+				.accountNumber("1234567890").accountType(AccountType.SAVINGS).currency("USD")
+				.balance(new BigDecimal("1000.00")).build();
+		when(accountService.getAccountSummariesByUserPhoneNumber(phoneNumber)).thenReturn(Flux.just(summary));
+
+		webTestClient.get().uri("/api/v1/accounts/user/phone/{phoneNumber}?fields=summary", phoneNumber).exchange()
+				.expectStatus().isOk().expectBody().jsonPath("$[0].accountNumber").isEqualTo("1234567890")
+				.jsonPath("$[0].userDni").doesNotExist();
+
+		verify(accountService, never()).getAccountsByUserPhoneNumber(phoneNumber);
+	}
+
+	/**
+	 * Tests the fields selector with an unknown value. Verifies that the endpoint
+	 * returns 400 Bad Request.
+	 */
+	@Test
+	void getAccountsByUserId_whenFieldsUnknown_shouldReturnBadRequest() {
+		webTestClient.get().uri("/api/v1/accounts/user/{userId}?fields=everything", "user123").exchange()
+				.expectStatus().isBadRequest();
+	}
+
 	/**
 	 * Tests successful retrieval of all accounts. Verifies that the endpoint
 	 * returns 200 OK with the correct list of accounts.
@@ -247,10 +303,27 @@ class AccountControllerTest {
 		accountResponseDTO2.setCreatedAt(LocalDateTime.now());
 		accountResponseDTO2.setUpdatedAt(LocalDateTime.now());
 
-		when(accountService.getAllAccounts()).thenReturn(Flux.just(accountResponseDTO, accountResponseDTO2));
+		when(accountService.getAccountPage(100, null)).thenReturn(Mono.just(AccountPageDTO.builder()
+				.accounts(List.of(accountResponseDTO, accountResponseDTO2)).nextCursor("next").build()));
+
+		webTestClient.get().uri("/api/v1/accounts").exchange().expectStatus().isOk().expectHeader()
+				.valueEquals("X-Next-Cursor", "next").expectBodyList(AccountResponseDTO.class).hasSize(2)
+				.contains(accountResponseDTO, accountResponseDTO2);
 
-		webTestClient.get().uri("/api/v1/accounts").exchange().expectStatus().isOk()
-				.expectBodyList(AccountResponseDTO.class).hasSize(2).contains(accountResponseDTO, accountResponseDTO2);
+		verify(accountService).getAccountPage(100, null);
+	}
+
+	/**
+	 * Tests streaming all accounts. Verifies that the endpoint writes one JSON
+	 * document per account when NDJSON is requested.
+	 */
+	@Test
+	void streamAllAccounts_shouldWriteNewlineDelimitedJson() {
+		when(accountService.getAllAccounts()).thenReturn(Flux.just(accountResponseDTO, accountResponseDTO));
+
+		webTestClient.get().uri("/api/v1/accounts").accept(MediaType.APPLICATION_NDJSON).exchange().expectStatus()
+				.isOk().expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectBodyList(AccountResponseDTO.class).hasSize(2);
 
 		verify(accountService).getAllAccounts();
 	}
@@ -347,6 +420,7 @@ class AccountControllerTest {
 
 		UserAccountsTransactionsDTO userAccountsTransactionsDTO = createUserAccountsTransactionsDTO();
 
+		when(accountService.getAccountRevisionsByPhoneNumber(phoneNumber)).thenReturn(Mono.just(REVISIONS));
 		when(accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit))
 				.thenReturn(Mono.just(userAccountsTransactionsDTO));
 
@@ -359,6 +433,39 @@ class AccountControllerTest {
 		verify(accountService).getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit);
 	}
 
+	/**
+	 * Tests conditional retrieval of the complete view. Verifies that the ETag is
+	 * derived from the stored revisions of the accounts, so a view served from a
+	 * lagging read model cannot earn a 304 once the accounts have changed.
+	 */
+	@Test
+	void getUserAccountsTransactionsByPhoneNumber_whenAccountsChanged_shouldNotReturnNotModified() {
+		String phoneNumber = "+1234567890";
+		int limit = 10;
+		UserAccountsTransactionsDTO view = createUserAccountsTransactionsDTO();
+		Set<AccountRevision> changed = Set.of(
+				new AccountRevision("60f1a5b3e8c7f12345678901", 4L, "60f1a5b3e8c7f12345678903"));
+
+		when(accountService.getAccountRevisionsByPhoneNumber(phoneNumber)).thenReturn(Mono.just(REVISIONS))
+				.thenReturn(Mono.just(REVISIONS)).thenReturn(Mono.just(changed));
+		when(accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit)).thenReturn(Mono.just(view));
+
+		String etag = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/api/v1/accounts/user/phone/{phoneNumber}/complete")
+						.queryParam("limit", limit).build(phoneNumber))
+				.exchange().expectStatus().isOk().returnResult(String.class).getResponseHeaders().getETag();
+
+		webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/api/v1/accounts/user/phone/{phoneNumber}/complete")
+						.queryParam("limit", limit).build(phoneNumber))
+				.ifNoneMatch(etag).exchange().expectStatus().isNotModified();
+
+		webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/api/v1/accounts/user/phone/{phoneNumber}/complete")
+						.queryParam("limit", limit).build(phoneNumber))
+				.ifNoneMatch(etag).exchange().expectStatus().isOk();
+	}
+
 	/**
 	 * Tests retrieval of user accounts with transactions when no accounts are
 	 * found. Verifies that the endpoint returns 404 Not Found.
@@ -368,6 +475,7 @@ class AccountControllerTest {
 		String phoneNumber = "nonexistentPhoneNumber";
 		int limit = 10;
 
+		when(accountService.getAccountRevisionsByPhoneNumber(phoneNumber)).thenReturn(Mono.just(Set.of()));
 		when(accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, limit)).thenReturn(
 				Mono.error(new AccountNotFoundException("No accounts found for phone number: " + phoneNumber)));
 
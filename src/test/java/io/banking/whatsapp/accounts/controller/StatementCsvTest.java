@@ -0,0 +1,32 @@
+package io.banking.whatsapp.accounts.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
+
+class StatementCsvTest {
+
+	@Test
+	void record_shouldRenderPlainFieldsUnquoted() {
+		StatementLineDTO line = StatementLineDTO.builder().transactionId("t1")
+				.transactionDate(LocalDateTime.of(2024, 3, 4, 10, 35)).type(TransactionType.DEPOSIT)
+				.description("Salary").amount(new BigDecimal("500.00")).balance(new BigDecimal("1E+3")).build();
+
+		assertEquals("t1,2024-03-04T10:35,DEPOSIT,Salary,,500.00,1000\r\n", StatementCsv.record(line));
+	}
+
+	@Test
+	void record_shouldQuoteFieldsWithSeparatorsQuotesOrLineBreaks() {
+		StatementLineDTO line = StatementLineDTO.builder().transactionId("t1").type(TransactionType.WITHDRAWAL)
+				.description("Rent, \"March\"").reference("line\nbreak").amount(BigDecimal.TEN)
+				.balance(BigDecimal.ONE).build();
+
+		assertEquals("t1,,WITHDRAWAL,\"Rent, \"\"March\"\"\",\"line\nbreak\",10,1\r\n", StatementCsv.record(line));
+	}
+}
@@ -0,0 +1,104 @@
+package io.banking.whatsapp.accounts.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.StatementLineDTO;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.exception.GlobalExceptionHandler;
+import io.banking.whatsapp.accounts.service.TransactionService;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerTest {
+
+	@Mock
+	private TransactionService transactionService;
+
+	@InjectMocks
+	private TransactionController transactionController;
+
+	private WebTestClient webTestClient;
+
+	@BeforeEach
+	void setUp() {
+		webTestClient = WebTestClient.bindToController(transactionController)
+				.controllerAdvice(new GlobalExceptionHandler()).build();
+	}
+
+	private StatementLineDTO line(String id, String description, long amount, long balance) {
+		return StatementLineDTO.builder().transactionId(id).transactionDate(LocalDateTime.of(2024, 3, 4, 10, 35))
+				.type(TransactionType.DEPOSIT).description(description).amount(BigDecimal.valueOf(amount))
+				.balance(BigDecimal.valueOf(balance)).build();
+	}
+
+	@Test
+	void exportStatementCsv_shouldStreamHeaderThenOneRecordPerLine() {
+		// Given
+		when(transactionService.exportStatement("acc123", null, null))
+				.thenReturn(Flux.just(line("t1", "Salary", 500, 1500), line("t2", "Rent, March", 200, 1700)));
+
+		// When / Then
+		String body = webTestClient.get().uri("/api/v1/transactions/account/{accountId}/statement", "acc123")
+				.accept(MediaType.parseMediaType(StatementCsv.MEDIA_TYPE)).exchange().expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"statement-acc123.csv\"")
+				.expectBody(String.class).returnResult().getResponseBody();
+
+		assertEquals(StatementCsv.HEADER + "t1,2024-03-04T10:35,DEPOSIT,Salary,,500,1500\r\n"
+				+ "t2,2024-03-04T10:35,DEPOSIT,\"Rent, March\",,200,1700\r\n", body);
+	}
+
+	@Test
+	void exportStatementCsv_whenStatementIsEmpty_shouldStreamOnlyTheHeader() {
+		// Given
+		when(transactionService.exportStatement("acc123", null, null)).thenReturn(Flux.empty());
+
+		// When / Then
+		webTestClient.get().uri("/api/v1/transactions/account/{accountId}/statement", "acc123")
+				.accept(MediaType.parseMediaType(StatementCsv.MEDIA_TYPE)).exchange().expectStatus().isOk()
+				.expectBody(String.class).isEqualTo(StatementCsv.HEADER);
+	}
+
+	@Test
+	void exportStatementCsv_whenAccountDoesNotExist_shouldFailBeforeWritingTheHeader() {
+		// Given
+		when(transactionService.exportStatement("missing", null, null))
+				.thenReturn(Flux.error(AccountNotFoundException.withId("missing")));
+
+		// When / Then
+		webTestClient.get().uri("/api/v1/transactions/account/{accountId}/statement", "missing")
+				.accept(MediaType.parseMediaType(StatementCsv.MEDIA_TYPE)).exchange().expectStatus().isNotFound()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON).expectBody().jsonPath("$.status").isEqualTo(404);
+	}
+
+	@Test
+	void exportStatement_asNdjson_shouldStreamOneLinePerTransaction() {
+		// Given
+		when(transactionService.exportStatement("acc123", null, null))
+				.thenReturn(Flux.just(line("t1", "Salary", 500, 1500), line("t2", "Rent", 200, 1700)));
+
+		// When / Then
+		List<StatementLineDTO> lines = webTestClient.get()
+				.uri("/api/v1/transactions/account/{accountId}/statement", "acc123")
+				.accept(MediaType.APPLICATION_NDJSON).exchange().expectStatus().isOk()
+				.returnResult(StatementLineDTO.class).getResponseBody().collectList().block();
+
+		assertEquals(List.of("t1", "t2"), lines.stream().map(StatementLineDTO::getTransactionId).toList());
+	}
+}
@@ -0,0 +1,129 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountType;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.mapper.AccountMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import jakarta.validation.Validation;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBatchProcessorTest {
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private AccountMapper accountMapper;
+
+	@Mock
+	private AccountNumberAllocator accountNumberAllocator;
+
+	private AccountBatchProcessor processor;
+
+	@BeforeEach
+	void setUp() {
+		processor = new AccountBatchProcessor(accountRepository, accountMapper, accountNumberAllocator,
+				Validation.buildDefaultValidatorFactory().getValidator());
+	}
+
+	private AccountRequestDTO request(String accountNumber) {
+		return AccountRequestDTO.builder().accountNumber(accountNumber).accountType(AccountType.SAVINGS)
+				.currency("USD").userPhoneNumber("+1234567890").build();
+	}
+
+	private void mapAccounts() {
+		when(accountMapper.toEntity(any(AccountRequestDTO.class))).thenAnswer(invocation -> Account.builder()
+				.accountNumber(invocation.<AccountRequestDTO>getArgument(0).getAccountNumber()).build());
+		when(accountMapper.toDto(any(Account.class))).thenAnswer(invocation -> AccountResponseDTO.builder()
+				.accountNumber(invocation.<Account>getArgument(0).getAccountNumber()).build());
+	}
+
+	@Test
+	void process_shouldInsertInOneBulkWriteAndReportDuplicatesPerItem() {
+		// Given
+		List<AccountRequestDTO> requests = new ArrayList<>();
+		requests.add(request("1111111111"));
+		requests.add(null);
+		requests.add(request("2222222222"));
+		requests.add(request("1111111111"));
+		mapAccounts();
+		when(accountRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of(1)));
+
+		// When / Then
+		StepVerifier.create(processor.process(requests)).expectNextMatches(result -> {
+			assertEquals(4, result.getTotal());
+			assertEquals(1, result.getCreated());
+			assertEquals(BatchItemStatus.CREATED, result.getItems().get(0).getStatus());
+			assertEquals("Account is required", result.getItems().get(1).getError());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(2).getStatus());
+			assertEquals("Duplicate account number in batch: 1111111111", result.getItems().get(3).getError());
+			return true;
+		}).verifyComplete();
+
+		verify(accountNumberAllocator, never()).next();
+	}
+
+	@Test
+	void process_shouldAllocateNumbersForItemsWithoutOne() {
+		// Given
+		List<AccountRequestDTO> requests = List.of(request(null), request("1111111111"), request(""));
+		mapAccounts();
+		when(accountNumberAllocator.next()).thenReturn(Mono.just("0000000018")).thenReturn(Mono.just("0000000026"));
+		when(accountRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()));
+
+		// When
+		StepVerifier.create(processor.process(requests))
+				.expectNextMatches(result -> result.getCreated() == 3 && result.getFailed() == 0).verifyComplete();
+
+		// Then
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Account>> accounts = ArgumentCaptor.forClass(List.class);
+		verify(accountRepository).insertAll(accounts.capture());
+		assertEquals(List.of("0000000018", "1111111111", "0000000026"),
+				accounts.getValue().stream().map(Account::getAccountNumber).toList());
+	}
+
+	@Test
+	void process_whenAllocatedNumberIsAlreadyInUse_shouldRetryWithNewNumber() {
+		// Given
+		List<AccountRequestDTO> requests = List.of(request("0000000018"), request(null));
+		mapAccounts();
+		when(accountNumberAllocator.next()).thenReturn(Mono.just("0000000018")).thenReturn(Mono.just("0000000026"));
+		when(accountRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of(1))).thenReturn(Mono.just(Set.of()));
+
+		// When
+		StepVerifier.create(processor.process(requests))
+				.expectNextMatches(result -> result.getCreated() == 2 && result.getFailed() == 0).verifyComplete();
+
+		// Then
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Account>> accounts = ArgumentCaptor.forClass(List.class);
+		verify(accountRepository, times(2)).insertAll(accounts.capture());
+		assertEquals(List.of("0000000026"),
+				accounts.getAllValues().get(1).stream().map(Account::getAccountNumber).toList());
+	}
+}
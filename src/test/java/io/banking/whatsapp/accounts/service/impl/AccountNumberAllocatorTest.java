@@ -0,0 +1,80 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.banking.whatsapp.accounts.concurrency.SingleFlight;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.repository.CounterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+
+	@Mock
+	private CounterRepository counterRepository;
+
+	private AccountNumberAllocator allocator;
+
+	@BeforeEach
+	void setUp() {
+		AccountsProperties properties = new AccountsProperties();
+		properties.getNumbers().setBlockSize(10);
+		allocator = new AccountNumberAllocator(counterRepository,
+				new SingleFlight(new SimpleMeterRegistry(), properties), properties);
+	}
+
+	private void givenCounter() {
+		AtomicLong counter = new AtomicLong();
+		when(counterRepository.increment(eq(AccountNumberAllocator.COUNTER), anyLong()))
+				.thenAnswer(invocation -> Mono.fromCallable(() -> counter.addAndGet(invocation.getArgument(1))));
+	}
+
+	@Test
+	void next_shouldHandOutConsecutiveSerialsWithCheckDigit() {
+		givenCounter();
+
+		StepVerifier.create(allocator.next().concatWith(allocator.next())).expectNext("0000000018", "0000000026")
+				.verifyComplete();
+	}
+
+	@Test
+	void next_concurrentCallers_getDistinctNumbersFromSharedBlocks() {
+		givenCounter();
+
+		List<String> numbers = Flux.range(0, 95).parallel(8).runOn(Schedulers.parallel())
+				.flatMap(i -> allocator.next()).sequential().collectList().block();
+
+		assertEquals(95, new HashSet<>(numbers).size());
+		assertTrue(numbers.stream().allMatch(AccountNumberAllocator::isValid));
+		verify(counterRepository, times(10)).increment(eq(AccountNumberAllocator.COUNTER), eq(10L));
+	}
+
+	@Test
+	void isValid_shouldRejectMistypedNumbers() {
+		assertTrue(AccountNumberAllocator.isValid("0000000018"));
+		assertFalse(AccountNumberAllocator.isValid("0000000019"));
+		assertFalse(AccountNumberAllocator.isValid("0000000081"));
+		assertFalse(AccountNumberAllocator.isValid("00000000A8"));
+	}
+}
@@ -0,0 +1,209 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.banking.whatsapp.accounts.concurrency.OptimisticLockRetry;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRollupRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class AccountRollupProjectorTest {
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private TransactionRepository transactionRepository;
+
+	@Mock
+	private AccountRollupRepository accountRollupRepository;
+
+	@Captor
+	private ArgumentCaptor<List<AccountRollup>> rollups;
+
+	private AccountsProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+	private AccountRollupProjector projector;
+
+	@BeforeEach
+	void setUp() {
+		properties = new AccountsProperties();
+		properties.getRetry().setMinBackoff(Duration.ofMillis(1));
+		properties.getRetry().setMaxAttempts(1);
+		meterRegistry = new SimpleMeterRegistry();
+		projector = projector();
+	}
+
+	private AccountRollupProjector projector() {
+		return new AccountRollupProjector(accountRepository, transactionRepository, accountRollupRepository,
+				new OptimisticLockRetry(meterRegistry, properties), meterRegistry, properties);
+	}
+
+	private Account account(long version) {
+		return Account.builder().id("acc123").balance(BigDecimal.valueOf(1000)).version(version).build();
+	}
+
+	private Transaction transaction(TransactionType type, long amount, LocalDateTime date) {
+		return Transaction.builder().accountId("acc123").type(type).amount(BigDecimal.valueOf(amount))
+				.transactionDate(date).build();
+	}
+
+	private List<Transaction> transactions() {
+		return List.of(transaction(TransactionType.DEPOSIT, 300, LocalDateTime.of(2024, 3, 4, 9, 0)),
+				transaction(TransactionType.WITHDRAWAL, 100, LocalDateTime.of(2024, 3, 4, 18, 0)),
+				transaction(TransactionType.DEPOSIT, 50, LocalDateTime.of(2024, 3, 5, 10, 0)));
+	}
+
+	@Test
+	void aggregate_shouldReplayBalancesBackFromClosingBalance() {
+		// When
+		List<AccountRollup> aggregated = AccountRollupProjector.aggregate("acc123", transactions(),
+				BigDecimal.valueOf(1000));
+
+		// Then
+		assertEquals(3, aggregated.size());
+		AccountRollup firstDay = aggregated.get(0);
+		assertEquals(AccountRollup.key("acc123", RollupGranularity.DAY, LocalDate.of(2024, 3, 4)), firstDay.getId());
+		assertEquals(2, firstDay.getCount());
+		assertEquals(BigDecimal.valueOf(950), firstDay.getMinBalance());
+		assertEquals(BigDecimal.valueOf(1050), firstDay.getMaxBalance());
+		assertEquals(BigDecimal.valueOf(950), firstDay.getClosingBalance());
+		assertEquals(LocalDateTime.of(2024, 3, 4, 18, 0), firstDay.getClosedAt());
+
+		AccountRollup month = aggregated.get(2);
+		assertEquals(RollupGranularity.MONTH, month.getGranularity());
+		assertEquals(LocalDate.of(2024, 3, 1), month.getPeriodStart());
+		assertEquals(3, month.getCount());
+		assertEquals(Map.of("DEPOSIT", BigDecimal.valueOf(350), "WITHDRAWAL", BigDecimal.valueOf(100)),
+				month.getSums());
+		assertEquals(BigDecimal.valueOf(1000), month.getClosingBalance());
+		assertEquals(LocalDateTime.of(2024, 3, 5, 10, 0), month.getClosedAt());
+	}
+
+	@Test
+	void committed_withoutBalance_shouldReadAccountAndIncrementRollups() {
+		// Given
+		when(accountRepository.findById("acc123"))
+				.thenReturn(Mono.just(Account.builder().id("acc123").balance(BigDecimal.valueOf(1000)).build()));
+		when(accountRollupRepository.increment(anyList())).thenReturn(Mono.empty());
+
+		// When
+		projector.committed("acc123", transactions(), null);
+
+		// Then
+		verify(accountRollupRepository).increment(rollups.capture());
+		assertEquals(3, rollups.getValue().size());
+		assertEquals(BigDecimal.valueOf(1000), rollups.getValue().get(2).getClosingBalance());
+	}
+
+	@Test
+	void committed_whenDisabled_shouldNotTouchRollups() {
+		// Given
+		properties.getRollups().setEnabled(false);
+		projector = projector();
+
+		// When
+		projector.committed("acc123", transactions(), BigDecimal.valueOf(1000));
+
+		// Then
+		verifyNoInteractions(accountRepository, accountRollupRepository);
+	}
+
+	@Test
+	void committed_whenIncrementFails_shouldCountTheFailure() {
+		// Given
+		when(accountRollupRepository.increment(anyList())).thenReturn(Mono.error(new IllegalStateException("down")));
+
+		// When
+		projector.committed("acc123", transactions(), BigDecimal.valueOf(1000));
+
+		// Then
+		assertEquals(1, meterRegistry.get("accounts.rollups.failures").tag("operation", "increment").counter().count());
+	}
+
+	@Test
+	void rebuild_shouldReplaceRollupsFromOpeningBalance() {
+		// Given
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(account(7)));
+		when(accountRepository.findRevisionById("acc123")).thenReturn(Mono.just(account(7)));
+		when(transactionRepository.sumCompletedSince("acc123", null)).thenReturn(Mono.just(BigDecimal.valueOf(250)));
+		when(transactionRepository.streamCompletedByAccountId("acc123", null, null, 500))
+				.thenReturn(Flux.fromIterable(transactions()));
+		when(accountRollupRepository.replaceAll(eq("acc123"), anyList())).thenReturn(Mono.empty());
+
+		// When & Then
+		StepVerifier.create(projector.rebuild("acc123")).expectNext(3).verifyComplete();
+
+		verify(accountRollupRepository).replaceAll(eq("acc123"), rollups.capture());
+		AccountRollup secondDay = rollups.getValue().get(1);
+		assertEquals(LocalDate.of(2024, 3, 5), secondDay.getPeriodStart());
+		assertEquals(BigDecimal.valueOf(1000), secondDay.getMinBalance());
+		assertEquals(BigDecimal.valueOf(950), rollups.getValue().get(2).getMinBalance());
+	}
+
+	@Test
+	void rebuild_whenAccountChangesMeanwhile_shouldStartOver() {
+		// Given
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(account(7)))
+				.thenReturn(Mono.just(account(8)));
+		when(accountRepository.findRevisionById("acc123")).thenReturn(Mono.just(account(8)));
+		when(transactionRepository.sumCompletedSince("acc123", null)).thenReturn(Mono.just(BigDecimal.valueOf(250)));
+		when(transactionRepository.streamCompletedByAccountId("acc123", null, null, 500))
+				.thenReturn(Flux.fromIterable(transactions()));
+		when(accountRollupRepository.replaceAll(eq("acc123"), anyList())).thenReturn(Mono.empty());
+
+		// When & Then
+		StepVerifier.create(projector.rebuild("acc123")).expectNext(3).verifyComplete();
+
+		verify(accountRollupRepository, times(2)).replaceAll(eq("acc123"), anyList());
+	}
+
+	@Test
+	void rebuild_whenAnAccountKeepsChanging_shouldCountItAndRebuildTheOthers() {
+		// Given
+		when(accountRepository.findAll()).thenReturn(Flux.just(account(7)));
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(account(7)));
+		when(accountRepository.findRevisionById("acc123")).thenReturn(Mono.just(account(8)));
+		when(transactionRepository.sumCompletedSince("acc123", null)).thenReturn(Mono.just(BigDecimal.valueOf(250)));
+		when(transactionRepository.streamCompletedByAccountId("acc123", null, null, 500))
+				.thenReturn(Flux.fromIterable(transactions()));
+		when(accountRollupRepository.replaceAll(eq("acc123"), anyList())).thenReturn(Mono.empty());
+
+		// When & Then
+		StepVerifier.create(projector.rebuild()).expectNext(0L).verifyComplete();
+
+		assertEquals(1, meterRegistry.get("accounts.rollups.failures").tag("operation", "rebuild").counter().count());
+	}
+}
@@ -1,29 +1,60 @@
 package io.banking.whatsapp.accounts.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.banking.whatsapp.accounts.cache.AccountCache;
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.cache.AccountNumberFilter;
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.concurrency.OptimisticLockRetry;
+import io.banking.whatsapp.accounts.concurrency.SingleFlight;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
 import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountCursor;
+import io.banking.whatsapp.accounts.domain.AccountRollup;
 import io.banking.whatsapp.accounts.domain.AccountStatus;
 import io.banking.whatsapp.accounts.domain.AccountType;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.RollupGranularity;
 import io.banking.whatsapp.accounts.domain.Transaction;
 import io.banking.whatsapp.accounts.domain.TransactionStatus;
 import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountLookupRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
 import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
@@ -32,7 +63,7 @@ import io.banking.whatsapp.accounts.mapper.AccountMapper;
 import io.banking.whatsapp.accounts.mapper.TransactionMapper;
 import io.banking.whatsapp.accounts.repository.AccountRepository;
 import io.banking.whatsapp.accounts.repository.TransactionRepository;
-import io.banking.whatsapp.accounts.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -46,15 +77,48 @@ public class AccountServiceImplTest {
 	@Mock
 	private AccountMapper accountMapper;
 
-	@Mock
-	private TransactionService transactionService;
-
 	@Mock
 	private TransactionRepository transactionRepository;
 
 	@Mock
 	private TransactionMapper transactionMapper;
 
+	@Spy
+	private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(new SimpleMeterRegistry(),
+			new AccountsProperties());
+
+	@Spy
+	private AccountSequencer accountSequencer = new AccountSequencer(new AccountsProperties(),
+			new SimpleMeterRegistry());
+
+	@Spy
+	private AccountCache accountCache = new AccountCache(new AccountsProperties(), new SimpleMeterRegistry());
+
+	@Spy
+	private AccountExistenceCache accountExistenceCache = new AccountExistenceCache(new AccountsProperties());
+
+	@Mock
+	private PhoneSummaryProjector phoneSummaryProjector;
+
+	@Mock
+	private AccountRollupProjector accountRollupProjector;
+
+	@Spy
+	private AccountsProperties properties = new AccountsProperties();
+
+	@Spy
+	private AccountNumberFilter accountNumberFilter = new AccountNumberFilter(mock(AccountRepository.class),
+			new AccountsProperties());
+
+	@Mock
+	private AccountNumberAllocator accountNumberAllocator;
+
+	@Mock
+	private AccountBatchProcessor accountBatchProcessor;
+
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), new AccountsProperties());
+
 	@InjectMocks
 	private AccountServiceImpl accountService;
 
@@ -70,7 +134,7 @@ public class AccountServiceImplTest {
 		testAccount = Account.builder().id("acc123").accountNumber("1234567890").accountType(AccountType.SAVINGS)
 				.balance(BigDecimal.valueOf(1000)).currency("USD").userId("user123").userDni("12345678")
 				.userPhoneNumber("+1234567890").status(AccountStatus.ACTIVE).createdAt(LocalDateTime.now())
-				.updatedAt(LocalDateTime.now()).build();
+				.updatedAt(LocalDateTime.now()).version(0L).build();
 
 		testAccountResponseDTO = AccountResponseDTO.builder().id("acc123").accountNumber("1234567890")
 				.accountType(AccountType.SAVINGS).balance(BigDecimal.valueOf(1000)).currency("USD").userId("user123")
@@ -133,6 +197,132 @@ public class AccountServiceImplTest {
 		verify(accountRepository, never()).save(any(Account.class));
 	}
 
+	@Test
+	void createAccount_whenNumberIsUnknown_shouldInsertWithoutLookup() {
+		// Given
+		accountNumberFilter.load(Flux.just("0000000001")).block();
+		when(accountMapper.toEntity(testAccountRequestDTO)).thenReturn(testAccount);
+		when(accountRepository.save(testAccount)).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When
+		StepVerifier.create(accountService.createAccount(testAccountRequestDTO)).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+
+		// Then
+		verify(accountRepository, never()).findByAccountNumber(anyString());
+		assertTrue(accountNumberFilter.mightContain(testAccount.getAccountNumber()));
+	}
+
+	@Test
+	void createAccount_withoutNumber_shouldAllocateOneAndInsertWithoutLookup() {
+		// Given
+		AccountRequestDTO request = AccountRequestDTO.builder().accountType(AccountType.SAVINGS).currency("USD")
+				.userPhoneNumber("+1234567890").build();
+		when(accountNumberAllocator.next()).thenReturn(Mono.just("0000000018"));
+		when(accountMapper.toEntity(request)).thenReturn(testAccount);
+		when(accountRepository.save(testAccount)).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When
+		StepVerifier.create(accountService.createAccount(request)).expectNext(testAccountResponseDTO).verifyComplete();
+
+		// Then
+		assertEquals("0000000018", testAccount.getAccountNumber());
+		verify(accountRepository, never()).findByAccountNumber(anyString());
+	}
+
+	@Test
+	void createAccount_whenAllocatedNumberIsAlreadyInUse_shouldRetryWithNewNumber() {
+		// Given
+		AccountRequestDTO request = AccountRequestDTO.builder().accountType(AccountType.SAVINGS).currency("USD")
+				.userPhoneNumber("+1234567890").build();
+		Iterator<String> numbers = List.of("0000000018", "0000000026").iterator();
+		when(accountNumberAllocator.next()).thenReturn(Mono.fromCallable(numbers::next));
+		when(accountMapper.toEntity(request)).thenReturn(testAccount);
+		when(accountRepository.save(testAccount)).thenReturn(Mono.error(new DuplicateKeyException("accountNumber")))
+				.thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When
+		StepVerifier.create(accountService.createAccount(request)).expectNext(testAccountResponseDTO).verifyComplete();
+
+		// Then
+		assertEquals("0000000026", testAccount.getAccountNumber());
+		verify(accountRepository, times(2)).save(testAccount);
+	}
+
+	@Test
+	void createAccounts_whenBatchIsEmpty_shouldRejectWithBadRequest() {
+		StepVerifier.create(accountService.createAccounts(List.of())).expectError(ResponseStatusException.class)
+				.verify();
+
+		verify(accountBatchProcessor, never()).process(any());
+	}
+
+	@Test
+	void createAccounts_shouldRecordCreatedAccounts() {
+		// Given
+		BatchResultDTO<AccountResponseDTO> result = BatchResultDTO.<AccountResponseDTO>builder().total(2).created(1)
+				.failed(1)
+				.items(List.of(
+						BatchItemResultDTO.<AccountResponseDTO>builder().index(0).status(BatchItemStatus.CREATED)
+								.result(testAccountResponseDTO).build(),
+						BatchItemResultDTO.<AccountResponseDTO>builder().index(1).status(BatchItemStatus.FAILED)
+								.error("Account is required").build()))
+				.build();
+		when(accountBatchProcessor.process(any())).thenReturn(Mono.just(result));
+
+		// When
+		StepVerifier.create(accountService.createAccounts(List.of(testAccountRequestDTO, testAccountRequestDTO)))
+				.expectNext(result).verifyComplete();
+
+		// Then
+		assertTrue(accountNumberFilter.mightContain("1234567890"));
+		verify(phoneSummaryProjector).phoneNumberChanged("+1234567890");
+	}
+
+	@Test
+	void lookupAccounts_shouldReturnEachAccountOnceAndReportMissingKeys() {
+		// Given
+		Account other = Account.builder().id("acc456").accountNumber("0000000018").build();
+		AccountResponseDTO otherDto = AccountResponseDTO.builder().id("acc456").accountNumber("0000000018").build();
+		when(accountRepository.findAllById(List.of("acc123", "missing"))).thenReturn(Flux.just(testAccount));
+		when(accountRepository.findByAccountNumberIn(List.of("1234567890", "0000000018", "0000000026")))
+				.thenReturn(Flux.just(other, testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+		when(accountMapper.toDto(other)).thenReturn(otherDto);
+
+		AccountLookupRequestDTO request = AccountLookupRequestDTO.builder().ids(List.of("acc123", "missing", "acc123"))
+				.accountNumbers(List.of("1234567890", "0000000018", "0000000026")).build();
+
+		// When / Then
+		StepVerifier.create(accountService.lookupAccounts(request))
+				.expectNext(AccountLookupDTO.builder().accounts(List.of(testAccountResponseDTO, otherDto))
+						.missingIds(List.of("missing")).missingAccountNumbers(List.of("0000000026")).build())
+				.verifyComplete();
+	}
+
+	@Test
+	void lookupAccounts_whenNoKeys_shouldRejectWithBadRequest() {
+		StepVerifier.create(accountService.lookupAccounts(new AccountLookupRequestDTO()))
+				.expectError(ResponseStatusException.class).verify();
+	}
+
+	@Test
+	void createAccount_whenInsertHitsUniqueIndex_shouldThrowDuplicateAccountException() {
+		// Given
+		accountNumberFilter.load(Flux.empty()).block();
+		when(accountMapper.toEntity(testAccountRequestDTO)).thenReturn(testAccount);
+		when(accountRepository.save(testAccount)).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+		// When / Then
+		StepVerifier.create(accountService.createAccount(testAccountRequestDTO))
+				.expectErrorMatches(throwable -> throwable instanceof DuplicateAccountException
+						&& throwable.getMessage().contains(testAccountRequestDTO.getAccountNumber()))
+				.verify();
+	}
+
 	@Test
 	void getAccountById_Success() {
 		// Given
@@ -206,6 +396,40 @@ public class AccountServiceImplTest {
 				.verify();
 	}
 
+	@Test
+	void updateAccount_whenOptimisticLockConflict_shouldRetryWithFreshRead() {
+		// Arrange
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountRepository.save(any(Account.class)))
+				.thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+				.thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(any(Account.class))).thenReturn(testAccountResponseDTO);
+
+		// Act & Assert
+		StepVerifier.create(accountService.updateAccount("acc123", testAccountRequestDTO))
+				.expectNext(testAccountResponseDTO).verifyComplete();
+
+		verify(accountRepository, times(2)).findById("acc123");
+		verify(accountRepository, times(2)).save(testAccount);
+	}
+
+	@Test
+	void updateAccount_whenAccountHasNoVersion_shouldInitializeVersionBeforeSaving() {
+		// Arrange
+		Account legacy = Account.builder().id("acc123").accountNumber("1234567890").balance(BigDecimal.valueOf(1000))
+				.status(AccountStatus.ACTIVE).build();
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(legacy));
+		when(accountRepository.initializeVersion("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountRepository.save(testAccount)).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(any(Account.class))).thenReturn(testAccountResponseDTO);
+
+		// Act & Assert
+		StepVerifier.create(accountService.updateAccount("acc123", testAccountRequestDTO))
+				.expectNext(testAccountResponseDTO).verifyComplete();
+
+		verify(accountRepository, never()).save(legacy);
+	}
+
 	@Test
 	void deleteAccount_whenAccountNotFound_shouldThrowAccountNotFoundException() {
 		// Arrange
@@ -222,7 +446,9 @@ public class AccountServiceImplTest {
 	void getAccountTransactions_whenAccountNotFound_shouldThrowAccountNotFoundException() {
 		// Arrange
 		String accountId = "non-existent-id";
-		when(accountRepository.findById(accountId)).thenReturn(Mono.empty());
+		when(accountRepository.existsById(accountId)).thenReturn(Mono.just(false));
+		when(transactionRepository.findByAccountIdOrderByTransactionDateDesc(eq(accountId), any(PageRequest.class)))
+				.thenReturn(Flux.empty());
 
 		// Act & Assert
 		StepVerifier.create(accountService.getAccountTransactions(accountId, 10))
@@ -235,7 +461,7 @@ public class AccountServiceImplTest {
 	void getUserAccountsTransactionsByPhoneNumber_whenNoAccountsFound_shouldThrowAccountNotFoundException() {
 		// Arrange
 		String phoneNumber = "non-existent-phone";
-		when(accountRepository.findByUserPhoneNumber(phoneNumber)).thenReturn(Flux.empty());
+		when(phoneSummaryProjector.find(phoneNumber, 10)).thenReturn(Mono.empty());
 
 		// Act & Assert
 		StepVerifier.create(accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber, 10))
@@ -248,7 +474,7 @@ public class AccountServiceImplTest {
 	void getUserAccountsTransactionsByPhoneNumber_NoAccountsFound() {
 		// Given
 		String phoneNumber = "+9999999999";
-		when(accountRepository.findByUserPhoneNumber(phoneNumber)).thenReturn(Flux.empty());
+		when(phoneSummaryProjector.find(phoneNumber, 10)).thenReturn(Mono.empty());
 
 		// When
 		Mono<UserAccountsTransactionsDTO> result = accountService.getUserAccountsTransactionsByPhoneNumber(phoneNumber,
@@ -258,6 +484,203 @@ public class AccountServiceImplTest {
 		StepVerifier.create(result).expectErrorMatches(throwable -> throwable instanceof AccountNotFoundException
 				&& throwable.getMessage().contains(phoneNumber)).verify();
 
-		verify(accountRepository).findByUserPhoneNumber(phoneNumber);
+		verify(phoneSummaryProjector).find(phoneNumber, 10);
+	}
+
+	@Test
+	void getUserAccountsTransactionsByPhoneNumber_shouldServeViewFromReadModel() {
+		// Given
+		UserAccountsTransactionsDTO view = UserAccountsTransactionsDTO.builder().userId("user123")
+				.userPhoneNumber("+1234567890").accounts(List.of()).build();
+		when(phoneSummaryProjector.find("+1234567890", 10)).thenReturn(Mono.just(view));
+
+		// When / Then
+		StepVerifier.create(accountService.getUserAccountsTransactionsByPhoneNumber("+1234567890", 10))
+				.expectNext(view).verifyComplete();
+
+		verify(accountRepository, never()).findHistoriesByUserPhoneNumber(anyString(), anyInt());
+	}
+
+	@Test
+	void updateAccount_whenPhoneNumberChanges_shouldRefreshBothSummaries() {
+		// Given
+		AccountRequestDTO request = AccountRequestDTO.builder().userPhoneNumber("+1999999999").build();
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		doAnswer(invocation -> {
+			testAccount.setUserPhoneNumber("+1999999999");
+			return null;
+		}).when(accountMapper).updateEntity(request, testAccount);
+		when(accountRepository.save(testAccount)).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When
+		StepVerifier.create(accountService.updateAccount("acc123", request)).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+
+		// Then
+		verify(phoneSummaryProjector).phoneNumberChanged("+1234567890");
+		verify(phoneSummaryProjector).phoneNumberChanged("+1999999999");
+	}
+
+	@Test
+	void getAccountById_shouldServeRepeatedReadsFromCacheUntilUpdated() {
+		// Given
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountRepository.save(any(Account.class))).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(any(Account.class))).thenReturn(testAccountResponseDTO);
+
+		// When
+		accountService.getAccountById("acc123").block();
+		accountService.getAccountById("acc123").block();
+		accountService.updateAccount("acc123", testAccountRequestDTO).block();
+		accountService.getAccountById("acc123").block();
+
+		// Then: one read for the first lookup, one for the update, one after eviction
+		verify(accountRepository, times(3)).findById("acc123");
+	}
+
+	@Test
+	void getCurrentAccountById_whenCachedCopyIsStale_shouldReloadIt() {
+		// Given
+		AccountResponseDTO stale = AccountResponseDTO.builder().id("acc123").version(0L).build();
+		AccountResponseDTO current = AccountResponseDTO.builder().id("acc123").version(1L).build();
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(stale, current);
+		when(accountRepository.findRevisionById("acc123"))
+				.thenReturn(Mono.just(Account.builder().id("acc123").version(1L).build()));
+		accountService.getAccountById("acc123").block();
+
+		// When / Then
+		StepVerifier.create(accountService.getCurrentAccountById("acc123")).expectNext(current).verifyComplete();
+		StepVerifier.create(accountService.getAccountById("acc123")).expectNext(current).verifyComplete();
+		verify(accountRepository, times(2)).findById("acc123");
+	}
+
+	@Test
+	void getCurrentAccountById_whenCachedCopyIsCurrent_shouldNotReloadIt() {
+		// Given
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+		when(accountRepository.findRevisionById("acc123"))
+				.thenReturn(Mono.just(Account.builder().id("acc123").version(testAccountResponseDTO.getVersion())
+						.updatedAt(testAccountResponseDTO.getUpdatedAt()).build()));
+		accountService.getAccountById("acc123").block();
+
+		// When / Then
+		StepVerifier.create(accountService.getCurrentAccountById("acc123")).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+		verify(accountRepository).findById("acc123");
+	}
+
+	@Test
+	void getCurrentAccountById_withChangeStreams_shouldServeTheCachedCopy() {
+		// Given
+		properties.getChangeStreams().setEnabled(true);
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When / Then
+		StepVerifier.create(accountService.getCurrentAccountById("acc123")).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+		verify(accountRepository, never()).findRevisionById(anyString());
+	}
+
+	@Test
+	void getAccountByNumber_shouldCacheTheAccountByIdAsWell() {
+		// Given
+		when(accountRepository.findByAccountNumber("1234567890")).thenReturn(Mono.just(testAccount));
+		when(accountMapper.toDto(any(Account.class))).thenReturn(testAccountResponseDTO);
+
+		// When
+		accountService.getAccountByNumber("1234567890").block();
+
+		// Then
+		StepVerifier.create(accountService.getAccountByNumber("1234567890")).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+		StepVerifier.create(accountService.getAccountById("acc123")).expectNext(testAccountResponseDTO)
+				.verifyComplete();
+		verify(accountRepository).findByAccountNumber("1234567890");
+		verify(accountRepository, never()).findById(anyString());
+	}
+
+	@Test
+	void getAllAccounts_shouldReadKeysetBatchesUntilAShortOne() {
+		// Given
+		properties.getListing().setStreamBatchSize(2);
+		Account second = Account.builder().id("acc124").build();
+		Account third = Account.builder().id("acc125").build();
+		when(accountRepository.findPage(null, 2)).thenReturn(Flux.just(testAccount, second));
+		when(accountRepository.findPage(new AccountCursor("acc124"), 2)).thenReturn(Flux.just(third));
+		when(accountMapper.toDto(any(Account.class))).thenReturn(testAccountResponseDTO);
+
+		// When / Then
+		StepVerifier.create(accountService.getAllAccounts()).expectNextCount(3).verifyComplete();
+
+		verify(accountRepository, times(2)).findPage(any(), eq(2));
+	}
+
+	@Test
+	void getAccountPage_shouldReturnCursorOfLastAccountWhenMoreRemain() {
+		// Given
+		Account second = Account.builder().id("65f9b2c3e8c7f12345678902").build();
+		testAccount.setId("65f9b2c3e8c7f12345678901");
+		when(accountRepository.findPage(null, 2)).thenReturn(Flux.just(testAccount, second));
+		when(accountMapper.toDto(testAccount)).thenReturn(testAccountResponseDTO);
+
+		// When / Then
+		StepVerifier.create(accountService.getAccountPage(1, null)).assertNext(page -> {
+			assertEquals(List.of(testAccountResponseDTO), page.getAccounts());
+			assertEquals("65f9b2c3e8c7f12345678901", AccountCursor.decode(page.getNextCursor()).id());
+		}).verifyComplete();
+	}
+
+	@Test
+	void getAccountPage_whenLimitExceedsMaximum_shouldRejectWithoutQuerying() {
+		StepVerifier.create(accountService.getAccountPage(properties.getListing().getMaxPageSize() + 1, null))
+				.expectError(ResponseStatusException.class).verify();
+
+		verify(accountRepository, never()).findPage(any(), anyInt());
+	}
+
+	private AccountRollup monthRollup(LocalDate periodStart, long count, long deposits, long min, long max, long closing) {
+		return AccountRollup.builder().accountId("acc123").granularity(RollupGranularity.MONTH).periodStart(periodStart)
+				.count(count).sums(Map.of("DEPOSIT", BigDecimal.valueOf(deposits))).minBalance(BigDecimal.valueOf(min))
+				.maxBalance(BigDecimal.valueOf(max)).closingBalance(BigDecimal.valueOf(closing)).build();
+	}
+
+	@Test
+	void getRollupSummary_shouldCombinePeriodsAndCarryClosingBalanceThroughQuietPeriods() {
+		// Given
+		LocalDate from = LocalDate.of(2024, 1, 15);
+		LocalDate to = LocalDate.of(2024, 4, 1);
+		when(accountRepository.existsById("acc123")).thenReturn(Mono.just(true));
+		when(accountRollupProjector.find("acc123", RollupGranularity.MONTH, LocalDate.of(2024, 1, 1), to))
+				.thenReturn(Flux.just(monthRollup(LocalDate.of(2024, 1, 1), 3, 500, 700, 1200, 1000),
+						monthRollup(LocalDate.of(2024, 3, 1), 2, 600, 900, 1600, 1600)));
+
+		// When & Then
+		StepVerifier.create(accountService.getRollupSummary("acc123", RollupGranularity.MONTH, from, to))
+				.assertNext(summary -> {
+					assertEquals(LocalDate.of(2024, 1, 1), summary.getFrom());
+					assertEquals(5, summary.getCount());
+					assertEquals(BigDecimal.valueOf(1100), summary.getSums().get("DEPOSIT"));
+					assertEquals(BigDecimal.valueOf(700), summary.getMinBalance());
+					assertEquals(BigDecimal.valueOf(1600), summary.getMaxBalance());
+					// January, February carrying January's close, and March
+					assertEquals(new BigDecimal("1200.00"), summary.getAverageClosingBalance());
+					assertEquals(2, summary.getPeriods().size());
+				}).verifyComplete();
+	}
+
+	@Test
+	void getRollupSummary_whenRangeIsEmpty_shouldReturnBadRequest() {
+		// Given
+		LocalDate day = LocalDate.of(2024, 3, 1);
+
+		// When & Then
+		StepVerifier.create(accountService.getRollupSummary("acc123", RollupGranularity.DAY, day, day))
+				.expectError(ResponseStatusException.class).verify();
+
+		verify(accountRollupProjector, never()).find(anyString(), any(), any(), any());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class DepositGroupCommitterTest {
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private TransactionRepository transactionRepository;
+
+	@Mock
+	private AccountRollupProjector accountRollupProjector;
+
+	private AccountsProperties properties;
+
+	@BeforeEach
+	void setUp() {
+		properties = new AccountsProperties();
+		properties.getGroupCommit().setWindow(Duration.ofMillis(50));
+	}
+
+	private DepositGroupCommitter committer() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		return new DepositGroupCommitter(accountRepository, transactionRepository,
+				new AccountSequencer(properties, meterRegistry), accountRollupProjector, properties, meterRegistry);
+	}
+
+	private Transaction deposit(String accountId, long amount) {
+		return Transaction.builder().accountId(accountId).type(TransactionType.DEPOSIT)
+				.amount(BigDecimal.valueOf(amount)).transactionDate(LocalDateTime.now())
+				.status(TransactionStatus.COMPLETED).build();
+	}
+
+	/**
+	 * Makes every balance increment take a while, so the first deposit stays in
+	 * flight while the next ones are submitted.
+	 */
+	private void givenSlowIncrements() {
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(Account.createTestAccount("acc123")).delayElement(Duration.ofMillis(100)));
+	}
+
+	@Test
+	void submit_whenNothingIsInFlight_shouldCommitWithoutWaitingForWindow() {
+		properties.getGroupCommit().setWindow(Duration.ofMinutes(1));
+		DepositGroupCommitter committer = committer();
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(Account.createTestAccount("acc123")));
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()));
+
+		StepVerifier.create(committer.submit(deposit("acc123", 100))).expectNextCount(1).expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(100));
+	}
+
+	@Test
+	void submit_whileDepositIsInFlight_shouldCommitFollowersInOneIncrementAndOneInsert() {
+		DepositGroupCommitter committer = committer();
+		givenSlowIncrements();
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()));
+
+		Transaction first = deposit("acc123", 100);
+		Transaction second = deposit("acc123", 200);
+		Transaction third = deposit("acc123", 300);
+
+		StepVerifier.create(Flux.merge(committer.submit(first), committer.submit(second), committer.submit(third)))
+				.expectNextCount(3).verifyComplete();
+
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(100));
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(500));
+		verify(transactionRepository).insertAll(eq(List.of(first)));
+		verify(transactionRepository).insertAll(eq(List.of(second, third)));
+	}
+
+	@Test
+	void submit_whenBatchIsFull_shouldCommitWithoutWaitingForWindow() {
+		properties.getGroupCommit().setWindow(Duration.ofMinutes(1));
+		properties.getGroupCommit().setMaxBatchSize(2);
+		DepositGroupCommitter committer = committer();
+		givenSlowIncrements();
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()));
+
+		Flux<Transaction> deposits = Flux.merge(committer.submit(deposit("acc123", 100)),
+				committer.submit(deposit("acc123", 200)), committer.submit(deposit("acc123", 300)));
+
+		StepVerifier.create(deposits.collectList()).assertNext(saved -> assertEquals(3, saved.size()))
+				.expectComplete().verify(Duration.ofSeconds(5));
+
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(500));
+	}
+
+	@Test
+	void submit_whenInsertFails_shouldRevertTheIncrementAndFailTheDeposits() {
+		DepositGroupCommitter committer = committer();
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(Account.createTestAccount("acc123")));
+		when(transactionRepository.insertAll(anyList()))
+				.thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(Account.createTestAccount("acc123")));
+
+		StepVerifier.create(committer.submit(deposit("acc123", 100)))
+				.expectError(DataAccessResourceFailureException.class).verify();
+
+		verify(accountRepository).adjustBalance("acc123", BigDecimal.valueOf(-100));
+		verify(accountRollupProjector, never()).committed(anyString(), anyList(), any(BigDecimal.class));
+	}
+
+	@Test
+	void submit_whenAccountNotFound_shouldFailEveryDepositInBatch() {
+		DepositGroupCommitter committer = committer();
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(committer.submit(deposit("missing", 100)))
+				.expectErrorMatches(throwable -> throwable instanceof AccountNotFoundException
+						&& throwable.getMessage().contains("missing"))
+				.verify();
+
+		verify(transactionRepository, never()).insertAll(anyList());
+	}
+
+	@Test
+	void submit_whenDepositIsDuplicate_shouldRevertItsAmountAndFailOnlyThatDeposit() {
+		DepositGroupCommitter committer = committer();
+		givenSlowIncrements();
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()))
+				.thenReturn(Mono.just(Set.of(1)));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(Account.createTestAccount("acc123")));
+
+		Transaction recorded = deposit("acc123", 200);
+		Mono<Transaction> leader = committer.submit(deposit("acc123", 100)).cache();
+		Mono<Transaction> first = committer.submit(recorded).cache();
+		Mono<Transaction> second = committer.submit(deposit("acc123", 300)).cache();
+		leader.subscribe(transaction -> {
+		}, error -> {
+		});
+		first.subscribe(transaction -> {
+		}, error -> {
+		});
+		second.subscribe(transaction -> {
+		}, error -> {
+		});
+
+		StepVerifier.create(first).expectNextCount(1).verifyComplete();
+		StepVerifier.create(second).expectError(DuplicateKeyException.class).verify();
+
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(500));
+		verify(accountRepository).adjustBalance("acc123", BigDecimal.valueOf(-300));
+		verify(accountRollupProjector).committed("acc123", List.of(recorded), new BigDecimal("700.00"));
+	}
+}
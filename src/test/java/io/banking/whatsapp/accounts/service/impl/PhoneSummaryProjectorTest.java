@@ -0,0 +1,190 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.AccountRevision;
+import io.banking.whatsapp.accounts.domain.PhoneSummary;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.AccountResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.AccountWithTransactionsDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
+import io.banking.whatsapp.accounts.domain.dto.UserAccountsTransactionsDTO;
+import io.banking.whatsapp.accounts.mapper.AccountMapper;
+import io.banking.whatsapp.accounts.mapper.TransactionMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRepositoryCustom.AccountHistory;
+import io.banking.whatsapp.accounts.repository.PhoneSummaryRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class PhoneSummaryProjectorTest {
+
+	private static final String PHONE = "+1234567890";
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private PhoneSummaryRepository phoneSummaryRepository;
+
+	@Mock
+	private AccountMapper accountMapper;
+
+	@Mock
+	private TransactionMapper transactionMapper;
+
+	private PhoneSummaryProjector projector;
+
+	private Account account;
+	private Transaction transaction;
+	private AccountResponseDTO accountDto;
+	private TransactionResponseDTO transactionDto;
+
+	@BeforeEach
+	void setUp() {
+		AccountsProperties properties = new AccountsProperties();
+		projector = new PhoneSummaryProjector(accountRepository, phoneSummaryRepository, accountMapper,
+				transactionMapper, new AccountExistenceCache(properties), properties);
+
+		account = Account.builder().id("acc123").version(2L).accountNumber("1234567890")
+				.balance(BigDecimal.valueOf(1000)).userId("user123").userDni("12345678").userPhoneNumber(PHONE).build();
+		transaction = Transaction.builder().id("tx123").accountId("acc123").type(TransactionType.DEPOSIT)
+				.amount(BigDecimal.valueOf(500)).transactionDate(LocalDateTime.now()).build();
+		accountDto = AccountResponseDTO.builder().id("acc123").accountNumber("1234567890").build();
+		transactionDto = TransactionResponseDTO.builder().id("tx123").accountId("acc123").build();
+	}
+
+	private void givenHistories(int limit) {
+		when(accountRepository.findHistoriesByUserPhoneNumber(PHONE, limit))
+				.thenReturn(Flux.just(new AccountHistory(account, List.of(transaction))));
+		when(accountMapper.toDto(account)).thenReturn(accountDto);
+		when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
+	}
+
+	@Test
+	void find_whenLimitExceedsReadModel_shouldBuildViewFromSingleAggregation() {
+		// Given
+		givenHistories(50);
+
+		// When / Then
+		StepVerifier.create(projector.find(PHONE, 50)).assertNext(view -> {
+			assertEquals("user123", view.getUserId());
+			assertEquals(1, view.getAccounts().size());
+			assertEquals(accountDto, view.getAccounts().get(0).getAccount());
+			assertEquals(List.of(transactionDto), view.getAccounts().get(0).getTransactions());
+		}).verifyComplete();
+
+		verify(phoneSummaryRepository, never()).findById(anyString());
+	}
+
+	@Test
+	void find_whenSummaryIsStored_shouldServeItTruncatedToTheLimit() {
+		// Given
+		TransactionResponseDTO older = TransactionResponseDTO.builder().id("tx122").build();
+		UserAccountsTransactionsDTO view = UserAccountsTransactionsDTO.builder().userId("user123")
+				.userPhoneNumber(PHONE).accounts(List.of(AccountWithTransactionsDTO.builder().account(accountDto)
+						.transactions(List.of(transactionDto, older)).build()))
+				.build();
+		AccountRevision revision = AccountRevision.of(account, List.of(transaction));
+		when(phoneSummaryRepository.findById(PHONE)).thenReturn(Mono.just(PhoneSummary.builder().phoneNumber(PHONE)
+				.transactionLimit(10).refreshedAt(LocalDateTime.now()).revisions(List.of(revision)).view(view)
+				.build()));
+		when(accountRepository.findRevisionsByUserPhoneNumber(PHONE)).thenReturn(Flux.just(revision));
+
+		// When / Then
+		StepVerifier.create(projector.find(PHONE, 1))
+				.assertNext(found -> assertEquals(List.of(transactionDto), found.getAccounts().get(0).getTransactions()))
+				.verifyComplete();
+
+		verify(accountRepository, never()).findHistoriesByUserPhoneNumber(anyString(), anyInt());
+	}
+
+	@Test
+	void find_whenSummaryIsBehindTheAccounts_shouldRebuildIt() {
+		// Given
+		TransactionResponseDTO older = TransactionResponseDTO.builder().id("tx122").build();
+		UserAccountsTransactionsDTO stale = UserAccountsTransactionsDTO.builder().userId("user123")
+				.userPhoneNumber(PHONE).accounts(List.of(AccountWithTransactionsDTO.builder().account(accountDto)
+						.transactions(List.of(older)).build()))
+				.build();
+		when(phoneSummaryRepository.findById(PHONE)).thenReturn(Mono.just(PhoneSummary.builder().phoneNumber(PHONE)
+				.transactionLimit(10).refreshedAt(LocalDateTime.now())
+				.revisions(List.of(new AccountRevision("acc123", 3L, "tx122"))).view(stale).build()));
+		when(accountRepository.findRevisionsByUserPhoneNumber(PHONE))
+				.thenReturn(Flux.just(new AccountRevision("acc123", 4L, "tx123")));
+		givenHistories(10);
+		when(phoneSummaryRepository.replaceIfOlder(any(PhoneSummary.class))).thenReturn(Mono.just(true));
+
+		// When / Then
+		StepVerifier.create(projector.find(PHONE, 5))
+				.assertNext(view -> assertEquals(List.of(transactionDto), view.getAccounts().get(0).getTransactions()))
+				.verifyComplete();
+	}
+
+	@Test
+	void find_whenSummaryIsMissing_shouldBuildAndStoreIt() {
+		// Given
+		when(phoneSummaryRepository.findById(PHONE)).thenReturn(Mono.empty());
+		givenHistories(10);
+		when(phoneSummaryRepository.replaceIfOlder(any(PhoneSummary.class))).thenReturn(Mono.just(true));
+
+		// When / Then
+		StepVerifier.create(projector.find(PHONE, 5))
+				.assertNext(view -> assertEquals(List.of(transactionDto), view.getAccounts().get(0).getTransactions()))
+				.verifyComplete();
+
+		ArgumentCaptor<PhoneSummary> stored = ArgumentCaptor.forClass(PhoneSummary.class);
+		verify(phoneSummaryRepository).replaceIfOlder(stored.capture());
+		assertEquals(PHONE, stored.getValue().getPhoneNumber());
+		assertEquals(10, stored.getValue().getTransactionLimit());
+		assertEquals(List.of(new AccountRevision("acc123", 2L, "tx123")), stored.getValue().getRevisions());
+	}
+
+	@Test
+	void refresh_whenPhoneHasNoAccounts_shouldRemoveTheSummary() {
+		// Given
+		when(accountRepository.findHistoriesByUserPhoneNumber(PHONE, 10)).thenReturn(Flux.empty());
+		when(phoneSummaryRepository.deleteIfOlder(eq(PHONE), any(LocalDateTime.class))).thenReturn(Mono.just(1L));
+
+		// When / Then
+		StepVerifier.create(projector.refresh(PHONE)).verifyComplete();
+
+		verify(phoneSummaryRepository, never()).replaceIfOlder(any(PhoneSummary.class));
+	}
+
+	@Test
+	void rebuild_shouldRefreshEveryPhoneNumberAndRemoveStaleSummaries() {
+		// Given
+		when(accountRepository.findDistinctUserPhoneNumbers()).thenReturn(Flux.just(PHONE));
+		givenHistories(10);
+		when(phoneSummaryRepository.replaceIfOlder(any(PhoneSummary.class))).thenReturn(Mono.just(true));
+		when(phoneSummaryRepository.deleteAllOlderThan(any(LocalDateTime.class))).thenReturn(Mono.just(2L));
+
+		// When / Then
+		StepVerifier.create(projector.rebuild()).expectNext(1L).verifyComplete();
+	}
+}
@@ -0,0 +1,187 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
+import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
+import io.banking.whatsapp.accounts.mapper.TransactionMapper;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.AccountRepositoryCustom.BalanceChange;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchProcessorTest {
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private TransactionRepository transactionRepository;
+
+	@Mock
+	private AccountRollupProjector accountRollupProjector;
+
+	@Mock
+	private TransactionMapper transactionMapper;
+
+	private TransactionBatchProcessor processor;
+
+	@BeforeEach
+	void setUp() {
+		processor = new TransactionBatchProcessor(accountRepository, transactionRepository, transactionMapper,
+				Validation.buildDefaultValidatorFactory().getValidator(), accountRollupProjector,
+				new AccountsProperties());
+	}
+
+	private Account account(String id, long balance, long version) {
+		return Account.builder().id(id).balance(BigDecimal.valueOf(balance)).version(version).build();
+	}
+
+	private TransactionRequestDTO request(String accountId, TransactionType type, BigDecimal amount) {
+		return TransactionRequestDTO.builder().accountId(accountId).type(type).amount(amount).build();
+	}
+
+	private void mapTransactions() {
+		when(transactionMapper.toEntity(any(TransactionRequestDTO.class)))
+				.thenAnswer(invocation -> Transaction.builder().build());
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of()));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(TransactionResponseDTO.builder().build());
+	}
+
+	@Test
+	void process_shouldApplyRunningBalanceAndReportFailuresPerItem() {
+		// Given
+		List<TransactionRequestDTO> requests = List.of(
+				request("acc1", TransactionType.DEPOSIT, BigDecimal.valueOf(50)),
+				request("acc1", TransactionType.WITHDRAWAL, BigDecimal.valueOf(200)),
+				request("acc1", TransactionType.WITHDRAWAL, BigDecimal.valueOf(100)),
+				request("missing", TransactionType.DEPOSIT, BigDecimal.TEN),
+				request("acc1", TransactionType.DEPOSIT, null));
+		when(accountRepository.findAllById(anyIterable())).thenReturn(Flux.just(account("acc1", 100, 3)));
+		when(accountRepository.incrementBalances(anyString(), anyList())).thenReturn(Flux.just("acc1"));
+		mapTransactions();
+
+		// When / Then
+		StepVerifier.create(processor.process(requests)).assertNext(result -> {
+			assertEquals(5, result.getTotal());
+			assertEquals(2, result.getCreated());
+			assertEquals(3, result.getFailed());
+			assertEquals(BatchItemStatus.CREATED, result.getItems().get(0).getStatus());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(1).getStatus());
+			assertEquals(BatchItemStatus.CREATED, result.getItems().get(2).getStatus());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(3).getStatus());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(4).getStatus());
+		}).verifyComplete();
+
+		verify(accountRepository).incrementBalances(anyString(),
+				eq(List.of(new BalanceChange("acc1", 3L, BigDecimal.valueOf(-50)))));
+		verify(transactionRepository).insertAll(anyList());
+	}
+
+	@Test
+	void process_shouldRetryAccountsModifiedConcurrently() {
+		// Given
+		List<TransactionRequestDTO> requests = List
+				.of(request("acc1", TransactionType.DEPOSIT, BigDecimal.valueOf(50)));
+		when(accountRepository.findAllById(anyIterable())).thenReturn(Flux.just(account("acc1", 100, 3)))
+				.thenReturn(Flux.just(account("acc1", 120, 4)));
+		when(accountRepository.incrementBalances(anyString(), anyList())).thenReturn(Flux.empty())
+				.thenReturn(Flux.just("acc1"));
+		mapTransactions();
+
+		// When / Then
+		StepVerifier.create(processor.process(requests))
+				.assertNext(result -> assertEquals(1, result.getCreated())).verifyComplete();
+
+		verify(accountRepository, times(2)).findAllById(anyIterable());
+		verify(accountRepository).incrementBalances(anyString(),
+				eq(List.of(new BalanceChange("acc1", 4L, BigDecimal.valueOf(50)))));
+	}
+
+	@Test
+	void process_shouldReplayExistingReferencesAndRevertConcurrentDuplicates() {
+		// Given
+		TransactionRequestDTO replayed = request("acc1", TransactionType.DEPOSIT, BigDecimal.TEN);
+		replayed.setReference("REF1");
+		TransactionRequestDTO raced = request("acc1", TransactionType.DEPOSIT, BigDecimal.valueOf(20));
+		raced.setReference("REF2");
+		TransactionRequestDTO repeated = request("acc1", TransactionType.DEPOSIT, BigDecimal.valueOf(20));
+		repeated.setReference("REF2");
+		when(transactionRepository.findByAccountIdInAndReferenceIn(any(), any())).thenReturn(
+				Flux.just(Transaction.builder().id("tx1").accountId("acc1").reference("REF1").build()));
+		when(accountRepository.findAllById(anyIterable())).thenReturn(Flux.just(account("acc1", 100, 3)));
+		when(accountRepository.incrementBalances(anyString(), anyList())).thenReturn(Flux.just("acc1"));
+		when(transactionMapper.toEntity(any(TransactionRequestDTO.class)))
+				.thenAnswer(invocation -> Transaction.builder().build());
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(TransactionResponseDTO.builder().build());
+		when(transactionRepository.insertAll(anyList())).thenReturn(Mono.just(Set.of(0)));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("acc1", 100, 5)));
+
+		// When / Then
+		StepVerifier.create(processor.process(List.of(replayed, raced, repeated))).assertNext(result -> {
+			assertEquals(BatchItemStatus.CREATED, result.getItems().get(0).getStatus());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(1).getStatus());
+			assertEquals(BatchItemStatus.FAILED, result.getItems().get(2).getStatus());
+		}).verifyComplete();
+
+		verify(accountRepository).incrementBalances(anyString(),
+				eq(List.of(new BalanceChange("acc1", 3L, BigDecimal.valueOf(20)))));
+		verify(accountRepository).adjustBalance("acc1", BigDecimal.valueOf(-20));
+	}
+
+	@Test
+	void process_whenInsertFails_shouldRevertTheBalanceChanges() {
+		// Given
+		List<TransactionRequestDTO> requests = List.of(
+				request("acc1", TransactionType.DEPOSIT, BigDecimal.valueOf(50)),
+				request("acc1", TransactionType.WITHDRAWAL, BigDecimal.valueOf(20)),
+				request("acc2", TransactionType.DEPOSIT, BigDecimal.TEN));
+		when(accountRepository.findAllById(anyIterable()))
+				.thenReturn(Flux.just(account("acc1", 100, 3), account("acc2", 0, 1)));
+		when(accountRepository.incrementBalances(anyString(), anyList())).thenReturn(Flux.just("acc1", "acc2"));
+		when(transactionMapper.toEntity(any(TransactionRequestDTO.class)))
+				.thenAnswer(invocation -> Transaction.builder().build());
+		when(transactionRepository.insertAll(anyList()))
+				.thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("acc1", 100, 5)));
+
+		// When / Then
+		StepVerifier.create(processor.process(requests)).expectError(DataAccessResourceFailureException.class)
+				.verify();
+
+		verify(accountRepository).adjustBalance("acc1", BigDecimal.valueOf(-30));
+		verify(accountRepository).adjustBalance("acc2", BigDecimal.TEN.negate());
+		verify(accountRollupProjector, never()).committed(anyString(), anyList(), any(BigDecimal.class));
+	}
+}
@@ -1,38 +1,61 @@
 package io.banking.whatsapp.accounts.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import io.banking.whatsapp.accounts.cache.AccountCache;
+import io.banking.whatsapp.accounts.cache.AccountExistenceCache;
+import io.banking.whatsapp.accounts.cache.TransactionIdempotencyCache;
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
 import io.banking.whatsapp.accounts.domain.Account;
 import io.banking.whatsapp.accounts.domain.AccountStatus;
 import io.banking.whatsapp.accounts.domain.AccountType;
+import io.banking.whatsapp.accounts.domain.BatchItemStatus;
 import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionCursor;
+import io.banking.whatsapp.accounts.domain.TransactionFilter;
 import io.banking.whatsapp.accounts.domain.TransactionStatus;
 import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.domain.dto.BatchItemResultDTO;
+import io.banking.whatsapp.accounts.domain.dto.BatchResultDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionRequestDTO;
 import io.banking.whatsapp.accounts.domain.dto.TransactionResponseDTO;
 import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.exception.DuplicateTransactionException;
 import io.banking.whatsapp.accounts.exception.InsufficientFundsException;
+import io.banking.whatsapp.accounts.exception.InvalidCursorException;
 import io.banking.whatsapp.accounts.exception.InvalidTransactionTypeException;
 import io.banking.whatsapp.accounts.exception.TransactionNotFoundException;
 import io.banking.whatsapp.accounts.mapper.TransactionMapper;
 import io.banking.whatsapp.accounts.repository.AccountRepository;
 import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -49,6 +72,37 @@ public class TransactionServiceImplTest {
 	@Mock
 	private TransactionMapper transactionMapper;
 
+	@Mock
+	private DepositGroupCommitter depositGroupCommitter;
+
+	@Mock
+	private TransactionBatchProcessor transactionBatchProcessor;
+
+	@Spy
+	private AccountsProperties properties = new AccountsProperties();
+
+	@Mock
+	private TransferProcessor transferProcessor;
+
+	@Spy
+	private TransactionIdempotencyCache idempotencyCache = new TransactionIdempotencyCache(new AccountsProperties());
+
+	@Spy
+	private AccountSequencer accountSequencer = new AccountSequencer(new AccountsProperties(),
+			new SimpleMeterRegistry());
+
+	@Spy
+	private AccountCache accountCache = new AccountCache(new AccountsProperties(), new SimpleMeterRegistry());
+
+	@Spy
+	private AccountExistenceCache accountExistenceCache = new AccountExistenceCache(new AccountsProperties());
+
+	@Mock
+	private PhoneSummaryProjector phoneSummaryProjector;
+
+	@Mock
+	private AccountRollupProjector accountRollupProjector;
+
 	@InjectMocks
 	private TransactionServiceImpl transactionService;
 
@@ -83,8 +137,9 @@ public class TransactionServiceImplTest {
 	@Test
 	void createTransaction_DepositSuccess() {
 		// Given
-		when(accountRepository.findById(anyString())).thenReturn(Mono.just(testAccount));
-		when(accountRepository.save(any(Account.class))).thenReturn(Mono.just(testAccount));
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
 		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
 		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
 
@@ -94,21 +149,43 @@ public class TransactionServiceImplTest {
 		// Then
 		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
 
-		verify(accountRepository).findById("acc123");
-		verify(accountRepository).save(any(Account.class));
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(500));
+		verify(accountRepository, never()).findById(anyString());
+		verify(accountRepository, never()).save(any(Account.class));
 		verify(transactionRepository).save(any(Transaction.class));
 		verify(transactionMapper).toDto(any(Transaction.class));
 	}
 
+	@Test
+	void createTransaction_DepositWithGroupCommit_shouldDelegateToCommitter() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(depositGroupCommitter.isEnabled()).thenReturn(true);
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(depositGroupCommitter.submit(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toDto(testTransaction)).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Mono<TransactionResponseDTO> result = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
+
+		verify(depositGroupCommitter).submit(any(Transaction.class));
+		verify(accountRepository, never()).incrementBalance(anyString(), any(BigDecimal.class));
+		verify(transactionRepository, never()).save(any(Transaction.class));
+	}
+
 	@Test
 	void createTransaction_WithdrawalSuccess() {
 		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
 		testTransactionRequestDTO.setType(TransactionType.WITHDRAWAL);
 		testTransaction.setType(TransactionType.WITHDRAWAL);
 		testTransactionResponseDTO.setType(TransactionType.WITHDRAWAL);
 
-		when(accountRepository.findById(anyString())).thenReturn(Mono.just(testAccount));
-		when(accountRepository.save(any(Account.class))).thenReturn(Mono.just(testAccount));
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
 		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
 		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
 
@@ -118,18 +195,21 @@ public class TransactionServiceImplTest {
 		// Then
 		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
 
-		verify(accountRepository).findById("acc123");
-		verify(accountRepository).save(any(Account.class));
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(-500));
+		verify(accountRepository, never()).findById(anyString());
 		verify(transactionRepository).save(any(Transaction.class));
 		verify(transactionMapper).toDto(any(Transaction.class));
+		verify(accountCache).evict("acc123");
 	}
 
 	@Test
 	void createTransaction_WithdrawalInsufficientFunds() {
 		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
 		testTransactionRequestDTO.setType(TransactionType.WITHDRAWAL);
 		testTransactionRequestDTO.setAmount(BigDecimal.valueOf(2000)); // More than account balance
 
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.empty());
 		when(accountRepository.findById(anyString())).thenReturn(Mono.just(testAccount));
 
 		// When
@@ -139,21 +219,23 @@ public class TransactionServiceImplTest {
 		StepVerifier.create(result).expectErrorMatches(throwable -> throwable instanceof InsufficientFundsException
 				&& throwable.getMessage().contains("Insufficient funds for withdrawal")).verify();
 
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(-2000));
 		verify(accountRepository).findById("acc123");
-		verify(accountRepository, never()).save(any(Account.class));
 		verify(transactionRepository, never()).save(any(Transaction.class));
 	}
 
 	@Test
 	void createTransaction_TransferSuccess() {
 		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
 		testTransactionRequestDTO.setType(TransactionType.TRANSFER);
+		testTransactionRequestDTO.setTargetAccountId("acc456");
 		testTransaction.setType(TransactionType.TRANSFER);
+		testTransaction.setCounterpartyAccountId("acc456");
 		testTransactionResponseDTO.setType(TransactionType.TRANSFER);
 
-		when(accountRepository.findById(anyString())).thenReturn(Mono.just(testAccount));
-		when(accountRepository.save(any(Account.class))).thenReturn(Mono.just(testAccount));
-		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transferProcessor.transfer(testTransaction)).thenReturn(Mono.just(testTransaction));
 		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
 
 		// When
@@ -162,9 +244,8 @@ public class TransactionServiceImplTest {
 		// Then
 		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
 
-		verify(accountRepository).findById("acc123");
-		verify(accountRepository).save(any(Account.class));
-		verify(transactionRepository).save(any(Transaction.class));
+		verify(transferProcessor).transfer(testTransaction);
+		verify(accountRepository, never()).incrementBalance(anyString(), any(BigDecimal.class));
 		verify(transactionMapper).toDto(any(Transaction.class));
 	}
 
@@ -176,6 +257,7 @@ public class TransactionServiceImplTest {
 		request.setType(TransactionType.DEPOSIT);
 		request.setAmount(new BigDecimal("100.00"));
 
+		when(accountRepository.incrementBalance(request.getAccountId(), request.getAmount())).thenReturn(Mono.empty());
 		when(accountRepository.findById(request.getAccountId())).thenReturn(Mono.empty());
 
 		// Act & Assert
@@ -183,6 +265,8 @@ public class TransactionServiceImplTest {
 				.expectErrorMatches(throwable -> throwable instanceof AccountNotFoundException
 						&& throwable.getMessage().contains(request.getAccountId()))
 				.verify();
+
+		verify(transactionRepository, never()).save(any(Transaction.class));
 	}
 
 	@Test
@@ -198,6 +282,7 @@ public class TransactionServiceImplTest {
 		account.setId(accountId);
 		account.setBalance(new BigDecimal("500.00"));
 
+		when(accountRepository.incrementBalance(eq(accountId), any(BigDecimal.class))).thenReturn(Mono.empty());
 		when(accountRepository.findById(accountId)).thenReturn(Mono.just(account));
 
 		// Act & Assert
@@ -215,12 +300,11 @@ public class TransactionServiceImplTest {
 		request.setAccountId(accountId);
 		request.setType(TransactionType.TRANSFER);
 		request.setAmount(new BigDecimal("1000.00"));
+		request.setTargetAccountId("target-id");
 
-		Account account = new Account();
-		account.setId(accountId);
-		account.setBalance(new BigDecimal("500.00"));
-
-		when(accountRepository.findById(accountId)).thenReturn(Mono.just(account));
+		when(transactionMapper.toEntity(request)).thenReturn(testTransaction);
+		when(transferProcessor.transfer(testTransaction)).thenReturn(
+				Mono.error(InsufficientFundsException.forTransfer(request.getAmount(), new BigDecimal("500.00"))));
 
 		// Act & Assert
 		StepVerifier.create(transactionService.createTransaction(request))
@@ -239,17 +323,13 @@ public class TransactionServiceImplTest {
 		request.setType(TransactionType.FEE); // Using FEE as an example of a type not handled in the switch
 		request.setAmount(new BigDecimal("100.00"));
 
-		Account account = new Account();
-		account.setId(accountId);
-		account.setBalance(new BigDecimal("500.00"));
-
-		when(accountRepository.findById(accountId)).thenReturn(Mono.just(account));
-
 		// Act & Assert
 		StepVerifier.create(transactionService.createTransaction(request))
 				.expectErrorMatches(throwable -> throwable instanceof InvalidTransactionTypeException
 						&& throwable.getMessage().contains("Invalid transaction type"))
 				.verify();
+
+		verify(accountRepository, never()).incrementBalance(anyString(), any(BigDecimal.class));
 	}
 
 	@Test
@@ -268,7 +348,9 @@ public class TransactionServiceImplTest {
 	void getTransactionsByAccountId_whenAccountNotFound_shouldThrowAccountNotFoundException() {
 		// Given
 		String accountId = "non-existent-id";
-		when(accountRepository.findById(accountId)).thenReturn(Mono.empty());
+		when(accountRepository.existsById(accountId)).thenReturn(Mono.just(false));
+		when(transactionRepository.findByAccountIdOrderByTransactionDateDesc(eq(accountId), any(PageRequest.class)))
+				.thenReturn(Flux.empty());
 
 		// Act & Assert
 		StepVerifier.create(transactionService.getTransactionsByAccountId(accountId, 10))
@@ -311,7 +393,7 @@ public class TransactionServiceImplTest {
 	@Test
 	void getTransactionsByAccountId_Success() {
 		// Given
-		when(accountRepository.findById(anyString())).thenReturn(Mono.just(testAccount));
+		when(accountRepository.existsById(anyString())).thenReturn(Mono.just(true));
 		when(transactionRepository.findByAccountIdOrderByTransactionDateDesc(anyString(), any(PageRequest.class)))
 				.thenReturn(Flux.just(testTransaction));
 		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
@@ -322,7 +404,8 @@ public class TransactionServiceImplTest {
 		// Then
 		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
 
-		verify(accountRepository).findById("acc123");
+		verify(accountRepository).existsById("acc123");
+		verify(accountRepository, never()).findById(anyString());
 		verify(transactionRepository).findByAccountIdOrderByTransactionDateDesc(eq("acc123"), any(PageRequest.class));
 		verify(transactionMapper).toDto(testTransaction);
 	}
@@ -330,7 +413,9 @@ public class TransactionServiceImplTest {
 	@Test
 	void getTransactionsByAccountId_AccountNotFound() {
 		// Given
-		when(accountRepository.findById(anyString())).thenReturn(Mono.empty());
+		when(accountRepository.existsById(anyString())).thenReturn(Mono.just(false));
+		when(transactionRepository.findByAccountIdOrderByTransactionDateDesc(anyString(), any(PageRequest.class)))
+				.thenReturn(Flux.empty());
 
 		// When
 		Flux<TransactionResponseDTO> result = transactionService.getTransactionsByAccountId("nonexistent", 10);
@@ -339,8 +424,322 @@ public class TransactionServiceImplTest {
 		StepVerifier.create(result).expectErrorMatches(throwable -> throwable instanceof AccountNotFoundException
 				&& throwable.getMessage().contains("nonexistent")).verify();
 
-		verify(accountRepository).findById("nonexistent");
-		verify(transactionRepository, never()).findByAccountIdOrderByTransactionDateDesc(anyString(),
-				any(PageRequest.class));
+		verify(accountRepository).existsById("nonexistent");
+		verify(transactionMapper, never()).toDto(any(Transaction.class));
+	}
+
+	@Test
+	void createTransactions_shouldDelegateToBatchProcessor() {
+		// Given
+		List<TransactionRequestDTO> requests = List.of(testTransactionRequestDTO);
+		BatchResultDTO<TransactionResponseDTO> batchResult = BatchResultDTO.<TransactionResponseDTO>builder().total(1)
+				.created(1).failed(0).items(Collections.emptyList()).build();
+		when(transactionBatchProcessor.process(requests)).thenReturn(Mono.just(batchResult));
+
+		// When
+		Mono<BatchResultDTO<TransactionResponseDTO>> result = transactionService.createTransactions(requests);
+
+		// Then
+		StepVerifier.create(result).expectNext(batchResult).verifyComplete();
+		verify(transactionBatchProcessor).process(requests);
+	}
+
+	@Test
+	void createTransactions_OversizedBatch() {
+		// Given
+		properties.getBatch().setMaxItems(1);
+		List<TransactionRequestDTO> requests = List.of(testTransactionRequestDTO, testTransactionRequestDTO);
+
+		// When
+		Mono<BatchResultDTO<TransactionResponseDTO>> result = transactionService.createTransactions(requests);
+
+		// Then
+		StepVerifier.create(result).expectError(ResponseStatusException.class).verify();
+		verify(transactionBatchProcessor, never()).process(any());
+	}
+
+	@Test
+	void createTransactions_StreamShouldReportEachItemInOrder() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		TransactionRequestDTO invalidRequest = TransactionRequestDTO.builder().accountId("acc123")
+				.type(TransactionType.DEPOSIT).build();
+		when(transactionBatchProcessor.validate(invalidRequest)).thenReturn("Amount is required");
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Flux<BatchItemResultDTO<TransactionResponseDTO>> result = transactionService
+				.createTransactions(Flux.just(invalidRequest, testTransactionRequestDTO));
+
+		// Then
+		StepVerifier.create(result)
+				.expectNextMatches(item -> item.getIndex() == 0 && item.getStatus() == BatchItemStatus.FAILED
+						&& "Amount is required".equals(item.getError()))
+				.expectNextMatches(item -> item.getIndex() == 1 && item.getStatus() == BatchItemStatus.CREATED
+						&& item.getResult() == testTransactionResponseDTO)
+				.verifyComplete();
+	}
+
+	@Test
+	void createTransactions_StreamShouldContinueAfterFailedItem() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.empty())
+				.thenReturn(Mono.just(testAccount));
+		when(accountRepository.findById("acc123")).thenReturn(Mono.empty());
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Flux<BatchItemResultDTO<TransactionResponseDTO>> result = transactionService
+				.createTransactions(Flux.just(testTransactionRequestDTO, testTransactionRequestDTO));
+
+		// Then
+		StepVerifier.create(result).expectNextMatches(item -> item.getStatus() == BatchItemStatus.FAILED)
+				.expectNextMatches(item -> item.getStatus() == BatchItemStatus.CREATED).verifyComplete();
+	}
+
+	@Test
+	void createTransaction_whenReferenceExists_shouldReplayOriginalTransaction() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123"))
+				.thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toDto(testTransaction)).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Mono<TransactionResponseDTO> result = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
+		verify(accountRepository, never()).incrementBalance(anyString(), any(BigDecimal.class));
+		verify(transactionRepository, never()).save(any(Transaction.class));
+	}
+
+	@Test
+	void createTransaction_whenRetried_shouldAnswerFromCache() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class))).thenReturn(Mono.just(testTransaction));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Mono<TransactionResponseDTO> first = transactionService.createTransaction(testTransactionRequestDTO);
+		Mono<TransactionResponseDTO> retry = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(first).expectNext(testTransactionResponseDTO).verifyComplete();
+		StepVerifier.create(retry).expectNext(testTransactionResponseDTO).verifyComplete();
+		verify(transactionRepository).findFirstByAccountIdAndReference("acc123", "REF123");
+		verify(accountRepository).incrementBalance("acc123", BigDecimal.valueOf(500));
+		verify(transactionRepository).save(any(Transaction.class));
+	}
+
+	@Test
+	void createTransaction_whenSaveIsDuplicate_shouldRevertBalanceAndReplay() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty())
+				.thenReturn(Mono.just(testTransaction));
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class)))
+				.thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toDto(testTransaction)).thenReturn(testTransactionResponseDTO);
+
+		// When
+		Mono<TransactionResponseDTO> result = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(result).expectNext(testTransactionResponseDTO).verifyComplete();
+		verify(accountRepository).adjustBalance("acc123", BigDecimal.valueOf(-500));
+	}
+
+	@Test
+	void createTransaction_whenReferenceStaysTaken_shouldFailWithDuplicateTransaction() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class)))
+				.thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+
+		// When
+		Mono<TransactionResponseDTO> result = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(result).expectError(DuplicateTransactionException.class).verify();
+		verify(accountRepository, times(2)).adjustBalance("acc123", BigDecimal.valueOf(-500));
+	}
+
+	@Test
+	void createTransaction_whenSaveFails_shouldRevertBalanceAndPropagateTheError() {
+		// Given
+		when(transactionRepository.findFirstByAccountIdAndReference("acc123", "REF123")).thenReturn(Mono.empty());
+		when(accountRepository.incrementBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+		when(transactionMapper.toEntity(testTransactionRequestDTO)).thenReturn(testTransaction);
+		when(transactionRepository.save(any(Transaction.class)))
+				.thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+		when(accountRepository.adjustBalance(anyString(), any(BigDecimal.class))).thenReturn(Mono.just(testAccount));
+
+		// When
+		Mono<TransactionResponseDTO> result = transactionService.createTransaction(testTransactionRequestDTO);
+
+		// Then
+		StepVerifier.create(result).expectError(DataAccessResourceFailureException.class).verify();
+		verify(accountRepository).adjustBalance("acc123", BigDecimal.valueOf(-500));
+	}
+
+	private Transaction historyEntry(String id, LocalDateTime date) {
+		return Transaction.builder().id(id).accountId("acc123").transactionDate(date).build();
+	}
+
+	@Test
+	void getTransactionPage_whenMoreTransactionsRemain_shouldReturnCursorOfLastTransaction() {
+		// Given
+		LocalDateTime date = LocalDateTime.of(2024, 3, 19, 10, 30);
+		Transaction second = historyEntry("65f9a1b2c3d4e5f6a7b8c9d1", date);
+		when(accountRepository.existsById("acc123")).thenReturn(Mono.just(true));
+		when(transactionRepository.findPageByAccountId("acc123", TransactionFilter.none(), null, 3)).thenReturn(Flux.just(
+				historyEntry("65f9a1b2c3d4e5f6a7b8c9d2", date), second,
+				historyEntry("65f9a1b2c3d4e5f6a7b8c9d0", date)));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When / Then
+		StepVerifier.create(transactionService.getTransactionPage("acc123", TransactionFilter.none(), 2, null)).assertNext(page -> {
+			assertEquals(2, page.getTransactions().size());
+			assertEquals(TransactionCursor.of(second), TransactionCursor.decode(page.getNextCursor()));
+		}).verifyComplete();
+	}
+
+	@Test
+	void getTransactionPage_whenCursorGiven_shouldSeekPastItAndEndOnLastPage() {
+		// Given
+		TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 3, 19, 10, 30),
+				"65f9a1b2c3d4e5f6a7b8c9d1");
+		when(accountRepository.existsById("acc123")).thenReturn(Mono.just(true));
+		when(transactionRepository.findPageByAccountId("acc123", TransactionFilter.none(), cursor, 11)).thenReturn(Flux.just(testTransaction));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When / Then
+		StepVerifier.create(transactionService.getTransactionPage("acc123", TransactionFilter.none(), 10, cursor.encode()))
+				.assertNext(page -> {
+					assertEquals(List.of(testTransactionResponseDTO), page.getTransactions());
+					assertNull(page.getNextCursor());
+				}).verifyComplete();
+	}
+
+	@Test
+	void getTransactionPage_whenCursorIsMalformed_shouldRejectWithoutQuerying() {
+		StepVerifier.create(transactionService.getTransactionPage("acc123", TransactionFilter.none(), 10, "not-a-cursor"))
+				.expectError(InvalidCursorException.class).verify();
+
+		verify(accountRepository, never()).existsById(anyString());
+	}
+
+	@Test
+	void getTransactionPage_shouldPassFiltersToTheDatabase() {
+		// Given
+		TransactionFilter filter = new TransactionFilter(LocalDateTime.of(2024, 3, 1, 0, 0),
+				LocalDateTime.of(2024, 4, 1, 0, 0), TransactionType.WITHDRAWAL, TransactionStatus.COMPLETED);
+		when(accountRepository.existsById("acc123")).thenReturn(Mono.just(true));
+		when(transactionRepository.findPageByAccountId("acc123", filter, null, 11)).thenReturn(Flux.empty());
+
+		// When / Then
+		StepVerifier.create(transactionService.getTransactionPage("acc123", filter, 10, null))
+				.assertNext(page -> assertEquals(List.of(), page.getTransactions())).verifyComplete();
+	}
+
+	@Test
+	void getTransactionPage_whenLimitExceedsMaxPageSize_shouldRejectWithoutQuerying() {
+		StepVerifier.create(transactionService.getTransactionPage("acc123", TransactionFilter.none(),
+				Integer.MAX_VALUE, null)).expectError(ResponseStatusException.class).verify();
+
+		verify(transactionRepository, never()).findPageByAccountId(anyString(), any(), any(), anyInt());
+	}
+
+	@Test
+	void getTransactionPage_whenDateRangeIsEmpty_shouldReject() {
+		TransactionFilter filter = new TransactionFilter(LocalDateTime.of(2024, 4, 1, 0, 0),
+				LocalDateTime.of(2024, 3, 1, 0, 0), null, null);
+
+		StepVerifier.create(transactionService.getTransactionPage("acc123", filter, 10, null))
+				.expectError(ResponseStatusException.class).verify();
+	}
+
+	@Test
+	void getTransactionsByAccountId_whenAccountIsKnown_shouldSkipExistenceCheck() {
+		// Given
+		accountExistenceCache.markExists("acc123");
+		when(transactionRepository.findByAccountIdOrderByTransactionDateDesc(eq("acc123"), any(PageRequest.class)))
+				.thenReturn(Flux.just(testTransaction));
+		when(transactionMapper.toDto(any(Transaction.class))).thenReturn(testTransactionResponseDTO);
+
+		// When / Then
+		StepVerifier.create(transactionService.getTransactionsByAccountId("acc123", 10))
+				.expectNext(testTransactionResponseDTO).verifyComplete();
+
+		verify(accountRepository, never()).existsById(anyString());
+	}
+
+	@Test
+	void exportStatement_shouldCarryRunningBalanceFromOpeningBalance() {
+		// Given
+		LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+		Transaction withdrawal = Transaction.builder().id("tx1").accountId("acc123").type(TransactionType.WITHDRAWAL)
+				.amount(BigDecimal.valueOf(200)).transactionDate(from.plusDays(1)).build();
+		Transaction interest = Transaction.builder().id("tx2").accountId("acc123").type(TransactionType.INTEREST)
+				.amount(BigDecimal.valueOf(5)).transactionDate(from.plusDays(2)).build();
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(transactionRepository.sumCompletedSince("acc123", from)).thenReturn(Mono.just(BigDecimal.valueOf(-195)));
+		when(transferProcessor.unrecordedSince(testAccount, from)).thenReturn(Mono.just(BigDecimal.ZERO));
+		when(transactionRepository.streamCompletedByAccountId("acc123", from, null, 500))
+				.thenReturn(Flux.just(withdrawal, interest));
+
+		// When / Then
+		StepVerifier.create(transactionService.exportStatement("acc123", from, null))
+				.assertNext(line -> {
+					assertEquals("tx1", line.getTransactionId());
+					assertEquals(BigDecimal.valueOf(-200), line.getAmount());
+					assertEquals(BigDecimal.valueOf(995), line.getBalance());
+				})
+				.assertNext(line -> assertEquals(BigDecimal.valueOf(1000), line.getBalance()))
+				.verifyComplete();
+	}
+
+	@Test
+	void exportStatement_withProcessingTransfer_shouldLeaveAppliedDebitOutOfOpeningBalance() {
+		// Given: the account was debited 300 by a transfer still in PROCESSING
+		LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+		Transaction deposit = Transaction.builder().id("tx1").accountId("acc123").type(TransactionType.DEPOSIT)
+				.amount(BigDecimal.valueOf(100)).transactionDate(from.plusDays(1)).build();
+		when(accountRepository.findById("acc123")).thenReturn(Mono.just(testAccount));
+		when(transactionRepository.sumCompletedSince("acc123", from)).thenReturn(Mono.just(BigDecimal.valueOf(100)));
+		when(transferProcessor.unrecordedSince(testAccount, from)).thenReturn(Mono.just(BigDecimal.valueOf(-300)));
+		when(transactionRepository.streamCompletedByAccountId("acc123", from, null, 500))
+				.thenReturn(Flux.just(deposit));
+
+		// When / Then
+		StepVerifier.create(transactionService.exportStatement("acc123", from, null))
+				.assertNext(line -> assertEquals(BigDecimal.valueOf(1300), line.getBalance())).verifyComplete();
+	}
+
+	@Test
+	void exportStatement_whenAccountNotFound_shouldThrowAccountNotFoundException() {
+		// Given
+		when(accountRepository.findById("missing")).thenReturn(Mono.empty());
+		when(transactionRepository.sumCompletedSince("missing", null)).thenReturn(Mono.just(BigDecimal.ZERO));
+
+		// When / Then
+		StepVerifier.create(transactionService.exportStatement("missing", null, null))
+				.expectError(AccountNotFoundException.class).verify();
+
+		verify(transactionRepository, never()).streamCompletedByAccountId(anyString(), any(), any(), eq(500));
 	}
-}
\ No newline at end of file
+}
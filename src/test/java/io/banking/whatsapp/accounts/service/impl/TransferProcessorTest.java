@@ -0,0 +1,284 @@
+package io.banking.whatsapp.accounts.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import io.banking.whatsapp.accounts.concurrency.AccountSequencer;
+import io.banking.whatsapp.accounts.config.AccountsProperties;
+import io.banking.whatsapp.accounts.domain.Account;
+import io.banking.whatsapp.accounts.domain.Transaction;
+import io.banking.whatsapp.accounts.domain.TransactionStatus;
+import io.banking.whatsapp.accounts.domain.TransactionType;
+import io.banking.whatsapp.accounts.exception.AccountNotFoundException;
+import io.banking.whatsapp.accounts.exception.InsufficientFundsException;
+import io.banking.whatsapp.accounts.exception.InvalidTransferException;
+import io.banking.whatsapp.accounts.repository.AccountRepository;
+import io.banking.whatsapp.accounts.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class TransferProcessorTest {
+
+	@Mock
+	private AccountRepository accountRepository;
+
+	@Mock
+	private TransactionRepository transactionRepository;
+
+	@Mock
+	private AccountRollupProjector accountRollupProjector;
+
+	private TransferProcessor transferProcessor;
+
+	@BeforeEach
+	void setUp() {
+		transferProcessor = new TransferProcessor(accountRepository, transactionRepository,
+				new AccountSequencer(new AccountsProperties(), new SimpleMeterRegistry()), accountRollupProjector);
+	}
+
+	private Transaction transfer(String targetId) {
+		return Transaction.builder().accountId("source").counterpartyAccountId(targetId)
+				.type(TransactionType.TRANSFER).amount(BigDecimal.valueOf(100)).transactionDate(LocalDateTime.now())
+				.build();
+	}
+
+	private Account account(String id, long balance, String... pendingTransfers) {
+		return Account.builder().id(id).balance(BigDecimal.valueOf(balance)).pendingTransfers(List.of(pendingTransfers))
+				.build();
+	}
+
+	@Test
+	void transfer_shouldDebitCreditRecordCreditLegAndComplete() {
+		// Given
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		when(accountRepository.applyTransferLeg(anyString(), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("source", 0)));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(accountRepository.releaseTransfer(anyString(), anyList())).thenReturn(Mono.empty());
+
+		// When / Then
+		StepVerifier.create(transferProcessor.transfer(transfer("target")))
+				.expectNextMatches(completed -> completed.getStatus() == TransactionStatus.COMPLETED
+						&& completed.getId().equals(completed.getTransferId()))
+				.verifyComplete();
+
+		verify(accountRepository).applyTransferLeg(eq("source"), anyString(), eq(BigDecimal.valueOf(-100)));
+		verify(accountRepository).applyTransferLeg(eq("target"), anyString(), eq(BigDecimal.valueOf(100)));
+		verify(transactionRepository).transitionStatus(anyString(), eq(TransactionStatus.PENDING),
+				eq(TransactionStatus.PROCESSING));
+		verify(transactionRepository, times(2)).transitionStatus(anyString(), eq(TransactionStatus.PROCESSING),
+				eq(TransactionStatus.COMPLETED));
+		verify(accountRepository).releaseTransfer(anyString(), eq(List.of("source", "target")));
+	}
+
+	@Test
+	void transfer_whenInsufficientFunds_shouldFailWithoutCrediting() {
+		// Given
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		when(accountRepository.applyTransferLeg(eq("source"), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.empty());
+		when(accountRepository.findById("source")).thenReturn(Mono.just(account("source", 50)));
+		when(transactionRepository.failReleasingReference(anyString(), eq(TransactionStatus.PENDING)))
+				.thenReturn(Mono.just(true));
+
+		// When / Then
+		StepVerifier.create(transferProcessor.transfer(transfer("target")))
+				.expectError(InsufficientFundsException.class).verify();
+
+		verify(accountRepository, never()).applyTransferLeg(eq("target"), anyString(), any(BigDecimal.class));
+		verify(transactionRepository, never()).transitionStatus(anyString(), any(), eq(TransactionStatus.FAILED));
+	}
+
+	@Test
+	void transfer_whenTargetDoesNotExist_shouldRevertDebitAndFail() {
+		// Given
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		when(accountRepository.applyTransferLeg(eq("source"), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("source", 0)));
+		when(accountRepository.applyTransferLeg(eq("missing"), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.empty());
+		when(accountRepository.findById("missing")).thenReturn(Mono.empty());
+		when(accountRepository.revertTransferLeg(eq("source"), anyString(), eq(BigDecimal.valueOf(-100))))
+				.thenReturn(Mono.just(account("source", 100)));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(transactionRepository.failReleasingReference(anyString(), eq(TransactionStatus.PROCESSING)))
+				.thenReturn(Mono.just(true));
+
+		// When / Then
+		StepVerifier.create(transferProcessor.transfer(transfer("missing")))
+				.expectError(AccountNotFoundException.class).verify();
+
+		verify(transactionRepository).transitionStatus(anyString(), eq(TransactionStatus.PROCESSING),
+				eq(TransactionStatus.FAILED));
+		verify(transactionRepository).failReleasingReference(anyString(), eq(TransactionStatus.PROCESSING));
+		verify(accountRepository, never()).releaseTransfer(anyString(), anyList());
+	}
+
+	@Test
+	void unrecordedSince_shouldSumLegsAppliedButNotRecordedAsCompleted() {
+		// Given
+		LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+		Transaction debit = Transaction.builder().id("t1").accountId("acc").counterpartyAccountId("other")
+				.type(TransactionType.TRANSFER).amount(BigDecimal.valueOf(100)).status(TransactionStatus.PROCESSING)
+				.transactionDate(from.plusDays(1)).build();
+		Transaction uncredited = Transaction.builder().id("t2").accountId("other").counterpartyAccountId("acc")
+				.type(TransactionType.TRANSFER).amount(BigDecimal.valueOf(40)).status(TransactionStatus.PROCESSING)
+				.transactionDate(from.plusDays(1)).build();
+		Transaction credited = Transaction.builder().id("t3").accountId("other").counterpartyAccountId("acc")
+				.type(TransactionType.TRANSFER).amount(BigDecimal.valueOf(25)).status(TransactionStatus.PROCESSING)
+				.transactionDate(from.plusDays(1)).build();
+		Transaction earlier = Transaction.builder().id("t4").accountId("acc").counterpartyAccountId("other")
+				.type(TransactionType.TRANSFER).amount(BigDecimal.valueOf(10)).status(TransactionStatus.PROCESSING)
+				.transactionDate(from.minusDays(1)).build();
+		List<String> pending = List.of("t1", "t2", "t3", "t4");
+		when(transactionRepository.findAllById(pending)).thenReturn(Flux.just(debit, uncredited, credited, earlier));
+		when(transactionRepository.findByTransferIdInAndType(pending, TransactionType.TRANSFER_IN))
+				.thenReturn(Flux.just(Transaction.builder().transferId("t3").status(TransactionStatus.COMPLETED).build()));
+
+		// When / Then
+		StepVerifier.create(transferProcessor.unrecordedSince(account("acc", 500, "t1", "t2", "t3", "t4"), from))
+				.assertNext(sum -> assertEquals(BigDecimal.valueOf(-60), sum)).verifyComplete();
+	}
+
+	@Test
+	void transfer_whenTargetIsSource_shouldReject() {
+		StepVerifier.create(transferProcessor.transfer(transfer("source")))
+				.expectError(InvalidTransferException.class).verify();
+
+		verify(transactionRepository, never()).insert(any(Transaction.class));
+	}
+
+	@Test
+	void recover_shouldCompleteDebitedTransfersAndFailTheOthers() {
+		// Given
+		Transaction debited = transfer("target");
+		debited.setId("debited");
+		debited.setStatus(TransactionStatus.PENDING);
+		Transaction abandoned = transfer("target");
+		abandoned.setId("abandoned");
+		abandoned.setStatus(TransactionStatus.PENDING);
+
+		when(transactionRepository.findByTypeAndStatusInAndTransactionDateBefore(eq(TransactionType.TRANSFER),
+				anyList(), any(LocalDateTime.class))).thenReturn(Flux.just(debited, abandoned));
+		when(accountRepository.findById("source")).thenReturn(Mono.just(account("source", 0, "debited")));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(transactionRepository.failReleasingReference("abandoned", TransactionStatus.PENDING))
+				.thenReturn(Mono.just(true));
+		when(accountRepository.applyTransferLeg("target", "debited", BigDecimal.valueOf(100)))
+				.thenReturn(Mono.just(account("target", 100, "debited")));
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		when(accountRepository.releaseTransfer(eq("debited"), anyList())).thenReturn(Mono.empty());
+
+		// When / Then
+		StepVerifier.create(transferProcessor.recover(LocalDateTime.now()))
+				.expectNextMatches(transfer -> transfer.getStatus() == TransactionStatus.COMPLETED)
+				.expectNextMatches(transfer -> transfer.getStatus() == TransactionStatus.FAILED).verifyComplete();
+
+		verify(accountRepository, never()).applyTransferLeg(eq("source"), anyString(), any(BigDecimal.class));
+		verify(transactionRepository).failReleasingReference("abandoned", TransactionStatus.PENDING);
+	}
+
+	@Test
+	void transfer_whenCreditLegAlreadyCompleted_shouldCompleteWithoutCreditingAgain() {
+		// Given
+		Transaction leg = Transaction.builder().id("leg").accountId("target").type(TransactionType.TRANSFER_IN)
+				.amount(BigDecimal.valueOf(100)).status(TransactionStatus.COMPLETED).build();
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)))
+				.thenReturn(Mono.error(new DuplicateKeyException("transfer_leg_idx")));
+		when(accountRepository.applyTransferLeg(eq("source"), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("source", 0)));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(transactionRepository.findFirstByTransferIdAndType(anyString(), eq(TransactionType.TRANSFER_IN)))
+				.thenReturn(Mono.just(leg));
+		when(accountRepository.releaseTransfer(anyString(), anyList())).thenReturn(Mono.empty());
+
+		// When / Then
+		StepVerifier.create(transferProcessor.transfer(transfer("target")))
+				.expectNextMatches(completed -> completed.getStatus() == TransactionStatus.COMPLETED)
+				.verifyComplete();
+
+		verify(accountRepository, never()).applyTransferLeg(eq("target"), anyString(), any(BigDecimal.class));
+	}
+
+	@Test
+	void transfer_whenCreditLegIsBeingRecordedElsewhere_shouldNotCredit() {
+		// Given
+		Transaction leg = Transaction.builder().id("leg").accountId("target").type(TransactionType.TRANSFER_IN)
+				.amount(BigDecimal.valueOf(100)).status(TransactionStatus.PROCESSING)
+				.transactionDate(LocalDateTime.now().minusHours(1)).build();
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenAnswer(invocation -> Mono.just(invocation.getArgument(0)))
+				.thenReturn(Mono.error(new DuplicateKeyException("transfer_leg_idx")));
+		when(accountRepository.applyTransferLeg(eq("source"), anyString(), any(BigDecimal.class)))
+				.thenReturn(Mono.just(account("source", 0)));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(transactionRepository.findFirstByTransferIdAndType(anyString(), eq(TransactionType.TRANSFER_IN)))
+				.thenReturn(Mono.just(leg));
+
+		// When / Then
+		StepVerifier.create(transferProcessor.transfer(transfer("target")))
+				.expectError(OptimisticLockingFailureException.class).verify();
+
+		verify(accountRepository, never()).applyTransferLeg(eq("target"), anyString(), any(BigDecimal.class));
+		verify(accountRepository, never()).releaseTransfer(anyString(), anyList());
+	}
+
+	@Test
+	void recover_whenCreditLegIsStale_shouldTakeOverTheCredit() {
+		// Given
+		Transaction processing = transfer("target");
+		processing.setId("processing");
+		processing.setStatus(TransactionStatus.PROCESSING);
+		Transaction leg = Transaction.builder().id("leg").accountId("target").type(TransactionType.TRANSFER_IN)
+				.amount(BigDecimal.valueOf(100)).status(TransactionStatus.PROCESSING)
+				.transactionDate(LocalDateTime.now().minusHours(1)).transferId("processing").build();
+
+		when(transactionRepository.findByTypeAndStatusInAndTransactionDateBefore(eq(TransactionType.TRANSFER),
+				anyList(), any(LocalDateTime.class))).thenReturn(Flux.just(processing));
+		when(transactionRepository.insert(any(Transaction.class)))
+				.thenReturn(Mono.error(new DuplicateKeyException("transfer_leg_idx")));
+		when(transactionRepository.findFirstByTransferIdAndType("processing", TransactionType.TRANSFER_IN))
+				.thenReturn(Mono.just(leg));
+		when(accountRepository.applyTransferLeg("target", "processing", BigDecimal.valueOf(100)))
+				.thenReturn(Mono.empty());
+		when(accountRepository.findById("target")).thenReturn(Mono.just(account("target", 100, "processing")));
+		when(transactionRepository.transitionStatus(anyString(), any(), any())).thenReturn(Mono.just(true));
+		when(accountRepository.releaseTransfer(eq("processing"), anyList())).thenReturn(Mono.empty());
+
+		// When / Then
+		StepVerifier.create(transferProcessor.recover(LocalDateTime.now().minusMinutes(5)))
+				.expectNextMatches(transfer -> transfer.getStatus() == TransactionStatus.COMPLETED).verifyComplete();
+
+		verify(transactionRepository).transitionStatus("leg", TransactionStatus.PROCESSING,
+				TransactionStatus.COMPLETED);
+		verify(transactionRepository).transitionStatus("processing", TransactionStatus.PROCESSING,
+				TransactionStatus.COMPLETED);
+	}
+}